@@ -0,0 +1,90 @@
+package neural;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * SIMD MatMulKernel on the incubating Vector API.
+ * <br>Vectorizes along the output dimension: each input value is broadcast and multiplied into a whole weight row,
+ * ... four rows at a time like ScalarKernel. Output columns past the last full vector are finished in scalar code.
+ * <br>Lives in its own source set, `src-vector`, so the main sources compile without the incubator module. It's an opt-in second
+ * ... compile step against the main classes, and requires `--add-modules jdk.incubator.vector` at compile and run time.
+ * Never referenced directly; MatMulKernel.best() loads it reflectively and falls back to ScalarKernel if it's missing or can't link.
+ */
+final class VectorKernel implements MatMulKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int ROW_BLOCK = 4;
+
+    @Override
+    public void multiply(float[] input, int rows, DenseLayer layer, float[] output) {
+
+        int inputSize = layer.inputSize;
+        int outputSize = layer.outputSize;
+        ByteBuffer weights = layer.weights;
+        int vectorBound = SPECIES.loopBound(outputSize);
+        int lanes = SPECIES.length();
+
+        // Start every row at the bias
+        for (int r = 0; r < rows; r++)
+            for (int o = 0; o < outputSize; o++)
+                output[r * outputSize + o] = layer.getBias(o);
+
+        int r = 0;
+        for (; r + ROW_BLOCK <= rows; r += ROW_BLOCK) {
+            int in0 = r * inputSize, in1 = in0 + inputSize, in2 = in1 + inputSize, in3 = in2 + inputSize;
+            int out0 = r * outputSize, out1 = out0 + outputSize, out2 = out1 + outputSize, out3 = out2 + outputSize;
+            for (int i = 0; i < inputSize; i++) {
+                float x0 = input[in0 + i], x1 = input[in1 + i], x2 = input[in2 + i], x3 = input[in3 + i];
+                if (x0 == 0f && x1 == 0f && x2 == 0f && x3 == 0f) continue;
+                FloatVector v0 = FloatVector.broadcast(SPECIES, x0), v1 = FloatVector.broadcast(SPECIES, x1);
+                FloatVector v2 = FloatVector.broadcast(SPECIES, x2), v3 = FloatVector.broadcast(SPECIES, x3);
+                int w = i * outputSize;
+                int o = 0;
+                for (; o < vectorBound; o += lanes) {
+                    FloatVector weight = FloatVector.fromByteBuffer(SPECIES, weights, (w + o) * Float.BYTES, ByteOrder.LITTLE_ENDIAN);
+                    weight.fma(v0, FloatVector.fromArray(SPECIES, output, out0 + o)).intoArray(output, out0 + o);
+                    weight.fma(v1, FloatVector.fromArray(SPECIES, output, out1 + o)).intoArray(output, out1 + o);
+                    weight.fma(v2, FloatVector.fromArray(SPECIES, output, out2 + o)).intoArray(output, out2 + o);
+                    weight.fma(v3, FloatVector.fromArray(SPECIES, output, out3 + o)).intoArray(output, out3 + o);
+                }
+                for (; o < outputSize; o++) {
+                    float weight = weights.getFloat((w + o) * Float.BYTES);
+                    output[out0 + o] += x0 * weight;
+                    output[out1 + o] += x1 * weight;
+                    output[out2 + o] += x2 * weight;
+                    output[out3 + o] += x3 * weight;
+                }
+            }
+        }
+
+        // Remaining rows, one at a time
+        for (; r < rows; r++) {
+            int in = r * inputSize;
+            int out = r * outputSize;
+            for (int i = 0; i < inputSize; i++) {
+                float x = input[in + i];
+                if (x == 0f) continue;
+                FloatVector v = FloatVector.broadcast(SPECIES, x);
+                int w = i * outputSize;
+                int o = 0;
+                for (; o < vectorBound; o += lanes) {
+                    FloatVector weight = FloatVector.fromByteBuffer(SPECIES, weights, (w + o) * Float.BYTES, ByteOrder.LITTLE_ENDIAN);
+                    weight.fma(v, FloatVector.fromArray(SPECIES, output, out + o)).intoArray(output, out + o);
+                }
+                for (; o < outputSize; o++)
+                    output[out + o] += x * weights.getFloat((w + o) * Float.BYTES);
+            }
+        }
+
+    }
+
+    @Override
+    public String getName() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+}
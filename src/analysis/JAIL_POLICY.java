@@ -0,0 +1,11 @@
+package analysis;
+
+/**
+ * Enum class representing how a jailed Player tries to leave Jail, for the analytic models.
+ */
+public enum JAIL_POLICY {
+
+    PAY_BAIL,  // Leave at the start of the first turn in Jail (with a card if there is one, by paying bail otherwise), then move as usual
+    THROW_DICE  // Throw for doubles every turn, until Monopoly.MAX_TURNS_IN_JAIL turns are served and leaving is forced
+
+}
@@ -0,0 +1,204 @@
+package analysis;
+
+import gameobjects.BoardIndex;
+import gameobjects.CARD;
+import gameobjects.CardStack;
+import gameobjects.Property;
+import gameobjects.SQUARE_KIND;
+import main.Monopoly;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Value iteration for the Jail decision, over (turns in Jail, board danger level, cash bucket, Get Out of Jail Free cards held).
+ * <br>A Player's turns are valued by their cash flow, discounted by `discount` per turn: out of Jail they collect the GO salary
+ * ... and pay the board's danger (the rent they'd expect to pay per turn), in Jail neither. Leaving Jail costs the bail or a card.
+ * Running out of cash ends the Game with `bankruptcyValue`.
+ * <br>Out of Jail, a Player is sent back in and draws a Get Out of Jail Free card at the long-run rates of LandingModel.
+ * In Jail, JAIL_THROW_DICE leaves on doubles and moves that turn; JAIL_PAY_BAIL and JAIL_USE_CARD leave and move.
+ * After Monopoly.MAX_TURNS_IN_JAIL turns, the bail or a card is forced.
+ * <br>Cash flows are expected values, split across the two cash buckets around where they lead. Other cash and the board
+ * ... changing are left out: a danger level is the board as it stands.
+ */
+public final class JailPolicySolver {
+
+    public static final int DEFAULT_DANGER_LEVELS = 16;
+    public static final int DEFAULT_DANGER_STEP = 20;  // Dollars of rent per turn
+    public static final int DEFAULT_CASH_LEVELS = 41;
+    public static final int DEFAULT_CASH_STEP = 50;
+    public static final int CARD_LEVELS = 3;  // 0, 1, 2 or more cards
+    public static final double DEFAULT_DISCOUNT = 0.97;
+    public static final double DEFAULT_BANKRUPTCY_VALUE = -1500;
+
+    // Average squares moved per turn out of Jail: a roll of 7, and another after doubles (1 in 6), twice at most
+    private static final double SQUARES_PER_TURN = 7 * (1 + 1.0 / 6 + 1.0 / 36);
+    private static final double GO_SALARY_PER_TURN = 200 * SQUARES_PER_TURN / BoardIndex.NUM_SQUARES;
+    private static final double DOUBLES = 1.0 / 6;
+    private static final double TOLERANCE = 1e-6;  // Largest change of a value at which the iteration stops
+    private static final int MAX_ITERATIONS = 10_000;
+
+    private static final int THROW_DICE = 0, PAY_BAIL = 1, USE_CARD = 2;  // Indexes into GameAction.JAIL_ACTIONS
+
+    private final int dangerLevels;
+    private final int dangerStep;
+    private final int cashLevels;
+    private final int cashStep;
+    private final double discount;
+    private final double bankruptcyValue;
+
+    private final double jailRate;  // Chance of being sent to Jail per turn out of it
+    private final double cardRate;  // Chance of drawing a Get Out of Jail Free card per turn out of Jail
+
+    public JailPolicySolver(int dangerLevels, int dangerStep, int cashLevels, int cashStep, double discount, double bankruptcyValue) {
+        this.dangerLevels = dangerLevels;
+        this.dangerStep = dangerStep;
+        this.cashLevels = cashLevels;
+        this.cashStep = cashStep;
+        this.discount = discount;
+        this.bankruptcyValue = bankruptcyValue;
+
+        // Long-run rates over the turns spent out of Jail
+        LandingModel model = LandingModel.of(JAIL_POLICY.THROW_DICE);
+        double[] stationary = model.stationary();
+        double free = 0, jailed = 0, card = 0;
+        for (int state = 0; state < LandingModel.NUM_SQUARES; state++) {
+            free += stationary[state];
+            jailed += stationary[state] * model.transition(state, LandingModel.jailState(0));
+            double[] landings = model.landingsPerTurn(state);
+            for (int square = 0; square < LandingModel.NUM_SQUARES; square++) {
+                if (BoardIndex.KINDS[square] == SQUARE_KIND.CHANCE)
+                    card += stationary[state] * landings[square] * cardShare(CardStack.CHANCE_DEFAULT);
+                else if (BoardIndex.KINDS[square] == SQUARE_KIND.COMMUNITY_CHEST)
+                    card += stationary[state] * landings[square] * cardShare(CardStack.COMMUNITY_DEFAULT);
+            }
+        }
+        this.jailRate = jailed / free;
+        this.cardRate = card / free;
+    }
+
+    public JailPolicySolver() {
+        this(DEFAULT_DANGER_LEVELS, DEFAULT_DANGER_STEP, DEFAULT_CASH_LEVELS, DEFAULT_CASH_STEP, DEFAULT_DISCOUNT, DEFAULT_BANKRUPTCY_VALUE);
+    }
+
+    private static double cardShare(List<CARD> deck) {
+        int cards = 0;
+        for (CARD card : deck)
+            if (card == CARD.GTFO_JAIL || card == CARD.GTFO_JAIL_2) cards++;
+        return (double) cards / deck.size();
+    }
+
+    /**
+     * @return Optimal Jail action per (turns in Jail, danger level, cash bucket, cards held).
+     */
+    public JailPolicyTable solve() {
+        ByteBuffer image = JailPolicyTable.allocate(dangerLevels, dangerStep, cashLevels, cashStep, CARD_LEVELS);
+        for (int danger = 0; danger < dangerLevels; danger++)
+            new Level(danger * dangerStep).solve(image, danger);
+        return new JailPolicyTable(image);
+    }
+
+    /**
+     * Values of one danger level, [cash bucket][cards] out of Jail and [turns in Jail][cash bucket][cards] at a Jail decision.
+     */
+    private final class Level {
+
+        private final double flow;  // Cash flow of a turn out of Jail
+        private final double[][] free = new double[cashLevels][CARD_LEVELS];
+        private final double[][][] jail = new double[JailPolicyTable.TURN_LEVELS][cashLevels][CARD_LEVELS];
+
+        Level(double danger) {
+            this.flow = GO_SALARY_PER_TURN - danger;
+        }
+
+        void solve(ByteBuffer image, int danger) {
+            for (int i = 0; i < MAX_ITERATIONS; i++)
+                if (iterate() < TOLERANCE) break;
+            for (int turns = 0; turns < JailPolicyTable.TURN_LEVELS; turns++)
+                for (int cash = 0; cash < cashLevels; cash++)
+                    for (int cards = 0; cards < CARD_LEVELS; cards++)
+                        image.put(JailPolicyTable.offset(turns, danger, cash, cards, dangerLevels, cashLevels, CARD_LEVELS),
+                                (byte) best(turns, cash, cards));
+        }
+
+        /**
+         * One sweep of value iteration, in place.
+         * @return Largest change of a value.
+         */
+        private double iterate() {
+            double change = 0;
+            for (int cash = 0; cash < cashLevels; cash++) {
+                for (int cards = 0; cards < CARD_LEVELS; cards++) {
+                    double value = turn(cash, cards);
+                    change = Math.max(change, Math.abs(value - free[cash][cards]));
+                    free[cash][cards] = value;
+                }
+            }
+            for (int turns = JailPolicyTable.TURN_LEVELS - 1; turns >= 0; turns--) {
+                for (int cash = 0; cash < cashLevels; cash++) {
+                    for (int cards = 0; cards < CARD_LEVELS; cards++) {
+                        double value = actionValue(turns, cash, cards, best(turns, cash, cards));
+                        change = Math.max(change, Math.abs(value - jail[turns][cash][cards]));
+                        jail[turns][cash][cards] = value;
+                    }
+                }
+            }
+            return change;
+        }
+
+        /**
+         * @return Value of a turn out of Jail (or leaving it), starting with cash bucket `cash`.
+         */
+        private double turn(int cash, int cards) {
+            double after = cash + flow / cashStep;
+            if (after < 0) return bankruptcyValue;
+            int more = Math.min(cards + 1, CARD_LEVELS - 1);
+            double next = (1 - jailRate) * ((1 - cardRate) * interpolate(free, after, cards) + cardRate * interpolate(free, after, more))
+                    + jailRate * ((1 - cardRate) * interpolate(jail[0], after, cards) + cardRate * interpolate(jail[0], after, more));
+            return flow + discount * next;
+        }
+
+        private double interpolate(double[][] values, double cash, int cards) {
+            if (cash >= cashLevels - 1) return values[cashLevels - 1][cards];
+            int floor = (int) cash;
+            double fraction = cash - floor;
+            return (1 - fraction) * values[floor][cards] + fraction * values[floor + 1][cards];
+        }
+
+        /**
+         * @return Index into GameAction.JAIL_ACTIONS of the best legal action, JAIL_PAY_BAIL if none is (the bail is forced).
+         */
+        private int best(int turns, int cash, int cards) {
+            int best = PAY_BAIL;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int action = THROW_DICE; action <= USE_CARD; action++) {
+                if (!legal(turns, cash, cards, action)) continue;
+                double value = actionValue(turns, cash, cards, action);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = action;
+                }
+            }
+            return best;
+        }
+
+        private boolean legal(int turns, int cash, int cards, int action) {
+            return switch (action) {
+                case THROW_DICE -> turns < Monopoly.MAX_TURNS_IN_JAIL;
+                case PAY_BAIL -> cash * cashStep >= Property.BAIL_AMOUNT;
+                default -> cards > 0;
+            };
+        }
+
+        private double actionValue(int turns, int cash, int cards, int action) {
+            if (!legal(turns, cash, cards, action)) return bankruptcyValue;  // Forced out without the bail or a card
+            return switch (action) {
+                case THROW_DICE -> DOUBLES * free[cash][cards] + (1 - DOUBLES) * discount * jail[turns + 1][cash][cards];
+                case PAY_BAIL -> -Property.BAIL_AMOUNT + interpolate(free, cash - (double) Property.BAIL_AMOUNT / cashStep, cards);
+                default -> free[cash][cards - 1];
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,140 @@
+package analysis;
+
+import gameobjects.GameAction;
+import gameobjects.GameState;
+import main.Monopoly;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lookup table of the Jail action to take, by (turns in Jail, board danger level, cash bucket, Get Out of Jail Free cards held).
+ * Built by JailPolicySolver; any Judge can query it in O(1).
+ * <br>Tables are stored in a flat little-endian binary file, which load() memory-maps. Layout:
+ * <br>- Header: int MAGIC, int FORMAT_VERSION, then int danger levels, int danger step, int cash levels, int cash step, int card levels.
+ * <br>- Actions: one byte per entry, an index into GameAction.JAIL_ACTIONS, laid out [turns in Jail][danger][cash][cards].
+ * <br>The danger level of a board is the rent a Player would expect to pay per turn out of Jail (see danger()), in steps of
+ * ... `danger step` dollars; cash is in buckets of `cash step` dollars. Both are clamped to their last level.
+ * <br>Thread-safe: the table is read-only.
+ */
+public final class JailPolicyTable {
+
+    public static final int MAGIC = 0x4D4A4C54;  // "MJLT"
+    public static final int FORMAT_VERSION = 1;
+    public static final int TURN_LEVELS = Monopoly.MAX_TURNS_IN_JAIL + 1;
+    private static final int HEADER_INTS = 7;
+
+    private final ByteBuffer image;  // Whole file image, header included
+    private final int dangerLevels;
+    private final int dangerStep;
+    private final int cashLevels;
+    private final int cashStep;
+    private final int cardLevels;
+
+    /**
+     * Parse a table from its file image, which must not change afterwards.
+     */
+    public JailPolicyTable(ByteBuffer image) {
+        this.image = image.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (this.image.getInt(0) != MAGIC || this.image.getInt(Integer.BYTES) != FORMAT_VERSION)
+            throw new IllegalArgumentException("Not a version " + FORMAT_VERSION + " JailPolicyTable image");
+        this.dangerLevels = this.image.getInt(2 * Integer.BYTES);
+        this.dangerStep = this.image.getInt(3 * Integer.BYTES);
+        this.cashLevels = this.image.getInt(4 * Integer.BYTES);
+        this.cashStep = this.image.getInt(5 * Integer.BYTES);
+        this.cardLevels = this.image.getInt(6 * Integer.BYTES);
+        if (this.image.limit() != HEADER_INTS * Integer.BYTES + TURN_LEVELS * dangerLevels * cashLevels * cardLevels)
+            throw new IllegalArgumentException("JailPolicyTable image is truncated or has trailing data");
+    }
+
+    /**
+     * @return Empty table image of the given dimensions, every action JAIL_THROW_DICE, for JailPolicySolver to fill in.
+     */
+    static ByteBuffer allocate(int dangerLevels, int dangerStep, int cashLevels, int cashStep, int cardLevels) {
+        ByteBuffer image = ByteBuffer.allocate(HEADER_INTS * Integer.BYTES + TURN_LEVELS * dangerLevels * cashLevels * cardLevels)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        image.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(dangerLevels).putInt(dangerStep).putInt(cashLevels).putInt(cashStep).putInt(cardLevels);
+        return image;
+    }
+
+    static int offset(int turnsInJail, int danger, int cash, int cards, int dangerLevels, int cashLevels, int cardLevels) {
+        return HEADER_INTS * Integer.BYTES + ((turnsInJail * dangerLevels + danger) * cashLevels + cash) * cardLevels + cards;
+    }
+
+    /**
+     * Memory-map a table file (read-only).
+     */
+    public static JailPolicyTable load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new JailPolicyTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write this table's file image to `path`, replacing any existing file.
+     */
+    public void save(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = image.duplicate().clear();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    /**
+     * @param danger Rent expected to be paid per turn out of Jail, see danger().
+     * @return Jail action to take: JAIL_USE_CARD only with a card, JAIL_THROW_DICE only before the last turn,
+     * ... JAIL_PAY_BAIL with the bail in cash, or when the last turn leaves nothing else.
+     */
+    public GameAction action(int turnsInJail, double danger, int cash, int cards) {
+        int dangerLevel = Math.min((int) Math.round(Math.max(danger, 0) / dangerStep), dangerLevels - 1);
+        int cashLevel = Math.min(Math.max(cash, 0) / cashStep, cashLevels - 1);
+        int offset = offset(Math.min(turnsInJail, TURN_LEVELS - 1), dangerLevel, cashLevel, Math.min(cards, cardLevels - 1),
+                dangerLevels, cashLevels, cardLevels);
+        return GameAction.JAIL_ACTIONS[image.get(offset)];
+    }
+
+    /**
+     * @return Jail action for a jailed Player of a GameState.
+     */
+    public GameAction action(GameState gameState, int playerIndex, ValuationService valuationService) {
+        return action(gameState.turnsInJail[playerIndex], danger(gameState, playerIndex, valuationService),
+                gameState.cash[playerIndex], gameState.gtfoJailCards[playerIndex]);
+    }
+
+    /**
+     * @return Rent a Player can expect to pay per turn out of Jail: what the other Players still in the Game collect per opponent turn.
+     */
+    public static double danger(GameState gameState, int playerIndex, ValuationService valuationService) {
+        double[] incomes = valuationService.rentIncomes(gameState);
+        double danger = 0;
+        for (int i = 0; i < incomes.length; i++)
+            if (i != playerIndex && !gameState.playerBankruptcy[i]) danger += incomes[i];
+        return danger;
+    }
+
+    public int getDangerLevels() {
+        return dangerLevels;
+    }
+
+    public int getDangerStep() {
+        return dangerStep;
+    }
+
+    public int getCashLevels() {
+        return cashLevels;
+    }
+
+    public int getCashStep() {
+        return cashStep;
+    }
+
+    public int getCardLevels() {
+        return cardLevels;
+    }
+
+}
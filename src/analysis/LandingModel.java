@@ -0,0 +1,324 @@
+package analysis;
+
+import gameobjects.BoardIndex;
+import gameobjects.CARD;
+import gameobjects.CardStack;
+import gameobjects.GameState;
+import main.Monopoly;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Markov chain of one token's movement around the board, turn by turn, following the Game's rules: the dice, with another roll
+ * ... after doubles and Jail on the third doubles in a row, Go To Jail, the moving Chance / Community Chest cards, and Jail,
+ * ... left per a JAIL_POLICY.
+ * <br>States are the squares a turn can end on, then Jail by turns served (0 to Monopoly.MAX_TURNS_IN_JAIL), see stateOf().
+ * Cards are drawn with equal probability from the full decks in CardStack, i.e. ignoring held Get Out of Jail Free cards.
+ * <br>The transition matrix, the stationary distribution and the expected landings per turn are built once per policy (see of()).
+ * The N-turn distributions from each state are computed by power iteration on first request and cached.
+ * <br>Thread-safe. Arrays handed out are shared: treat them as read-only.
+ */
+public final class LandingModel {
+
+    public static final int NUM_SQUARES = BoardIndex.NUM_SQUARES;
+    public static final int NUM_STATES = NUM_SQUARES + Monopoly.MAX_TURNS_IN_JAIL + 1;
+
+    private static final double CONVERGENCE = 1e-13;  // L1 change of an iteration at which the stationary distribution is final
+    private static final int MAX_ITERATIONS = 10_000;
+    static final int SENT_TO_JAIL = -1;
+
+    private static final LandingModel[] MODELS = new LandingModel[JAIL_POLICY.values().length];
+    static {
+        for (JAIL_POLICY policy : JAIL_POLICY.values())
+            MODELS[policy.ordinal()] = new LandingModel(policy);
+    }
+
+    private final JAIL_POLICY policy;
+    private final double[][] transitions = new double[NUM_STATES][NUM_STATES];  // [from][to] over one turn
+    private final double[][] landings = new double[NUM_STATES][NUM_SQUARES];  // [from][square]: expected landings during one turn
+    private final double[] stationary;
+    private final double[][] nearestCardLandings = new double[NUM_STATES][NUM_SQUARES];  // Part of `landings` through an 'Advance to the nearest' card
+    private final double[] steadyLandings;
+    private final double[] steadyNearestCardLandings;
+
+    // Per starting state: distributions after 0, 1, 2, ... turns, and expected landings on turns 1, 2, ... Grown on demand.
+    private final AtomicReferenceArray<double[][]> distributions = new AtomicReferenceArray<>(NUM_STATES);
+    private final AtomicReferenceArray<double[][]> turnLandings = new AtomicReferenceArray<>(NUM_STATES);
+
+    private LandingModel(JAIL_POLICY policy) {
+        this.policy = policy;
+        for (int state = 0; state < NUM_STATES; state++)
+            buildTurn(state);
+        this.stationary = solveStationary();
+        this.steadyLandings = new double[NUM_SQUARES];
+        this.steadyNearestCardLandings = new double[NUM_SQUARES];
+        for (int state = 0; state < NUM_STATES; state++) {
+            for (int square = 0; square < NUM_SQUARES; square++) {
+                steadyLandings[square] += stationary[state] * landings[state][square];
+                steadyNearestCardLandings[square] += stationary[state] * nearestCardLandings[state][square];
+            }
+        }
+    }
+
+    /**
+     * @return Model of a policy, built once per policy.
+     */
+    public static LandingModel of(JAIL_POLICY policy) {
+        return MODELS[policy.ordinal()];
+    }
+
+    /**
+     * @return State of a jailed token that has served `turnsInJail` turns.
+     */
+    public static int jailState(int turnsInJail) {
+        return NUM_SQUARES + Math.min(turnsInJail, Monopoly.MAX_TURNS_IN_JAIL);
+    }
+
+    /**
+     * @return State of a Player's token: their square, or Jail by the turns they've served.
+     */
+    public static int stateOf(GameState gameState, int playerIndex) {
+        if (gameState.jailedPlayers[playerIndex])
+            return jailState(gameState.turnsInJail[playerIndex]);
+        return gameState.playerLocations[playerIndex];
+    }
+
+    public JAIL_POLICY getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return Probability of ending a turn started in state `from` in state `to`.
+     */
+    public double transition(int from, int to) {
+        return transitions[from][to];
+    }
+
+    /**
+     * @return Expected number of times a token lands on each square during a turn started in `state`.
+     * Card moves count as landings too, and a turn can land more than once after doubles.
+     */
+    public double[] landingsPerTurn(int state) {
+        return landings[state];
+    }
+
+    /**
+     * @return Long-run share of turns ending in each state.
+     */
+    public double[] stationary() {
+        return stationary;
+    }
+
+    /**
+     * @return Long-run expected number of times a token lands on each square per turn.
+     */
+    public double[] steadyLandings() {
+        return steadyLandings;
+    }
+
+    /**
+     * @return Part of steadyLandings() reached through an 'Advance to the nearest Railroad / Utility' card,
+     * ... on which the Game charges more rent than usual.
+     */
+    public double[] steadyNearestCardLandings() {
+        return steadyNearestCardLandings;
+    }
+
+    /**
+     * @return Distribution over states after `turns` turns from `state`.
+     */
+    public double[] distributionAfter(int state, int turns) {
+        return horizon(state, turns)[turns];
+    }
+
+    /**
+     * @return Expected number of times a token lands on each square during its `turn`th turn (from 1) from `state`.
+     */
+    public double[] landingsOnTurn(int state, int turn) {
+        if (turn < 1)
+            throw new IllegalArgumentException("Turns count from 1");
+        double[][] cached = turnLandings.get(state);
+        if (cached != null && turn < cached.length)
+            return cached[turn];
+        // Turn `i` starts from the distribution after `i - 1` turns
+        double[][] horizon = horizon(state, turn - 1);
+        double[][] grown = new double[horizon.length + 1][];
+        int from = 1;
+        if (cached != null) {
+            System.arraycopy(cached, 0, grown, 0, cached.length);
+            from = cached.length;
+        }
+        for (int i = from; i < grown.length; i++) {
+            grown[i] = new double[NUM_SQUARES];
+            for (int start = 0; start < NUM_STATES; start++) {
+                double p = horizon[i - 1][start];
+                if (p == 0) continue;
+                for (int square = 0; square < NUM_SQUARES; square++)
+                    grown[i][square] += p * landings[start][square];
+            }
+        }
+        turnLandings.set(state, grown);
+        return grown[turn];
+    }
+
+    /**
+     * @return Distributions after 0 to at least `turns` turns from `state`, growing the cached powers of the chain as needed.
+     */
+    private double[][] horizon(int state, int turns) {
+        double[][] cached = distributions.get(state);
+        if (cached != null && turns < cached.length)
+            return cached;
+        int length = Math.max(turns + 1, (cached == null) ? 8 : cached.length * 2);
+        double[][] grown = new double[length][];
+        int from = 0;
+        if (cached != null) {
+            System.arraycopy(cached, 0, grown, 0, cached.length);
+            from = cached.length;
+        } else {
+            grown[0] = new double[NUM_STATES];
+            grown[0][state] = 1;
+            from = 1;
+        }
+        for (int turn = from; turn < length; turn++)
+            grown[turn] = step(grown[turn - 1]);
+        // Racing threads compute the same powers, so whichever is stored last is as good as the others
+        distributions.set(state, grown);
+        return grown;
+    }
+
+    /**
+     * @return Distribution one turn after `distribution`.
+     */
+    private double[] step(double[] distribution) {
+        double[] next = new double[NUM_STATES];
+        for (int from = 0; from < NUM_STATES; from++) {
+            double p = distribution[from];
+            if (p == 0) continue;
+            double[] row = transitions[from];
+            for (int to = 0; to < NUM_STATES; to++)
+                next[to] += p * row[to];
+        }
+        return next;
+    }
+
+    /**
+     * Power iteration from GO until the distribution stops changing.
+     */
+    private double[] solveStationary() {
+        double[] distribution = new double[NUM_STATES];
+        distribution[BoardIndex.GO] = 1;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double[] next = step(distribution);
+            double change = 0;
+            for (int state = 0; state < NUM_STATES; state++)
+                change += Math.abs(next[state] - distribution[state]);
+            distribution = next;
+            if (change < CONVERGENCE) break;
+        }
+        return distribution;
+    }
+
+    // Transition matrix ////////////////////////////
+    // Every dice roll and card draw of a turn is enumerated, branching with its probability.
+
+    private void buildTurn(int state) {
+        if (state < NUM_SQUARES) {
+            roll(state, state, 0, 1.0);
+            return;
+        }
+        int served = state - NUM_SQUARES;
+        if (served == Monopoly.MAX_TURNS_IN_JAIL || policy == JAIL_POLICY.PAY_BAIL) {
+            roll(state, BoardIndex.JAIL, 0, 1.0);  // Leaves Jail, then moves as usual
+            return;
+        }
+        // Throws for doubles: leaves and moves on doubles (without rolling again), serves another turn otherwise
+        for (int r = 1; r <= 6; r++)
+            land(state, (BoardIndex.JAIL + 2 * r) % NUM_SQUARES, 0, 1.0 / 36);
+        transitions[state][jailState(served + 1)] += 30.0 / 36;
+    }
+
+    /**
+     * Roll the dice from `square`, after `doubles` doubles in a row this turn.
+     */
+    private void roll(int state, int square, int doubles, double probability) {
+        double p = probability / 36;
+        for (int r1 = 1; r1 <= 6; r1++) {
+            for (int r2 = 1; r2 <= 6; r2++) {
+                if (r1 != r2)
+                    land(state, (square + r1 + r2) % NUM_SQUARES, 0, p);
+                else if (doubles == 2)
+                    transitions[state][jailState(0)] += p;  // Third doubles in a row
+                else
+                    land(state, (square + r1 + r2) % NUM_SQUARES, doubles + 1, p);
+            }
+        }
+    }
+
+    /**
+     * Land on `square`, then either end the turn there or roll again after doubles.
+     */
+    private void land(int state, int square, int doubles, double probability) {
+        landings[state][square] += probability;
+        switch (BoardIndex.KINDS[square]) {
+            case GO_TO_JAIL -> {
+                transitions[state][jailState(0)] += probability;
+                return;
+            }
+            case CHANCE -> {
+                draw(state, square, doubles, probability, CardStack.CHANCE_DEFAULT);
+                return;
+            }
+            case COMMUNITY_CHEST -> {
+                draw(state, square, doubles, probability, CardStack.COMMUNITY_DEFAULT);
+                return;
+            }
+        }
+        settle(state, square, doubles, probability);
+    }
+
+    private void draw(int state, int square, int doubles, double probability, List<CARD> deck) {
+        double p = probability / deck.size();
+        for (CARD card : deck) {
+            int destination = cardDestination(card, square);
+            if (destination == SENT_TO_JAIL)
+                transitions[state][jailState(0)] += p;
+            else if (destination == square)
+                settle(state, square, doubles, p);
+            else {
+                if (card == CARD.ADVANCE_TO_NEAREST_RAILROAD || card == CARD.ADVANCE_TO_NEAREST_RAILROAD_2 || card == CARD.ADVANCE_TO_NEAREST_UTILITY)
+                    nearestCardLandings[state][destination] += p;
+                land(state, destination, doubles, p);
+            }
+        }
+    }
+
+    private void settle(int state, int square, int doubles, double probability) {
+        if (doubles > 0)
+            roll(state, square, doubles, probability);
+        else
+            transitions[state][square] += probability;
+    }
+
+    /**
+     * @return Square a card moves a token on `square` to, `square` itself if it doesn't move it, or SENT_TO_JAIL.
+     * Mirrors Game.performCardAction().
+     */
+    static int cardDestination(CARD card, int square) {
+        return switch (card) {
+            case ADVANCE_TO_BOARDWALK -> BoardIndex.BOARDWALK;
+            case ADVANCE_TO_GO, ADVANCE_TO_GO_2 -> BoardIndex.GO;
+            case ADVANCE_TO_ILLINOIS -> BoardIndex.ILLINOIS_AVENUE;
+            case ADVANCE_TO_ST_CHARLES -> BoardIndex.ST_CHARLES_PLACE;
+            case ADVANCE_TO_READING_RAILROAD -> BoardIndex.READING_RAILROAD;
+            case ADVANCE_TO_NEAREST_RAILROAD, ADVANCE_TO_NEAREST_RAILROAD_2 -> BoardIndex.NEXT_RAILROAD[square];
+            case ADVANCE_TO_NEAREST_UTILITY -> BoardIndex.NEXT_UTILITY[square];
+            case RETREAT_3_SPACES -> (square - 3 + NUM_SQUARES) % NUM_SQUARES;
+            case GO_TO_JAIL -> SENT_TO_JAIL;  // The Game doesn't act on GO_TO_JAIL_2 (Community Chest), so neither does the model
+            default -> square;
+        };
+    }
+
+    ////////////////////////////////////////////////
+
+}
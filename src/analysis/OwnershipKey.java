@@ -0,0 +1,32 @@
+package analysis;
+
+import java.util.Arrays;
+
+/**
+ * Exact cache key of an ownership configuration: every Player's ownership mask (see GameState.ownershipMasks),
+ * ... the houses packed 3 bits per square, and any extra context the cached value depends on.
+ */
+final class OwnershipKey {
+
+    private final long[] words;
+    private final int hash;
+
+    OwnershipKey(long[] ownershipMasks, int[] houses, long extra) {
+        words = Arrays.copyOf(ownershipMasks, ownershipMasks.length + 3);
+        for (int square = 0; square < houses.length; square++)
+            words[ownershipMasks.length + square / 21] |= (long) houses[square] << (3 * (square % 21));
+        words[words.length - 1] = extra;
+        hash = Arrays.hashCode(words);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof OwnershipKey key && Arrays.equals(words, key.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
@@ -0,0 +1,483 @@
+package analysis;
+
+import gameobjects.Board;
+import gameobjects.BoardIndex;
+import gameobjects.CARD;
+import gameobjects.CardStack;
+import gameobjects.GameState;
+import gameobjects.Property;
+import main.Monopoly;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Probability that a Player goes bankrupt within N of their turns, from a GameState.
+ * <br>The Player's state is their LandingModel state together with their wealth: cash plus what mortgaging every unmortgaged Property
+ * ... and selling every house would raise, which is what the Game lets a Player in debt liquidate before going bankrupt.
+ * Wealth is discretized into buckets of `cashBucket` dollars up to `maxCash`, amounts between two buckets being split across both
+ * ... in proportion, so the expected wealth is kept exact.
+ * <br>One turn moves the joint (state, wealth) distribution through every dice roll and card draw of the turn as in LandingModel,
+ * ... with the cash each one costs or earns: rent to the other owners (Property.calculateRent() with the roll, and the card multipliers),
+ * ... passing GO, the taxes, the cash cards (repairs on the Player's own houses, $50 per other active Player), and bail.
+ * The Player's own rent income over the opponents' turns is added as its expected value (see ValuationService.rentIncomes()).
+ * <br>A Player is ruined once their wealth falls below zero at the end of a turn; ruin is absorbing.
+ * Other Players' cash, trades, purchases, building and Get Out of Jail Free cards are left out: the board is taken as it stands.
+ * <br>The turn kernel depends only on ownership, houses, the Player and who is still in the Game. Per such configuration,
+ * ... ruin probabilities are computed backwards over turns for every starting state and wealth at once, and cached in a bounded LRU
+ * ... along with the kernel, so further queries on the configuration are lookups.
+ * <br>Thread-safe.
+ */
+public final class RuinModel {
+
+    public static final int DEFAULT_CASH_BUCKET = 25;
+    public static final int DEFAULT_MAX_CASH = 5000;  // Wealth above this is taken as this
+    public static final int DEFAULT_CACHE_CAPACITY = 64;  // Each configuration keeps ~35KB of probabilities per turn looked ahead
+
+    private static final int NUM_SQUARES = LandingModel.NUM_SQUARES;
+    private static final int NUM_STATES = LandingModel.NUM_STATES;
+
+    private final JAIL_POLICY policy;
+    private final int cashBucket;
+    private final int maxBucket;
+    private final ValuationService valuationService;
+    private final LruCache<OwnershipKey, Kernel> cache;
+
+    /**
+     * @param policy Jail policy of the Player whose ruin is computed, and of the opponents for the rent income.
+     * @param cashBucket Width of a wealth bucket, in dollars.
+     * @param maxCash Wealth cap, in dollars.
+     * @param cacheCapacity Number of turn kernels kept.
+     */
+    public RuinModel(JAIL_POLICY policy, int cashBucket, int maxCash, int cacheCapacity) {
+        this.policy = policy;
+        this.cashBucket = cashBucket;
+        this.maxBucket = maxCash / cashBucket;
+        this.valuationService = new ValuationService(policy);
+        this.cache = new LruCache<>(cacheCapacity);
+    }
+
+    public RuinModel(JAIL_POLICY policy) {
+        this(policy, DEFAULT_CASH_BUCKET, DEFAULT_MAX_CASH, DEFAULT_CACHE_CAPACITY);
+    }
+
+    public RuinModel() {
+        this(JAIL_POLICY.THROW_DICE);
+    }
+
+    /**
+     * @return Probability that a Player goes bankrupt within their next `turns` turns, 1 if they already have.
+     */
+    public double ruinProbability(GameState gameState, int playerIndex, int turns) {
+        if (turns == 0) return gameState.playerBankruptcy[playerIndex] ? 1 : 0;
+        return ruinCurve(gameState, playerIndex, turns)[turns - 1];
+    }
+
+    /**
+     * @return Probability that a Player goes bankrupt within 1, 2, ... `turns` of their turns, at [0], [1], ... [turns - 1].
+     */
+    public double[] ruinCurve(GameState gameState, int playerIndex, int turns) {
+        double[] curve = new double[turns];
+        double wealth = (double) liquidationValue(gameState, playerIndex) / cashBucket;
+        if (gameState.playerBankruptcy[playerIndex] || wealth < 0) {
+            Arrays.fill(curve, 1);
+            return curve;
+        }
+        wealth = Math.min(wealth, maxBucket);
+        int floor = Math.min((int) wealth, maxBucket - 1);
+        double fraction = wealth - floor;
+        int state = LandingModel.stateOf(gameState, playerIndex);
+        float[][][] ruin = kernel(gameState, playerIndex).horizon(turns);
+        for (int turn = 1; turn <= turns; turn++) {
+            float[] row = ruin[turn][state];
+            curve[turn - 1] = (1 - fraction) * row[floor] + fraction * row[floor + 1];
+        }
+        return curve;
+    }
+
+    /**
+     * @return Cash a Player has plus what mortgaging their unmortgaged Properties and selling their houses would raise.
+     */
+    public static int liquidationValue(GameState gameState, int playerIndex) {
+        int value = gameState.cash[playerIndex];
+        for (long owned = gameState.ownershipMasks[playerIndex]; owned != 0; owned &= owned - 1) {
+            int square = Long.numberOfTrailingZeros(owned);
+            Property property = Board.SQUARES.get(square);
+            if (!gameState.mortgages[square])
+                value += (int) (property.getMarketPrice() * property.getMortgageDivisor());
+            value += gameState.houses[square] * (int) (property.getBaseHouseCost() * property.getHouseSellDivisor());
+        }
+        return value;
+    }
+
+    // Turn kernel //////////////////////////////////
+
+    /**
+     * Sparse one-turn transitions of (state, wealth bucket) for one configuration: from each state, the state the turn ends in,
+     * ... the wealth buckets it shifts by, and the probability.
+     * <br>Holds the ruin probabilities it leads to, per number of turns, starting state and wealth bucket, grown on demand.
+     */
+    private final class Kernel {
+
+        private final int[][] to;
+        private final int[][] shifts;
+        private final double[][] probabilities;
+        private final AtomicReference<float[][][]> ruin = new AtomicReference<>();
+
+        Kernel(int[][] to, int[][] shifts, double[][] probabilities) {
+            this.to = to;
+            this.shifts = shifts;
+            this.probabilities = probabilities;
+        }
+
+        /**
+         * @return Ruin probabilities within 0 to at least `turns` turns, [turns][state][wealth bucket].
+         */
+        float[][][] horizon(int turns) {
+            float[][][] cached = ruin.get();
+            if (cached != null && turns < cached.length)
+                return cached;
+            int length = Math.max(turns + 1, (cached == null) ? 8 : cached.length * 2);
+            float[][][] grown = new float[length][][];
+            int from = 1;
+            if (cached != null) {
+                System.arraycopy(cached, 0, grown, 0, cached.length);
+                from = cached.length;
+            } else {
+                grown[0] = new float[NUM_STATES][maxBucket + 1];
+            }
+            for (int turn = from; turn < length; turn++)
+                grown[turn] = step(grown[turn - 1]);
+            // Racing threads compute the same probabilities, so whichever is stored last is as good as the others
+            ruin.set(grown);
+            return grown;
+        }
+
+        /**
+         * @return Ruin probabilities within one more turn than `previous`: each entry's ruin if it takes the wealth below zero,
+         * ... otherwise the ruin from where it leads.
+         */
+        private float[][] step(float[][] previous) {
+            float[][] next = new float[NUM_STATES][maxBucket + 1];
+            double[] sums = new double[maxBucket + 1];
+            for (int state = 0; state < NUM_STATES; state++) {
+                Arrays.fill(sums, 0);
+                for (int i = 0; i < to[state].length; i++) {
+                    float[] target = previous[to[state][i]];
+                    int shift = shifts[state][i];
+                    double p = probabilities[state][i];
+                    int lowest = Math.min(Math.max(-shift, 0), maxBucket + 1);  // Buckets below are ruined
+                    int highest = Math.max(Math.min(maxBucket - shift, maxBucket), lowest - 1);  // Buckets above hit the cap
+                    for (int bucket = 0; bucket < lowest; bucket++)
+                        sums[bucket] += p;
+                    for (int bucket = lowest; bucket <= highest; bucket++)
+                        sums[bucket] += p * target[bucket + shift];
+                    for (int bucket = highest + 1; bucket <= maxBucket; bucket++)
+                        sums[bucket] += p * target[maxBucket];
+                }
+                for (int bucket = 0; bucket <= maxBucket; bucket++)
+                    next[state][bucket] = (float) Math.min(sums[bucket], 1);
+            }
+            return next;
+        }
+
+    }
+
+    private Kernel kernel(GameState gameState, int playerIndex) {
+        long active = 0;
+        for (int i = 0; i < gameState.numPlayers; i++)
+            if (!gameState.playerBankruptcy[i]) active |= 1L << i;
+        OwnershipKey key = new OwnershipKey(gameState.ownershipMasks, gameState.houses, (active << 8) | playerIndex);
+        Kernel kernel = cache.get(key);
+        if (kernel == null) {
+            kernel = new KernelBuilder(gameState, playerIndex, Long.bitCount(active) - 1).build();
+            cache.put(key, kernel);
+        }
+        return kernel;
+    }
+
+    /**
+     * Probabilities by (end state, cash change), accumulated in primitive arrays: entries in the order they were first added,
+     * ... indexed by an open-addressing hash table.
+     */
+    private static final class Paths {
+
+        private int[] ends = new int[64];
+        private int[] cashes = new int[64];
+        private double[] probabilities = new double[64];
+        private int size = 0;
+        private int[] slots = new int[128];  // Entry index + 1 per slot, 0 if empty
+
+        void add(int end, int cash, double probability) {
+            int mask = slots.length - 1;
+            long key = ((long) end << 32) | (cash & 0xFFFFFFFFL);
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+            for (int entry = slots[slot]; entry != 0; entry = slots[slot]) {
+                if (ends[entry - 1] == end && cashes[entry - 1] == cash) {
+                    probabilities[entry - 1] += probability;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == ends.length) {
+                ends = Arrays.copyOf(ends, 2 * size);
+                cashes = Arrays.copyOf(cashes, 2 * size);
+                probabilities = Arrays.copyOf(probabilities, 2 * size);
+            }
+            ends[size] = end;
+            cashes[size] = cash;
+            probabilities[size] = probability;
+            slots[slot] = ++size;
+            if (2 * size > slots.length) rehash();
+        }
+
+        private void rehash() {
+            slots = new int[2 * slots.length];
+            int mask = slots.length - 1;
+            for (int entry = 0; entry < size; entry++) {
+                long key = ((long) ends[entry] << 32) | (cashes[entry] & 0xFFFFFFFFL);
+                int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+                while (slots[slot] != 0)
+                    slot = (slot + 1) & mask;
+                slots[slot] = entry + 1;
+            }
+        }
+
+        void clear() {
+            Arrays.fill(slots, 0);
+            size = 0;
+        }
+
+    }
+
+    /**
+     * Enumerates every dice roll and card draw of a turn from each state, as LandingModel does, adding up the cash along each path.
+     * <br>What follows a roll of doubles depends only on the square it leads to and the number of doubles so far, not on the path
+     * ... there, so it's enumerated once per (square, doubles) and reused: a turn is its first roll joined with these continuations.
+     */
+    private final class KernelBuilder {
+
+        private final GameState gameState;
+        private final int playerIndex;
+        private final int opponents;
+        private final int generalRepairs;
+        private final int streetRepairs;
+        private final double income;  // Expected rent from the opponents' turns between two of the Player's
+
+        private Paths paths;  // Where the paths being enumerated end up
+        private final Paths[][] continuations = new Paths[NUM_SQUARES][3];  // Paths from a square after 1 or 2 doubles
+
+        KernelBuilder(GameState gameState, int playerIndex, int opponents) {
+            this.gameState = gameState;
+            this.playerIndex = playerIndex;
+            this.opponents = opponents;
+            int generalRepairs = 0, streetRepairs = 0;
+            for (long owned = gameState.ownershipMasks[playerIndex]; owned != 0; owned &= owned - 1) {
+                int houses = gameState.houses[Long.numberOfTrailingZeros(owned)];
+                generalRepairs += (houses == 5) ? 100 : 25 * houses;
+                streetRepairs += (houses == 5) ? 115 : 40 * houses;
+            }
+            this.generalRepairs = generalRepairs;
+            this.streetRepairs = streetRepairs;
+            this.income = valuationService.rentIncomes(gameState)[playerIndex] * opponents;
+        }
+
+        Kernel build() {
+            int[][] to = new int[NUM_STATES][];
+            int[][] shifts = new int[NUM_STATES][];
+            double[][] probabilities = new double[NUM_STATES][];
+            Paths turn = new Paths();
+            double[] buckets = new double[0];  // [end state][bucket shift - lowest]
+            for (int state = 0; state < NUM_STATES; state++) {
+                turn.clear();
+                paths = turn;
+                turn(state);
+                // Split each cash change across the two buckets around it
+                int lowest = Integer.MAX_VALUE, highest = Integer.MIN_VALUE;
+                for (int i = 0; i < turn.size; i++) {
+                    int floor = (int) Math.floor((turn.cashes[i] + income) / cashBucket);
+                    lowest = Math.min(lowest, floor);
+                    highest = Math.max(highest, floor + 1);
+                }
+                int width = highest - lowest + 1;
+                if (buckets.length < NUM_STATES * width)
+                    buckets = new double[NUM_STATES * width];
+                else
+                    Arrays.fill(buckets, 0, NUM_STATES * width, 0);
+                int count = 0;
+                for (int i = 0; i < turn.size; i++) {
+                    double shift = (turn.cashes[i] + income) / cashBucket;
+                    int floor = (int) Math.floor(shift);
+                    double fraction = shift - floor;
+                    int index = turn.ends[i] * width + floor - lowest;
+                    if (buckets[index] == 0) count++;
+                    buckets[index] += turn.probabilities[i] * (1 - fraction);
+                    if (fraction > 0) {
+                        if (buckets[index + 1] == 0) count++;
+                        buckets[index + 1] += turn.probabilities[i] * fraction;
+                    }
+                }
+                to[state] = new int[count];
+                shifts[state] = new int[count];
+                probabilities[state] = new double[count];
+                int n = 0;
+                for (int index = 0; index < NUM_STATES * width; index++) {
+                    if (buckets[index] == 0) continue;
+                    to[state][n] = index / width;
+                    shifts[state][n] = index % width + lowest;
+                    probabilities[state][n] = buckets[index];
+                    n++;
+                }
+            }
+            return new Kernel(to, shifts, probabilities);
+        }
+
+        private void end(int state, int cash, double probability) {
+            paths.add(state, cash, probability);
+        }
+
+        /**
+         * @return Paths from rolling again on `square` after `doubles` doubles, with their cash changes from there.
+         */
+        private Paths continuation(int square, int doubles) {
+            Paths continuation = continuations[square][doubles];
+            if (continuation == null) {
+                Paths outer = paths;
+                continuation = paths = new Paths();
+                roll(square, doubles, 0, 1.0);
+                paths = outer;
+                continuations[square][doubles] = continuation;
+            }
+            return continuation;
+        }
+
+        private void turn(int state) {
+            if (state < NUM_SQUARES) {
+                roll(state, 0, 0, 1.0);
+                return;
+            }
+            int served = state - NUM_SQUARES;
+            if (served == Monopoly.MAX_TURNS_IN_JAIL || policy == JAIL_POLICY.PAY_BAIL) {
+                roll(BoardIndex.JAIL, 0, -Property.BAIL_AMOUNT, 1.0);  // Leaves Jail, then moves as usual
+                return;
+            }
+            // Throws for doubles: leaves and moves on doubles (without rolling again), serves another turn otherwise
+            for (int r = 1; r <= 6; r++)
+                move(BoardIndex.JAIL, 2 * r, 0, 0, 1.0 / 36);
+            end(LandingModel.jailState(served + 1), 0, 30.0 / 36);
+        }
+
+        private void roll(int square, int doubles, int cash, double probability) {
+            double p = probability / 36;
+            for (int r1 = 1; r1 <= 6; r1++) {
+                for (int r2 = 1; r2 <= 6; r2++) {
+                    if (r1 != r2)
+                        move(square, r1 + r2, 0, cash, p);
+                    else if (doubles == 2)
+                        end(LandingModel.jailState(0), cash, p);  // Third doubles in a row
+                    else
+                        move(square, r1 + r2, doubles + 1, cash, p);
+                }
+            }
+        }
+
+        private void move(int square, int roll, int doubles, int cash, double probability) {
+            int destination = (square + roll) % NUM_SQUARES;
+            if (destination < square) cash += 200;  // Passing GO
+            land(destination, roll, doubles, cash, 1.0, probability);
+        }
+
+        /**
+         * Land on `square`, having rolled `roll`, paying any rent times `rentMultiplier`.
+         */
+        private void land(int square, int roll, int doubles, int cash, double rentMultiplier, double probability) {
+            switch (BoardIndex.KINDS[square]) {
+                case GO_TO_JAIL -> {
+                    end(LandingModel.jailState(0), cash, probability);
+                    return;
+                }
+                case CHANCE -> {
+                    draw(square, roll, doubles, cash, probability, CardStack.CHANCE_DEFAULT);
+                    return;
+                }
+                case COMMUNITY_CHEST -> {
+                    draw(square, roll, doubles, cash, probability, CardStack.COMMUNITY_DEFAULT);
+                    return;
+                }
+                case INCOME_TAX -> cash -= 200;
+                case LUXURY_TAX -> cash -= 75;
+                case STREET, RAILROAD, UTILITY -> {
+                    int owner = gameState.ownership[square];
+                    if (owner != -1 && owner != playerIndex)
+                        cash -= (int) (Board.SQUARES.get(square).calculateRent(gameState, roll) * rentMultiplier);
+                }
+            }
+            settle(square, doubles, cash, probability);
+        }
+
+        private void draw(int square, int roll, int doubles, int cash, double probability, List<CARD> deck) {
+            double p = probability / deck.size();
+            for (CARD card : deck) {
+                int destination = LandingModel.cardDestination(card, square);
+                if (destination == LandingModel.SENT_TO_JAIL)
+                    end(LandingModel.jailState(0), cash, p);
+                else if (destination == square)
+                    settle(square, doubles, cash + cardCash(card), p);
+                else if (card == CARD.RETREAT_3_SPACES)
+                    land(destination, roll, doubles, cash, 1.0, p);
+                else
+                    land(destination, roll, doubles, (destination < square) ? cash + 200 : cash, cardRentMultiplier(card, destination), p);
+            }
+        }
+
+        private void settle(int square, int doubles, int cash, double probability) {
+            if (doubles == 0) {
+                end(square, cash, probability);
+                return;
+            }
+            Paths continuation = continuation(square, doubles);
+            for (int i = 0; i < continuation.size; i++)
+                end(continuation.ends[i], cash + continuation.cashes[i], probability * continuation.probabilities[i]);
+        }
+
+        /**
+         * @return Cash a card that doesn't move the token gives the Player. Mirrors Game.performCardAction().
+         */
+        private int cardCash(CARD card) {
+            return switch (card) {
+                case COLLECT_10 -> 10;
+                case COLLECT_20 -> 20;
+                case COLLECT_25 -> 25;
+                case COLLECT_50 -> 50;
+                case COLLECT_100, COLLECT_100_2, COLLECT_100_3, COLLECT_100_4 -> 100;
+                case COLLECT_150 -> 150;
+                case COLLECT_200 -> 200;
+                case COLLECT_50_EACH_PLAYER -> 50 * opponents;
+                case PAY_15 -> -15;
+                case PAY_50, PAY_50_2 -> -50;
+                case PAY_100 -> -100;
+                case PAY_50_EACH_PLAYER -> -50 * opponents;
+                case GENERAL_REPAIRS -> -generalRepairs;
+                case STREET_REPAIRS -> -streetRepairs;
+                default -> 0;
+            };
+        }
+
+        /**
+         * @return Rent multiplier of a card moving the token to `destination`. Mirrors Game.performCardAction().
+         */
+        private double cardRentMultiplier(CARD card, int destination) {
+            return switch (card) {
+                case ADVANCE_TO_NEAREST_RAILROAD, ADVANCE_TO_NEAREST_RAILROAD_2 -> 2.0;
+                case ADVANCE_TO_NEAREST_UTILITY ->
+                        (gameState.ownership[destination] == gameState.ownership[BoardIndex.NEXT_UTILITY[destination]]) ? 1.0 : 2.5;
+                default -> 1.0;
+            };
+        }
+
+    }
+
+    ////////////////////////////////////////////////
+
+}
@@ -0,0 +1,280 @@
+package analysis;
+
+import gameobjects.Board;
+import gameobjects.BoardIndex;
+import gameobjects.COLOR_SET;
+import gameobjects.GameRandom;
+import gameobjects.GameState;
+import gameobjects.Property;
+import gameobjects.SQUARE_KIND;
+import gameobjects.Trade;
+
+/**
+ * Long-run rent valuation of squares, built on Property.calculateRent() and a LandingModel.
+ * <br>The expected rent a square collects per opponent turn is its rent per landing (with the Game's card multipliers)
+ * ... times the long-run landings per turn on it. It's precomputed per (square, level, monopoly), where the level is the number
+ * ... of houses on a street, or the number of other Railroads / Utilities its owner holds. Payback horizons are precomputed alongside.
+ * <br>Valuations of a GameState depend only on who owns what and the houses on it, so they're cached per such configuration
+ * ... in a bounded LRU. As in the Game, mortgaged Properties still collect rent.
+ * Income deltas of hypothetical ownerships skip the cache: they value only the color sets that change hands.
+ * <br>Thread-safe. Arrays handed out are shared: treat them as read-only.
+ */
+public final class ValuationService {
+
+    public static final int DEFAULT_CACHE_CAPACITY = 4096;
+    public static final int LEVELS = 6;  // 0-5 houses; Railroads and Utilities use 0-3 and 0-1
+    public static final int EXPECTED_ROLL = 7;  // Utility rent is charged on the dice roll
+
+    private static final int NUM_SQUARES = BoardIndex.NUM_SQUARES;
+    private static final long RAILROAD_MASK = GameState.COLOR_SET_MASKS[COLOR_SET.RAILROAD.ordinal()];
+    private static final long UTILITY_MASK = GameState.COLOR_SET_MASKS[COLOR_SET.UTILITY.ordinal()];
+
+    // Rent per landing by dice, [square][level][monopoly ? 1 : 0], from Property.calculateRent()
+    private static final int[][][] RENTS = computeRents();
+
+    private final LandingModel landingModel;
+    private final double[][][] expectedRents = new double[NUM_SQUARES][LEVELS][2];  // Per opponent turn
+    private final double[][][] paybackTurns = new double[NUM_SQUARES][LEVELS][2];
+
+    private final LruCache<OwnershipKey, Valuation> cache;
+
+    /**
+     * @param policy Jail policy assumed for the opponents' movement.
+     * @param cacheCapacity Number of ownership configurations kept.
+     */
+    public ValuationService(JAIL_POLICY policy, int cacheCapacity) {
+        this.landingModel = LandingModel.of(policy);
+        this.cache = new LruCache<>(cacheCapacity);
+        double[] landings = landingModel.steadyLandings();
+        double[] nearestCardLandings = landingModel.steadyNearestCardLandings();
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            for (int level = 0; level < LEVELS; level++) {
+                for (int monopoly = 0; monopoly < 2; monopoly++) {
+                    int rent = RENTS[square][level][monopoly];
+                    expectedRents[square][level][monopoly] = rent * (landings[square] - nearestCardLandings[square])
+                            + nearestCardRent(square, level, rent) * nearestCardLandings[square];
+                }
+            }
+        }
+        for (int square = 0; square < NUM_SQUARES; square++)
+            for (int level = 0; level < LEVELS; level++)
+                for (int monopoly = 0; monopoly < 2; monopoly++)
+                    paybackTurns[square][level][monopoly] = computePayback(square, level, monopoly);
+    }
+
+    public ValuationService(JAIL_POLICY policy) {
+        this(policy, DEFAULT_CACHE_CAPACITY);
+    }
+
+    public ValuationService() {
+        this(JAIL_POLICY.THROW_DICE);
+    }
+
+    /**
+     * @return Rent collected when landing on a square through an 'Advance to the nearest' card. Mirrors Game.performCardAction().
+     */
+    private static int nearestCardRent(int square, int level, int rent) {
+        return switch (BoardIndex.KINDS[square]) {
+            case RAILROAD -> rent * 2;
+            case UTILITY -> (int) (rent * ((level == 0) ? 2.5 : 1.0));  // 10x the roll either way
+            default -> rent;
+        };
+    }
+
+    /**
+     * @return Opponent turns for the rent a square gains at `level` to pay back what it cost to reach it:
+     * ... a house on a street, the square itself at level 0 and for Railroads / Utilities. Infinite if it gains nothing.
+     */
+    private double computePayback(int square, int level, int monopoly) {
+        Property property = Board.SQUARES.get(square);
+        if (property.isFunctionalOnly()) return Double.POSITIVE_INFINITY;
+        boolean street = (BoardIndex.KINDS[square] == SQUARE_KIND.STREET);
+        double gain = expectedRents[square][level][monopoly];
+        double cost = property.getMarketPrice();
+        if (street && level > 0) {
+            gain -= expectedRents[square][level - 1][monopoly];
+            cost = property.getBaseHouseCost();
+        }
+        return (gain > 0) ? cost / gain : Double.POSITIVE_INFINITY;
+    }
+
+    private static int[][][] computeRents() {
+        int[][][] rents = new int[NUM_SQUARES][LEVELS][2];
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            Property property = Board.SQUARES.get(square);
+            if (property.isFunctionalOnly()) continue;
+            int[] colorSet = BoardIndex.COLOR_SET_INDEXES[property.getColor().ordinal()];
+            for (int level = 0; level < LEVELS; level++) {
+                for (int monopoly = 0; monopoly < 2; monopoly++) {
+                    // A scratch GameState with Player 0 owning the square at the level
+                    GameState gameState = new GameState(2, new GameRandom(0));
+                    gameState.setOwner(square, 0);
+                    if (BoardIndex.KINDS[square] == SQUARE_KIND.STREET) {
+                        if (monopoly == 1)
+                            for (int other : colorSet) gameState.setOwner(other, 0);
+                        gameState.houses[square] = level;
+                    } else {
+                        int others = Math.min(level, colorSet.length - 1);
+                        for (int i = 0; i < colorSet.length && others > 0; i++)
+                            if (colorSet[i] != square) {
+                                gameState.setOwner(colorSet[i], 0);
+                                others--;
+                            }
+                    }
+                    rents[square][level][monopoly] = property.calculateRent(gameState, EXPECTED_ROLL);
+                }
+            }
+        }
+        return rents;
+    }
+
+    public LandingModel getLandingModel() {
+        return landingModel;
+    }
+
+    /**
+     * @param level Houses on a street, or other Railroads / Utilities owned with a Railroad / Utility.
+     * @param monopoly Whether the owner holds the whole color set.
+     * @return Expected rent a square collects per opponent turn, in the long run.
+     */
+    public double expectedRent(int square, int level, boolean monopoly) {
+        return expectedRents[square][level][monopoly ? 1 : 0];
+    }
+
+    /**
+     * @return Opponent turns for a square at `level` to earn back what reaching that level cost: the house built on a street,
+     * ... or the square's market price at level 0 and for Railroads / Utilities. Infinite if the level earns nothing more.
+     */
+    public double paybackTurns(int square, int level, boolean monopoly) {
+        return paybackTurns[square][level][monopoly ? 1 : 0];
+    }
+
+    /**
+     * @return Expected rent each square collects per opponent turn with the GameState's ownership and houses, 0 if unowned.
+     */
+    public double[] expectedRents(GameState gameState) {
+        return valuation(gameState.ownershipMasks, gameState.houses).rents;
+    }
+
+    /**
+     * @return Expected rent each Player collects per opponent turn with the GameState's ownership and houses.
+     */
+    public double[] rentIncomes(GameState gameState) {
+        return valuation(gameState.ownershipMasks, gameState.houses).incomes;
+    }
+
+    /**
+     * @return Change in the expected rent per opponent turn of a street if one more house is built on it, 0 if none can be.
+     */
+    public double houseDelta(GameState gameState, int square) {
+        if (BoardIndex.KINDS[square] != SQUARE_KIND.STREET || !gameState.propertyIsMonopoly(square)) return 0;
+        int houses = gameState.houses[square];
+        if (houses >= LEVELS - 1) return 0;
+        return expectedRents[square][houses + 1][1] - expectedRents[square][houses][1];
+    }
+
+    /**
+     * @return Change in each Player's expected rent per opponent turn if a Trade's Properties changed hands.
+     */
+    public double[] tradeDelta(GameState gameState, Trade trade) {
+        long[] masks = gameState.ownershipMasks.clone();
+        int pitcher = trade.getPitcherIndex();
+        int catcher = trade.getCatcherIndex();
+        for (int square : trade.getContents(true)[1])
+            moveOwnership(masks, square, pitcher, catcher);
+        for (int square : trade.getContents(false)[1])
+            moveOwnership(masks, square, catcher, pitcher);
+        return incomeDelta(gameState, masks);
+    }
+
+    /**
+     * @return Change in each Player's expected rent per opponent turn if the ownership were `ownershipMasks` instead,
+     * ... houses unchanged (see GameState.ownershipMasks).
+     */
+    public double[] incomeDelta(GameState gameState, long[] ownershipMasks) {
+        double[] delta = new double[ownershipMasks.length];
+        incomeDelta(gameState, ownershipMasks, delta);
+        return delta;
+    }
+
+    /**
+     * Same as incomeDelta(gameState, ownershipMasks), into `delta` (one entry per Player), without allocating.
+     * <br>Only the color sets with a square changing hands are valued, straight from the expected rent tables, and nothing
+     * ... is cached: suited to scoring many one-off ownerships, e.g. Trade candidates.
+     */
+    public void incomeDelta(GameState gameState, long[] ownershipMasks, double[] delta) {
+        long changed = 0;
+        for (int player = 0; player < ownershipMasks.length; player++)
+            changed |= gameState.ownershipMasks[player] ^ ownershipMasks[player];
+        long touched = 0;  // Whole color sets, so Railroad and Utility levels are counted in full
+        for (; changed != 0; changed &= changed - 1)
+            touched |= colorSetMask(Long.numberOfTrailingZeros(changed));
+        for (int player = 0; player < ownershipMasks.length; player++)
+            delta[player] = income(ownershipMasks[player], touched, gameState.houses)
+                    - income(gameState.ownershipMasks[player], touched, gameState.houses);
+    }
+
+    /**
+     * @return Expected rent per opponent turn of the squares in `squares` that a Player owning `owned` holds.
+     */
+    private double income(long owned, long squares, int[] houses) {
+        double income = 0;
+        for (long remaining = owned & squares; remaining != 0; remaining &= remaining - 1)
+            income += rent(owned, Long.numberOfTrailingZeros(remaining), houses);
+        return income;
+    }
+
+    /**
+     * @return Expected rent per opponent turn of a square owned by a Player owning `owned`.
+     */
+    private double rent(long owned, int square, int[] houses) {
+        long colorSetMask = colorSetMask(square);
+        int level = switch (BoardIndex.KINDS[square]) {
+            case STREET -> houses[square];
+            case RAILROAD -> Long.bitCount(owned & RAILROAD_MASK) - 1;
+            case UTILITY -> Long.bitCount(owned & UTILITY_MASK) - 1;
+            default -> 0;
+        };
+        return expectedRent(square, level, (owned & colorSetMask) == colorSetMask);
+    }
+
+    private static long colorSetMask(int square) {
+        return GameState.COLOR_SET_MASKS[Board.SQUARES.get(square).getColor().ordinal()];
+    }
+
+    private static void moveOwnership(long[] masks, int square, int from, int to) {
+        masks[from] &= ~(1L << square);
+        masks[to] |= (1L << square);
+    }
+
+    // Cache ////////////////////////////////////////
+
+    private Valuation valuation(long[] ownershipMasks, int[] houses) {
+        OwnershipKey key = new OwnershipKey(ownershipMasks, houses, 0);
+        Valuation valuation = cache.get(key);
+        if (valuation == null) {
+            valuation = valuate(ownershipMasks, houses);
+            cache.put(key, valuation);
+        }
+        return valuation;
+    }
+
+    private Valuation valuate(long[] ownershipMasks, int[] houses) {
+        double[] rents = new double[NUM_SQUARES];
+        double[] incomes = new double[ownershipMasks.length];
+        for (int player = 0; player < ownershipMasks.length; player++) {
+            long owned = ownershipMasks[player];
+            for (long remaining = owned; remaining != 0; remaining &= remaining - 1) {
+                int square = Long.numberOfTrailingZeros(remaining);
+                rents[square] = rent(owned, square, houses);
+                incomes[player] += rents[square];
+            }
+        }
+        return new Valuation(rents, incomes);
+    }
+
+    private record Valuation(double[] rents, double[] incomes) {}
+
+    ////////////////////////////////////////////////
+
+}
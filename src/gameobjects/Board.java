@@ -55,14 +55,17 @@ public abstract class Board {
             new Property("Boardwalk", COLOR_SET.DARK_BLUE, 400, .5, 50, 200, .5, new int[]{200, 600, 1400, 1700, 2000})
     );
 
-    public static int indexOf(String propertyName) {
-
-        for (int i = 0; i < SQUARES.size(); i++) {
-            if (SQUARES.get(i).getName().equalsIgnoreCase(propertyName))
-                return i;
-        }
-        return -1;
+    static {
+        for (int i = 0; i < SQUARES.size(); i++)
+            SQUARES.get(i).index = i;
+    }
 
+    /**
+     * @return Index of the first square with the given name (case-insensitive), or -1 if there is none.
+     * Game logic should use the constants and tables in BoardIndex instead.
+     */
+    public static int indexOf(String propertyName) {
+        return BoardIndex.indexOf(propertyName);
     }
 
     public static List<Property> getSquaresOfColorSet(COLOR_SET colorSet) {
@@ -82,13 +85,11 @@ public abstract class Board {
 
         List<Integer> indexes = new ArrayList<>();
 
-        for (Property property : SQUARES) {
-            if (property.color == colorSet)
-                indexes.add(SQUARES.indexOf(property));
-        }
+        for (int index : BoardIndex.COLOR_SET_INDEXES[colorSet.ordinal()])
+            indexes.add(index);
 
         return indexes;
 
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package gameobjects;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lookup tables compiled once from `Board.SQUARES`, so that game logic never has to search the board by name.
+ * <br>Every lookup here is an array read (or a single field read, for well-known squares).
+ */
+public final class BoardIndex {
+
+    public static final int NUM_SQUARES = Board.SQUARES.size();
+
+    /**
+     * Kind of each square, indexed by square.
+     */
+    public static final SQUARE_KIND[] KINDS = new SQUARE_KIND[NUM_SQUARES];
+
+    /**
+     * Square indexes of each color set in board order, indexed by COLOR_SET ordinal.
+     */
+    public static final int[][] COLOR_SET_INDEXES = new int[COLOR_SET.values().length][];
+
+    /**
+     * Index of the first Railroad / Utility strictly after each square, wrapping around the board.
+     */
+    public static final int[] NEXT_RAILROAD = new int[NUM_SQUARES];
+    public static final int[] NEXT_UTILITY = new int[NUM_SQUARES];
+
+    // Well-known squares referenced by the rules and cards
+    public static final int GO;
+    public static final int JAIL;
+    public static final int GO_TO_JAIL;
+    public static final int ST_CHARLES_PLACE;
+    public static final int ILLINOIS_AVENUE;
+    public static final int READING_RAILROAD;
+    public static final int BOARDWALK;
+
+    // Lower-case name -> index of the first square with that name
+    private static final Map<String, Integer> NAME_INDEXES = new HashMap<>();
+
+    static {
+
+        int[] colorSetSizes = new int[COLOR_SET.values().length];
+        for (int i = 0; i < NUM_SQUARES; i++) {
+            Property property = Board.SQUARES.get(i);
+            KINDS[i] = kindOf(property);
+            colorSetSizes[property.color.ordinal()]++;
+            NAME_INDEXES.putIfAbsent(property.getName().toLowerCase(), i);
+        }
+
+        for (COLOR_SET colorSet : COLOR_SET.values())
+            COLOR_SET_INDEXES[colorSet.ordinal()] = new int[colorSetSizes[colorSet.ordinal()]];
+        int[] filled = new int[COLOR_SET.values().length];
+        for (int i = 0; i < NUM_SQUARES; i++) {
+            int colorSet = Board.SQUARES.get(i).color.ordinal();
+            COLOR_SET_INDEXES[colorSet][filled[colorSet]++] = i;
+        }
+
+        for (int i = 0; i < NUM_SQUARES; i++) {
+            NEXT_RAILROAD[i] = nextOfKind(i, SQUARE_KIND.RAILROAD);
+            NEXT_UTILITY[i] = nextOfKind(i, SQUARE_KIND.UTILITY);
+        }
+
+        GO = indexOf("GO");
+        JAIL = indexOf("Jail");
+        GO_TO_JAIL = indexOf("Go To Jail");
+        ST_CHARLES_PLACE = indexOf("St. Charles Place");
+        ILLINOIS_AVENUE = indexOf("Illinois Avenue");
+        READING_RAILROAD = indexOf("Reading Railroad");
+        BOARDWALK = indexOf("Boardwalk");
+
+    }
+
+    private BoardIndex() {}
+
+    /**
+     * @return Index of the first square with the given name (case-insensitive), or -1 if there is none.
+     */
+    public static int indexOf(String propertyName) {
+        Integer index = NAME_INDEXES.get(propertyName.toLowerCase());
+        return (index == null) ? -1 : index;
+    }
+
+    private static SQUARE_KIND kindOf(Property property) {
+        switch (property.color) {
+            case RAILROAD -> { return SQUARE_KIND.RAILROAD; }
+            case UTILITY -> { return SQUARE_KIND.UTILITY; }
+            case FUNCTION -> {
+                return switch (property.getName()) {
+                    case "GO" -> SQUARE_KIND.GO;
+                    case "Chance" -> SQUARE_KIND.CHANCE;
+                    case "Community Chest" -> SQUARE_KIND.COMMUNITY_CHEST;
+                    case "Income Tax" -> SQUARE_KIND.INCOME_TAX;
+                    case "Luxury Tax" -> SQUARE_KIND.LUXURY_TAX;
+                    case "Jail" -> SQUARE_KIND.JAIL;
+                    case "Go To Jail" -> SQUARE_KIND.GO_TO_JAIL;
+                    case "Free Parking" -> SQUARE_KIND.FREE_PARKING;
+                    default -> throw new IllegalStateException("Unknown functional square: " + property.getName());
+                };
+            }
+            default -> { return SQUARE_KIND.STREET; }
+        }
+    }
+
+    private static int nextOfKind(int from, SQUARE_KIND kind) {
+        for (int i = 1; i <= NUM_SQUARES; i++) {
+            int index = (from + i) % NUM_SQUARES;
+            if (KINDS[index] == kind)
+                return index;
+        }
+        return -1;
+    }
+
+}
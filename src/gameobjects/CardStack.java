@@ -1,53 +1,127 @@
 package gameobjects;
 
-import java.security.SecureRandom;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class CardStack {
 
-    public static final List<CARD> CHANCE_DEFAULT = CARD.getCardSet(false);
-    public static final List<CARD> COMMUNITY_DEFAULT = CARD.getCardSet(true);
+    public static final List<CARD> CHANCE_DEFAULT = List.copyOf(CARD.getCardSet(false));
+    public static final List<CARD> COMMUNITY_DEFAULT = List.copyOf(CARD.getCardSet(true));
 
-    protected List<CARD> stack;
-    private List<CARD> alreadyDrawn = new ArrayList<>();
+    // Cards [0, remaining) have not been drawn yet; cards [remaining, length) have.
+    private final CARD[] cards;
+    private int remaining;
     private int stackLoops = 0;
 
+    private final GameRandom random;
+
+    UndoJournal journal = null;  // Journal recording the draws, if the owning Game is marked
+    int journalCode;  // UndoJournal field code of this stack's draws
+    int seekJournalCode;  // UndoJournal field code of this stack's seeks
+
+    public CardStack(List<CARD> cardStack, GameRandom random) {
+        this.cards = cardStack.toArray(new CARD[0]);
+        this.remaining = cards.length;
+        this.random = random;
+    }
+
     public CardStack(List<CARD> cardStack) {
-        this.stack = cardStack;
+        this(cardStack, GameRandom.fromEntropy());
+    }
+
+    // Called when cloning a CardStack for outside the Game, e.g. a snapshot: same cards left to draw, from a fresh stream,
+    // so drawing from the clone can't foresee the original's next card.
+    public CardStack(CardStack original) {
+        this(original, GameRandom.fromEntropy());
+    }
+
+    // Called when cloning a CardStack with its own randomness: same cards left to draw, but not drawn in the same order.
+    public CardStack(CardStack original, GameRandom random) {
+        this.cards = original.cards.clone();
+        this.remaining = original.remaining;
+        this.stackLoops = original.stackLoops;
+        this.random = random;
     }
 
+    /**
+     * Draw a random card from the cards not yet drawn, reshuffling all cards back in once the stack runs out.
+     * Draws exactly one value from the stack's GameRandom stream.
+     */
     public CARD drawCard() {
-        if (stack.size() == 0) {
-            stack = new ArrayList<>(alreadyDrawn);
-            alreadyDrawn = new ArrayList<>();
+        long position = random.getPosition();
+        boolean reshuffled = (remaining == 0);
+        if (reshuffled) {
+            remaining = cards.length;
             stackLoops++;
         }
-        CARD card = stack.get(new SecureRandom().nextInt(stack.size()));
-        alreadyDrawn.add(card);
-        stack.remove(card);
+        int drawIndex = random.nextInt(remaining);
+        CARD card = cards[drawIndex];
+        // Swap the drawn card to the end of the undrawn section, then shrink it
+        cards[drawIndex] = cards[remaining - 1];
+        cards[remaining - 1] = card;
+        remaining--;
+        if (journal != null)
+            journal.record(journalCode, drawIndex | (reshuffled ? UndoJournal.RESHUFFLED : 0), position);
         return card;
     }
 
+    /**
+     * Undo the last drawCard(), as recorded by the journal.
+     * @param drawIndex Slot the card was drawn from.
+     * @param reshuffled Whether the draw reshuffled the stack first.
+     * @param position Position of the stack's GameRandom before the draw.
+     */
+    void undoDraw(int drawIndex, boolean reshuffled, long position) {
+        remaining++;
+        CARD card = cards[remaining - 1];  // The swap is its own inverse
+        cards[remaining - 1] = cards[drawIndex];
+        cards[drawIndex] = card;
+        if (reshuffled) {
+            remaining = 0;
+            stackLoops--;
+        }
+        random.seek(position);
+    }
+
+    /**
+     * Jump the stack's GameRandom to any position, so the draws from here on are fresh samples. Journaled.
+     */
+    void seek(long position) {
+        if (journal != null)
+            journal.record(seekJournalCode, 0, random.getPosition());
+        random.seek(position);
+    }
+
+    void undoSeek(long position) {
+        random.seek(position);
+    }
+
     public int getNumStackLoops() {
         return stackLoops;
     }
 
+    public int getNumRemaining() {
+        return remaining;
+    }
+
+    /**
+     * @return The card drawn last, null if none has been drawn since the last reshuffle.
+     */
+    public CARD getLastDrawn() {
+        return (remaining < cards.length) ? cards[remaining] : null;
+    }
+
     @Override
     public boolean equals(Object object) {
         if (!(object instanceof CardStack cardStack))
             return super.equals(object);
         // Remember, enums use ==
-        return this.stack.equals(cardStack.stack) && this.alreadyDrawn.equals(cardStack.alreadyDrawn);
+        return this.remaining == cardStack.remaining && Arrays.equals(this.cards, cardStack.cards);
     }
 
     @Override
     public String toString() {
-        try {
-            return stack.get(0).toString();
-        } catch (IndexOutOfBoundsException ex) {
-            return drawCard().toString();
-        }
+        return remaining + "/" + cards.length + " cards remaining";
     }
 
-}
\ No newline at end of file
+}
@@ -1,39 +1,67 @@
 package gameobjects;
 
-import java.security.SecureRandom;
-
 /**
  * Class representing two Monopoly dice.
  * Doubles are tracked.
- * Cannot be 'tossed' twice.
+ * <br>Every toss draws exactly two values from the underlying GameRandom stream,
+ * ... so roll N of a stream can be reached directly with seekRoll().
  */
 public class Dice {
 
     public static final boolean PRINTS_ROLL = true;
 
-    private final SecureRandom random;
+    private final GameRandom random;
+    private final boolean printsRoll;  // Logs every roll to the EngineLog
 
     public boolean doubles = false;
     public int r1, r2;
 
+    UndoJournal journal = null;  // Journal recording the tosses, if the owning Game is marked
+    private int forcedR1 = 0, forcedR2 = 0;  // Values of the next toss if forced, 0 otherwise
+
+    public Dice(GameRandom random, boolean printsRoll) {
+        this.random = random;
+        this.printsRoll = printsRoll;
+    }
+
+    public Dice(boolean printsRoll) {
+        this(GameRandom.fromEntropy(), printsRoll);
+    }
+
     public Dice() {
-        random = new SecureRandom();
+        this(PRINTS_ROLL);
     }
 
     /**
      * Throw two 6-sided dice, update the doubles field accordingly, and return the sum.
-     * Prints to stdout.
+     * Logs the roll to the EngineLog if `printsRoll` is set.
      * @return Sum of two thrown 6-sided dice.
      */
     public int toss() {
+        if (journal != null)
+            journal.record(UndoJournal.DICE_TOSS, (doubles ? 64 : 0) | (r1 << 3) | r2, random.getPosition());
         r1 = random.nextInt(1, 7);
         r2 = random.nextInt(1, 7);
-        if (PRINTS_ROLL)
-            System.out.println("" + r1 + " + " + r2 + " = " + (r1+r2));
+        if (forcedR1 != 0) {
+            r1 = forcedR1;
+            r2 = forcedR2;
+            forcedR1 = forcedR2 = 0;
+        }
+        if (printsRoll)
+            EngineLog.log(LOG_EVENT.ROLL, -1, -1, r1, r2);
         doubles = (r1 == r2);
         return this.result();
     }
 
+    /**
+     * Fix the values of the next toss, e.g. for a search enumerating dice outcomes. The toss still draws its two stream values,
+     * ... so the tosses after it are unaffected. Not journaled; pass (0, 0) to cancel.
+     */
+    public void forceNextToss(int r1, int r2) {
+        this.forcedR1 = r1;
+        this.forcedR2 = r2;
+    }
+
     /**
      * Returns the sum of the previous / current toss.
      */
@@ -41,4 +69,43 @@ public class Dice {
         return r1 + r2;
     }
 
-}
\ No newline at end of file
+    /**
+     * Undo the last toss(), as recorded by the journal.
+     * @param previous Doubles flag and values of the toss before it, packed as `doubles << 6 | r1 << 3 | r2`.
+     * @param position Position of the dice's GameRandom before the toss.
+     */
+    void undoToss(int previous, long position) {
+        doubles = (previous & 64) != 0;
+        r1 = (previous >> 3) & 7;
+        r2 = previous & 7;
+        random.seek(position);
+    }
+
+    /**
+     * Jump to any position of the stream, journaled (unlike seekRoll()) so that the jump can be rolled back.
+     */
+    void seek(long position) {
+        if (journal != null)
+            journal.record(UndoJournal.DICE_SEEK, 0, random.getPosition());
+        random.seek(position);
+    }
+
+    void undoSeek(long position) {
+        random.seek(position);
+    }
+
+    /**
+     * @return Number of tosses made so far.
+     */
+    public long getRollCount() {
+        return random.getPosition() / 2;
+    }
+
+    /**
+     * Position the dice so that the next toss is toss number `roll` (0-based) of this stream.
+     */
+    public void seekRoll(long roll) {
+        random.seek(roll * 2);
+    }
+
+}
@@ -0,0 +1,180 @@
+package gameobjects;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured, asynchronous log of engine events (dice rolls, rent, warnings, ...) shared by every Game in the JVM.
+ * <br>Events are written as a handful of ints into a lock-free ring buffer, and formatted and printed by a background
+ * ... writer thread, so logging never blocks a Game on console I/O. If the writer falls a whole ring behind,
+ * ... new events are dropped (and counted) rather than waited on.
+ * <br>Events below the current level are rejected by a single comparison before anything is written.
+ */
+public final class EngineLog {
+
+    public static final int CAPACITY = 1 << 16;  // Must be a power of two
+    private static final int MASK = CAPACITY - 1;
+
+    private static volatile int minimumLevel = LOG_LEVEL.INFO.ordinal();
+    private static volatile PrintStream output = System.err;
+
+    // Ring buffer, one slot per event.
+    // A slot's sequence is set to (event number + 1) once its fields are written, which publishes it to the writer.
+    private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private static final byte[] events = new byte[CAPACITY];
+    private static final int[] gameIds = new int[CAPACITY];
+    private static final int[] playerIndexes = new int[CAPACITY];
+    private static final int[] args0 = new int[CAPACITY];
+    private static final int[] args1 = new int[CAPACITY];
+    private static final long[] times = new long[CAPACITY];
+
+    private static final AtomicLong claimed = new AtomicLong();  // Number of slots claimed by producers
+    private static volatile long written = 0;  // Number of events the writer has printed (or skipped)
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static final LOG_EVENT[] EVENTS = LOG_EVENT.values();
+
+    // The writer parks when the ring is empty, after raising `idle`; a producer that sees it raised unparks the writer.
+    // Threads in flush() wait on `flushed`, which the writer notifies while `flushing` is non-zero.
+    private static final Thread writer = new Thread(EngineLog::drain, "engine-log-writer");
+    private static volatile boolean idle = false;
+    private static final Object flushed = new Object();
+    private static volatile int flushing = 0;
+
+    static {
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(EngineLog::flush));
+    }
+
+    private EngineLog() {}
+
+    /**
+     * Set the minimum level of events to log, e.g. WARN for a large simulation run, or OFF to log nothing.
+     */
+    public static void setLevel(LOG_LEVEL level) {
+        minimumLevel = level.ordinal();
+    }
+
+    /**
+     * Redirect the log (System.err by default).
+     */
+    public static void setOutput(PrintStream stream) {
+        output = stream;
+    }
+
+    /**
+     * @return True if events of the given level are currently logged.
+     * Callers should check this before doing any work to build an event's arguments.
+     */
+    public static boolean isEnabled(LOG_LEVEL level) {
+        return level.ordinal() >= minimumLevel;
+    }
+
+    /**
+     * Log an event. Never blocks.
+     * @param event Type of the event. Its level decides whether the event is logged at all.
+     * @param gameId ID of the Game the event happened in, -1 if none.
+     * @param playerIndex Index / ID of the Player concerned, -1 if none.
+     * @param arg0 First argument, see LOG_EVENT.
+     * @param arg1 Second argument, see LOG_EVENT.
+     */
+    public static void log(LOG_EVENT event, int gameId, int playerIndex, int arg0, int arg1) {
+
+        if (event.level.ordinal() < minimumLevel) return;
+
+        // Claim a slot, unless the writer is a whole ring behind
+        long slot;
+        do {
+            slot = claimed.get();
+            if (slot - written >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(slot, slot + 1));
+
+        int i = (int) (slot & MASK);
+        events[i] = (byte) event.ordinal();
+        gameIds[i] = gameId;
+        playerIndexes[i] = playerIndex;
+        args0[i] = arg0;
+        args1[i] = arg1;
+        times[i] = System.currentTimeMillis();
+        sequences.set(i, slot + 1);  // Publish. A full fence, so that either this sees `idle` or the writer sees the event
+        if (idle) LockSupport.unpark(writer);
+
+    }
+
+    /**
+     * Block until every event logged so far has been printed.
+     */
+    public static void flush() {
+        long target = claimed.get();
+        if (written < target) {
+            synchronized (flushed) {
+                flushing++;
+                try {
+                    while (written < target)
+                        flushed.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    flushing--;
+                }
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * @return Number of events dropped because the ring buffer was full.
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Writer thread: print published events in order, parking until the next one is published whenever there are none.
+    private static void drain() {
+        StringBuilder line = new StringBuilder(128);
+        long next = 0;
+        while (true) {
+            int i = (int) (next & MASK);
+            if (sequences.getAcquire(i) != next + 1) {
+                output.flush();
+                idle = true;
+                if (sequences.get(i) != next + 1)  // Re-check after raising `idle`, or an event published in between is missed
+                    LockSupport.park();
+                idle = false;
+                continue;
+            }
+            line.setLength(0);
+            format(line, EVENTS[events[i]], gameIds[i], playerIndexes[i], args0[i], args1[i], times[i]);
+            output.println(line);
+            written = ++next;
+            if (flushing > 0) {
+                synchronized (flushed) {
+                    flushed.notifyAll();
+                }
+            }
+        }
+    }
+
+    private static void format(StringBuilder line, LOG_EVENT event, int gameId, int playerIndex, int arg0, int arg1, long time) {
+        line.append(Instant.ofEpochMilli(time)).append(' ').append(event.level).append(' ').append(event);
+        if (gameId != -1) line.append(" game=").append(gameId);
+        if (playerIndex != -1) line.append(" player=").append(playerIndex);
+        switch (event) {
+            case ROLL -> line.append(' ').append(arg0).append(" + ").append(arg1).append(" = ").append(arg0 + arg1);
+            case RENT -> line.append(" paid $").append(arg0).append(" to player ").append(arg1);
+            case CARD -> line.append(' ').append(CARD.values()[arg0].getFullName());
+            case PURCHASE -> line.append(" bought ").append(Board.SQUARES.get(arg0).getName()).append(" for $").append(arg1);
+            case TRADE -> line.append(" trade with player ").append(arg0).append(arg1 == 1 ? " accepted" : " rejected");
+            case BANKRUPTCY -> line.append(" bankrupted!!");
+            case WARN -> line.append(" CODE ").append(arg0);
+        }
+    }
+
+}
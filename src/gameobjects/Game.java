@@ -1,11 +1,11 @@
 package gameobjects;
 
 import main.Monopoly;
-import playerobjects.Communicator;
-import playerobjects.DebugCommunicator;
-import playerobjects.Player;
+import playerobjects.*;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static java.lang.System.exit;
 // ^^ Might not be a great idea to exit this way ^^ || TODO: End gracefully
@@ -18,25 +18,62 @@ public class Game implements OutputsWarnings {
 
     public static final int MAX_TURNS = 100;
     public static final int MAX_ACTIONS = 10;
-    public static final int MAX_DEPTH = 20;  // Used in requestAction()
+    public static final int MAX_SIGNALS = 10;  // Times a Player is signaled for one decision before it is skipped
     public static final int STARTING_BID_AMOUNT = 10;
     public static final String PROMPT_DEFAULT = "What action would you like to perform?";
 
-    private static int ID_INCREMENT = 0;
-    private final int id = ID_INCREMENT++;
+    // Legal actions for each exec-flow code (see generateLegalActions()), built once and shared by every Game.
+    // The Sets are unmodifiable, so they can be handed straight to Judges without copying.
+    private static final int[] LEGAL_ACTION_MASKS = new int[]{
+            GameAction.maskOf(GameAction.START_ACTIONS),                          // 0: Beginning of turn
+            GameAction.PROPERTY_BUY_OR_AUCTION.mask(),                            // 1: Landed on a Property
+            GameAction.maskOf(GameAction.END_ACTIONS),                            // 2: End of turn
+            GameAction.maskOf(GameAction.JAIL_ACTIONS),                           // 3: Beginning a turn in Jail
+            GameAction.maskOf(GameAction.SELL_ACTIONS),                           // 4: Making up funds
+            GameAction.AUCTION_BID.mask(),                                        // 5: Auction sub-routine
+            GameAction.maskOf(GameAction.JAIL_PAY_BAIL, GameAction.JAIL_USE_CARD),  // 6: Exiting Jail by force
+            GameAction.MOVE_THROW_DICE.mask(),                                    // 7: Forced move
+            GameAction.TRADE_RESPOND.mask()                                       // 8: Responding to a trade
+    };
+    private static final List<Set<GameAction>> LEGAL_ACTION_SETS =
+            Arrays.stream(LEGAL_ACTION_MASKS).mapToObj(GameAction::setOf).toList();
+
+    private static final AtomicInteger ID_INCREMENT = new AtomicInteger();  // Games may be constructed on many threads at once
+    private final int id = ID_INCREMENT.getAndIncrement();
 
     private boolean gameOverFlag = false;
     private boolean endTurnFlag = false;
     private int currentTurn = 0;
-    private int depth = 0;  // Used in requestAction()
+    private boolean verbose = true;
 
-    private Set<GameAction> currentLegalActions = new HashSet<>();
+    // Throughput counters, used by headless simulation
+    private long turnCount = 0;
+    private long decisionCount = 0;
+
+    // Legal actions at the current decision point, as an action mask (see GameAction.mask()) and as the matching Set
+    private int currentLegalMask = 0;
+    private Set<GameAction> currentLegalActions = Set.of();
 
     private Trade currentTrade = null;
 
+    // Turn state machine.
+    // The engine runs until a Player has to decide something, then stops at that decision point until step() is called.
+    // Everything still to be done once the decision is made is kept on `frames`, most recent on top.
+    private final Deque<Frame> frames = new ArrayDeque<>();  // Empty when the current turn is done
+    private int decisionPlayer = -1;  // Index of the Player who has to decide, -1 if there is no pending decision
+    private int decisionCode = -1;  // Exec-flow code of the pending decision, see generateLegalActions()
+    private Supplier<String> decisionPrompt = () -> PROMPT_DEFAULT;  // Only built if somebody reads it
+    private int decisionSignals = 0;  // Times the pending decision has been signaled
+
+    private final long seed;
+    private final Dice dice;
     private Dice lastDiceRoll = null;
 
     private final GameState gameState;
+    private UndoJournal journal = null;  // Records every change to `gameState` and `dice` while the Game is marked
+    private final List<Checkpoint> marks = new ArrayList<>();  // Engine state at each mark, by mark ID
+    private volatile long version = 0;  // Bumped whenever `gameState` may have changed
+    private volatile GameState snapshot = null;  // Snapshot of `gameState` at `snapshot.getVersion()`, built on demand
     private final Player[] players;
     private final UUID[] playerUUIDs;
 
@@ -47,6 +84,26 @@ public class Game implements OutputsWarnings {
      * @param communicator Pre-existing Communicator object.
      */
     public Game(int numPlayers, String[] names, Communicator communicator) {
+        this(numPlayers, names, defaultJudges(numPlayers), null, communicator);
+    }
+
+    /**
+     * Constructs a Game with a pluggable Judge (decision-maker) and OutPipe per seat.
+     * @param numPlayers Number of players.
+     * @param names Names of each player.
+     * @param judges Judge of each player.
+     * @param outPipes OutPipe of each player. If null, every player outputs to stdout.
+     * @param communicator Pre-existing Communicator object. If null, a DebugCommunicator is created.
+     */
+    public Game(int numPlayers, String[] names, Judge[] judges, OutPipe[] outPipes, Communicator communicator) {
+        this(numPlayers, names, judges, outPipes, communicator, GameRandom.fromEntropy().nextLong());
+    }
+
+    /**
+     * Constructs a reproducible Game: the same seed (and the same Judges' decisions) replays the same game exactly.
+     * @param seed Seed of the Game's root GameRandom. Dice and card decks each draw from their own sub-stream.
+     */
+    public Game(int numPlayers, String[] names, Judge[] judges, OutPipe[] outPipes, Communicator communicator, long seed) {
         if (communicator == null)
             communicator = new DebugCommunicator(this);
 
@@ -62,20 +119,92 @@ public class Game implements OutputsWarnings {
             seenUUIDs.add(randUUID);
         }
 
+        this.players = new Player[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            OutPipe outPipe = (outPipes == null) ? new DebugOutPipe() : outPipes[i];
+            this.players[i] = new Player(communicator, i, names[i], playerUUIDs[i], judges[i], outPipe);
+            if (judges[i] != null)
+                judges[i].bind(this);
+        }
+
+        this.seed = seed;
+        GameRandom random = new GameRandom(seed);
+        this.dice = new Dice(random.split(GameRandom.DICE_STREAM), false);  // Logging is handled by tossDice()
+        this.gameState = new GameState(numPlayers, random);
+
+        advance();  // Run up to the first decision point
+    }
+
+    /**
+     * Copy constructor used by copy(). Players keep their names and keys, but have no Judges and print nothing.
+     */
+    private Game(Game original, long seed) {
+
+        int numPlayers = original.players.length;
+        this.playerUUIDs = original.playerUUIDs.clone();
         this.players = new Player[numPlayers];
         for (int i = 0; i < numPlayers; i++)
-            this.players[i] = new Player(communicator, names[i], playerUUIDs[i]);
+            this.players[i] = new Player(null, i, original.players[i].getName(), playerUUIDs[i], null, new NullOutPipe());
+
+        this.seed = seed;
+        GameRandom random = new GameRandom(seed);
+        this.dice = new Dice(random.split(GameRandom.DICE_STREAM), false);
+        this.dice.r1 = original.dice.r1;
+        this.dice.r2 = original.dice.r2;
+        this.dice.doubles = original.dice.doubles;
+        this.lastDiceRoll = (original.lastDiceRoll == null) ? null : dice;
+        this.gameState = new GameState(original.gameState, random);
+
+        this.verbose = false;
+        this.gameOverFlag = original.gameOverFlag;
+        this.endTurnFlag = original.endTurnFlag;
+        this.currentTurn = original.currentTurn;
+        this.turnCount = original.turnCount;
+        this.decisionCount = original.decisionCount;
+        this.currentLegalMask = original.currentLegalMask;
+        this.currentLegalActions = original.currentLegalActions;
+        this.currentTrade = original.currentTrade;
+        this.frames.addAll(original.frames);  // Frames never capture their Game, so they can be shared
+        this.decisionPlayer = original.decisionPlayer;
+        this.decisionCode = original.decisionCode;
+        this.decisionPrompt = original.decisionPrompt;
+        this.decisionSignals = original.decisionSignals;
+
+    }
 
-        this.gameState = new GameState(numPlayers);
+    // Every seat shares one stdin scanner, hence the shared InPipe.
+    private static Judge[] defaultJudges(int numPlayers) {
+        InPipe input = new ScannerInPipe();
+        Judge[] judges = new Judge[numPlayers];
+        for (int i = 0; i < numPlayers; i++)
+            judges[i] = new DebugJudge(input);
+        return judges;
     }
 
     // Debug functions ////////////////////////////////
+    /**
+     * Play the Game to the end, signaling the Player of each decision point in turn.
+     * Each signal returns once the Player's action has been stepped, so the call stack stays flat however long the Game runs.
+     */
     public void gameLoop() {  // TODO: Temporarily public!
         while (!gameOverFlag) {
-            depth = 0;
-            processTurn();
+            // A Player that never answers (or keeps answering illegally) forfeits the decision
+            if (decisionSignals >= MAX_SIGNALS) {
+                warn(5);
+                skipDecision();
+            }
+            else
+                signalDecision();
         }
     }
+
+    /**
+     * Toggle verbose engine output, i.e. INFO-level EngineLog events such as every dice roll. Warnings are logged regardless.
+     * Headless simulations should turn this off.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
     ///////////////////////////////////////////////////
 
     /**
@@ -87,10 +216,6 @@ public class Game implements OutputsWarnings {
      */
     public void requestAction(GameAction action, UUID key, GameObject wrapper) {
 
-        // Recursion base case (note: not direct / "true" recursion)
-        if (depth == MAX_DEPTH) return;
-        depth++;
-
         // Check if valid authentication
         int keyIndex = keyExists(key);
         if (keyIndex == -1) {
@@ -98,17 +223,63 @@ public class Game implements OutputsWarnings {
             return;
         }
 
-        // Skip the turn of a bankrupted player.
-        if (gameState.playerBankruptcy[keyIndex]) return;
+        // Only the Player of the pending decision may act
+        if (keyIndex != decisionPlayer) {
+            warn(3);
+            return;
+        }
+
+        step(action, wrapper);
+
+    }
+
+    /**
+     * Perform an action for the Player of the pending decision, then run the Game up to the next decision point.
+     * <br>Unlike requestAction(), no authentication is done, so this is the entry point for driving a Game from outside
+     * ... (e.g. a training loop or a network server), with getDecisionPlayer() and getLegalActions() telling the caller what to decide.
+     * <br>Illegal actions are rejected and leave the Game at the same decision point.
+     * @param action GameAction to perform.
+     * @param wrapper GameObject wrapper for necessary action data.
+     */
+    public synchronized void step(GameAction action, GameObject wrapper) {
+
+        if (decisionPlayer == -1) {
+            warn(4);  // The Game is over
+            return;
+        }
 
-        // Check if legal move. If not, reject it & replace with END_TURN.
-        if (!currentLegalActions.contains(action)) {
+        // Check if legal move. If not, reject it & ask again.
+        if ((currentLegalMask & action.mask()) == 0) {
             warn(2);
-            signalTurn(-1, keyIndex, "GameAction not allowed, try again.");
+            decisionPrompt = () -> "GameAction not allowed, try again.";
             return;
-            //action = GameAction.END_TURN;
         }
 
+        int playerIndex = decisionPlayer;
+        clearDecision();
+        version++;
+        performAction(action, playerIndex, wrapper);
+        advance();
+
+    }
+
+    /**
+     * Drop the pending decision without any action, then run the Game up to the next decision point.
+     */
+    private synchronized void skipDecision() {
+        clearDecision();
+        version++;
+        advance();
+    }
+
+    /**
+     * Carry out a legal action. Called by step().
+     * @param action GameAction to perform.
+     * @param keyIndex Index / ID of the acting Player.
+     * @param wrapper GameObject wrapper for necessary action data.
+     */
+    private void performAction(GameAction action, int keyIndex, GameObject wrapper) {
+
         boolean isPlayerTurn = (gameState.turnIndicator == keyIndex);
 
         // Handle action
@@ -123,11 +294,8 @@ public class Game implements OutputsWarnings {
                 if (gameState.jailedPlayers[keyIndex]) break;
 
                 // Roll dice
-                Dice dice = new Dice();
-                int toss = dice.toss();
-                gameState.timesRolled[keyIndex]++;
-
-                lastDiceRoll = dice;
+                int toss = tossDice();
+                gameState.setTimesRolled(keyIndex, gameState.timesRolled[keyIndex] + 1);
 
                 boolean allowAdditionalMove = false;
                 // Handle doubles
@@ -143,14 +311,13 @@ public class Game implements OutputsWarnings {
                     }
                 }
 
+                // Queue the extra move first, so it comes after anything the landing leads to
+                if (allowAdditionalMove)
+                    frames.push(game -> game.resumeDoubles(keyIndex));
+
                 // Move token if passed checks
                 moveToken(keyIndex, toss);
 
-                if (allowAdditionalMove && !gameState.jailedPlayers[keyIndex] && !gameState.playerBankruptcy[keyIndex])
-                    signalTurn(7, keyIndex,
-                            "You rolled doubles last turn!\n" + PROMPT_DEFAULT +
-                                    "\nYou have rolled doubles " + gameState.timesRolled[keyIndex] + " times in a row.");
-
             }
             case TRADE_OFFER -> {
 
@@ -246,10 +413,12 @@ public class Game implements OutputsWarnings {
 
                 // Finalize trade
                 currentTrade = wrapper.objTrade;
-                signalTurn(8, catcherIndex,
-                        "You've received a trade from " + players[keyIndex].getName() + "! Details below:\n" +
-                                currentTrade.toString());
-                currentTrade = null;
+                frames.push(game -> game.currentTrade = null);
+                Trade trade = currentTrade;
+                String pitcherName = players[keyIndex].getName();
+                signalTurn(8, catcherIndex, () ->
+                        "You've received a trade from " + pitcherName + "! Details below:\n" +
+                                trade.toString());
 
             }
             case TRADE_RESPOND -> {
@@ -262,6 +431,8 @@ public class Game implements OutputsWarnings {
 
                 if (wrapper.objBool)
                     acceptTrade(currentTrade.getPitcherIndex(), keyIndex, currentTrade);
+                if (verbose)
+                    EngineLog.log(LOG_EVENT.TRADE, id, currentTrade.getPitcherIndex(), keyIndex, wrapper.objBool ? 1 : 0);
 
             }
             case PROPERTY_BUY_OR_AUCTION -> {
@@ -285,7 +456,7 @@ public class Game implements OutputsWarnings {
             }
             case PROPERTY_MORTGAGE -> {
 
-                int propertyIndex = Board.SQUARES.indexOf(wrapper.objProperty);
+                int propertyIndex = wrapper.objProperty.getIndex();
 
                 // Perform checks on Player turn, ownership, and mortgage status
                 if (
@@ -299,7 +470,7 @@ public class Game implements OutputsWarnings {
             }
             case PROPERTY_UNMORTGAGE -> {
 
-                int propertyIndex = Board.SQUARES.indexOf(wrapper.objProperty);
+                int propertyIndex = wrapper.objProperty.getIndex();
 
                 // Perform checks on Player turn, ownership, mortgage, and cash status
                 if (
@@ -325,7 +496,7 @@ public class Game implements OutputsWarnings {
                     bid = -1;
 
                 // Replace old bid with new bid (or lack thereof)
-                gameState.auctionBids[keyIndex] = bid;
+                gameState.setAuctionBid(keyIndex, bid);
 
             }
             case HOUSE_BUILD -> {
@@ -333,7 +504,7 @@ public class Game implements OutputsWarnings {
                 // This action can theoretically be repeated.
                 //doNotRemoveAction = true;
 
-                int propertyIndex = Board.SQUARES.indexOf(wrapper.objProperty);
+                int propertyIndex = wrapper.objProperty.getIndex();
 
                 boolean isBuyingHotel = (gameState.houses[propertyIndex] == 4);
 
@@ -348,11 +519,7 @@ public class Game implements OutputsWarnings {
                         || gameState.mortgages[propertyIndex]  // The Property is mortgaged
                 ) break;
 
-                // Populate Property set index list
-                List<Property> propertySet = Board.getSquaresOfColorSet(wrapper.objProperty.color);
-                int[] propertySetIndices = new int[propertySet.size()];
-                for (int i = 0; i < propertySetIndices.length; i++)
-                    propertySetIndices[i] = Board.SQUARES.indexOf(propertySet.get(i));
+                int[] propertySetIndices = BoardIndex.COLOR_SET_INDEXES[wrapper.objProperty.color.ordinal()];
 
                 // Perform checks on set ownership & building evenness
                 boolean hasSetAndIsBuildingEvenly = true;
@@ -375,7 +542,7 @@ public class Game implements OutputsWarnings {
                 // This action can theoretically be repeated
                 //doNotRemoveAction = true;
 
-                int propertyIndex = Board.SQUARES.indexOf(wrapper.objProperty);
+                int propertyIndex = wrapper.objProperty.getIndex();
 
                 boolean isSellingHotel = (gameState.houses[propertyIndex] == 5);
 
@@ -388,11 +555,7 @@ public class Game implements OutputsWarnings {
                         || (gameState.remainingHouses < 4 && isSellingHotel)  // No remaining houses to replace the hotel with
                 ) break;
 
-                // Populate Property set index list
-                List<Property> propertySet = Board.getSquaresOfColorSet(wrapper.objProperty.color);
-                int[] propertySetIndices = new int[propertySet.size()];
-                for (int i = 0; i < propertySetIndices.length; i++)
-                    propertySetIndices[i] = Board.SQUARES.indexOf(propertySet.get(i));
+                int[] propertySetIndices = BoardIndex.COLOR_SET_INDEXES[wrapper.objProperty.color.ordinal()];
 
                 // Perform checks on building evenness
                 boolean isBuildingEvenly = true;
@@ -417,17 +580,16 @@ public class Game implements OutputsWarnings {
                 if (!gameState.jailedPlayers[keyIndex]) break;
 
                 // Roll dice
-                Dice dice = new Dice();
-                int toss = dice.toss();
-                gameState.timesRolled[keyIndex]++;
+                int toss = tossDice();
+                gameState.setTimesRolled(keyIndex, gameState.timesRolled[keyIndex] + 1);
 
                 // Handle doubles
                 if (dice.doubles) {
-                    gameState.timesRolled[keyIndex] = 0;
+                    gameState.setTimesRolled(keyIndex, 0);
                     freePlayer(keyIndex, 0);
                     moveToken(keyIndex, toss);
                 } else if (gameState.timesRolled[keyIndex] >= 3) {
-                    gameState.timesRolled[keyIndex] = 0;
+                    gameState.setTimesRolled(keyIndex, 0);
                     // Use card or pay bail in that order of preference
                     boolean hasCard = gameState.gtfoJailCards[keyIndex] < 1;
                     if (hasCard)
@@ -488,26 +650,78 @@ public class Game implements OutputsWarnings {
     }
 
     /**
-     * Handles the process of signaling to a player that it's their turn.
-     * Generates a Set of legal actions to pass to the player, ...
-     *      ... and also updates `currentLegalActions` in the process.
-     * When execution finally returns back, we re-set `currentLegalActions` to its previous value.
+     * Stop the Game at a decision point for a Player.
+     * Generates the legal actions for the point in execution and stores them as the pending decision,
+     * ... which gameLoop() then signals to the Player (or an outside caller decides via step()).
+     * <br>Must be the last thing its caller does: anything left to do after the decision has to be pushed onto `frames` beforehand.
+     * <br>Decisions of bankrupt Players are skipped.
      * @param execCodeFlow Indicator of when in the game logic the function is called.
+     * @param nixedActions Action mask of actions specified by the caller to be illegal regardless.
      * @param playerIndex Index / ID of the Player.
-     * @param prompt Output prompt.
+     * @param prompt Output prompt. Only built if the Player's OutPipe wants prompts, so it may capture values but not live state.
      */
-    private void signalTurn(int execCodeFlow, Set<GameAction> nixedActions, int playerIndex, String prompt) {
-        Set<GameAction> legalActions = generateLegalActions(execCodeFlow, nixedActions);
-        Set<GameAction> currentLegalActions_old = new HashSet<>(currentLegalActions);
-        currentLegalActions = legalActions;
-        players[playerIndex].signalTurn(legalActions, playerUUIDs[playerIndex], new PromptString(prompt, players[playerIndex], this.getGameState()));
-        currentLegalActions = currentLegalActions_old;
+    private void signalTurn(int execCodeFlow, int nixedActions, int playerIndex, Supplier<String> prompt) {
+        if (gameState.playerBankruptcy[playerIndex]) return;
+        if (decisionPlayer != -1) warn(6);  // Two decisions at once - the caller did not stop after the first
+        int legalMask = generateLegalActions(execCodeFlow, nixedActions);
+        currentLegalActions = legalActionSet(legalMask);
+        currentLegalMask = legalMask;
+        decisionPlayer = playerIndex;
+        decisionCode = execCodeFlow;
+        decisionPrompt = prompt;
+        decisionSignals = 0;
     }
-    private void signalTurn(int execCodeFlow, int playerIndex, String prompt) {
-        signalTurn(execCodeFlow, new HashSet<>(), playerIndex, prompt);
+    private void signalTurn(int execCodeFlow, int playerIndex, Supplier<String> prompt) {
+        signalTurn(execCodeFlow, 0, playerIndex, prompt);
     }
     private void signalTurn(int execCodeFlow, int playerIndex) {
-        signalTurn(execCodeFlow, playerIndex, PROMPT_DEFAULT);
+        signalTurn(execCodeFlow, playerIndex, () -> PROMPT_DEFAULT);
+    }
+
+    /**
+     * Signal the Player of the pending decision to take their turn.
+     * The Player answers through the Communicator, which steps the Game before this returns.
+     * Players whose OutPipe doesn't want prompts (e.g. machine agents) get no prompt at all.
+     */
+    private void signalDecision() {
+        decisionCount++;
+        decisionSignals++;
+        Player player = players[decisionPlayer];
+        PromptString prompt = player.wantsPrompts() ? new PromptString(decisionPrompt, player, this.getGameState()) : null;
+        player.signalTurn(currentLegalActions, playerUUIDs[decisionPlayer], prompt);
+    }
+
+    private void clearDecision() {
+        decisionPlayer = -1;
+        decisionCode = -1;
+        currentLegalMask = 0;
+        currentLegalActions = Set.of();
+    }
+
+    /**
+     * Run the Game until a Player has to make a decision, or the Game ends.
+     * Resumes pending frames top-first, and starts the next turn whenever there are none left.
+     */
+    private void advance() {
+        while (decisionPlayer == -1 && !gameOverFlag) {
+            Frame frame = frames.poll();
+            if (frame == null)
+                processTurn();
+            else
+                frame.resume(this);
+        }
+    }
+
+    /**
+     * Toss the Game's dice, logging the roll if verbose.
+     * @return Sum of the toss.
+     */
+    private int tossDice() {
+        int toss = dice.toss();
+        if (verbose)
+            EngineLog.log(LOG_EVENT.ROLL, id, gameState.turnIndicator, dice.r1, dice.r2);
+        lastDiceRoll = dice;
+        return toss;
     }
 
     /**
@@ -541,7 +755,7 @@ public class Game implements OutputsWarnings {
 
         int currentLocation = gameState.playerLocations[playerIndex];
         int landingLocation = (currentLocation + spaces) % Board.SQUARES.size();
-        gameState.playerLocations[playerIndex] = landingLocation;
+        gameState.setLocation(playerIndex, landingLocation);
         if (landingLocation < currentLocation || spaces >= Board.SQUARES.size())  // GO procedure
             incrementCash(playerIndex, 200);
 
@@ -562,7 +776,7 @@ public class Game implements OutputsWarnings {
 
         int currentLocation = gameState.playerLocations[playerIndex];
         int landingLocation = (currentLocation - spaces + Board.SQUARES.size()) % Board.SQUARES.size();
-        gameState.playerLocations[playerIndex] = landingLocation;
+        gameState.setLocation(playerIndex, landingLocation);
 
         handleMoveLanding(playerIndex, spaces, landingLocation, rentMultiplier);
 
@@ -582,24 +796,28 @@ public class Game implements OutputsWarnings {
         // We're dealing with e.g. Income Tax, GO, Free Parking, etc.
         if (landingProperty.isFunctionalOnly()) {
 
-            switch (landingProperty.getName()) {
-                case "GO" -> {}  // GO functionality already handled
-                case "Chance", "Community Chest" -> {
+            switch (BoardIndex.KINDS[landingLocation]) {
+                case GO -> {}  // GO functionality already handled
+                case CHANCE -> {
                     performCardAction(playerIndex, gameState.chance.drawCard());
                 }
-                case "Income Tax" -> {
+                case COMMUNITY_CHEST -> {
+                    performCardAction(playerIndex, gameState.communityChest.drawCard());
+                }
+                case INCOME_TAX -> {
                     incrementCash(playerIndex, -200);
                 }
-                case "Luxury Tax" -> {
+                case LUXURY_TAX -> {
                     incrementCash(playerIndex, -75);
                 }
-                case "Jail" -> {
-                    players[playerIndex].output(playerUUIDs[playerIndex], "Just visiting!");
+                case JAIL -> {
+                    if (players[playerIndex].wantsPrompts())
+                        players[playerIndex].output(playerUUIDs[playerIndex], "Just visiting!");
                 }
-                case "Go To Jail" -> {
+                case GO_TO_JAIL -> {
                     jailPlayer(playerIndex);
                 }
-                case "Free Parking" -> {}  // Do nothing. Too bad!
+                case FREE_PARKING -> {}  // Do nothing. Too bad!
             }
 
         }
@@ -609,8 +827,7 @@ public class Game implements OutputsWarnings {
 
             // Property is NOT OWNED - buy/auction
             if (gameState.ownership[landingLocation] == -1) {
-                String prompt = "Buy / auction " + Board.SQUARES.get(landingLocation).getName();
-                signalTurn(1, playerIndex, prompt);
+                signalTurn(1, playerIndex, () -> "Buy / auction " + Board.SQUARES.get(landingLocation).getName());
             }
 
             // Property is OWNED - pay rent
@@ -630,61 +847,44 @@ public class Game implements OutputsWarnings {
     private void performCardAction(int playerIndex, CARD card) {
 
         // Output card contents
-        players[playerIndex].output(playerUUIDs[playerIndex], card.getFullName() + "\n" + card.getDescription());
+        if (verbose)
+            EngineLog.log(LOG_EVENT.CARD, id, playerIndex, card.ordinal(), 0);
+        if (players[playerIndex].wantsPrompts())
+            players[playerIndex].output(playerUUIDs[playerIndex], card.getFullName() + "\n" + card.getDescription());
 
         switch (card) {
 
             // Chance \\
             case ADVANCE_TO_BOARDWALK -> {
-                int boardwalkIndex = Board.indexOf("Boardwalk");
+                int boardwalkIndex = BoardIndex.BOARDWALK;
                 int distanceToMove = (boardwalkIndex - gameState.playerLocations[playerIndex] + Board.SQUARES.size()) % Board.SQUARES.size();
                 moveToken(playerIndex, distanceToMove);
             }
             case ADVANCE_TO_GO, ADVANCE_TO_GO_2 -> {
-                int goIndex = Board.indexOf("GO");
+                int goIndex = BoardIndex.GO;
                 int distanceToMove = (goIndex - gameState.playerLocations[playerIndex] + Board.SQUARES.size()) % Board.SQUARES.size();
                 moveToken(playerIndex, distanceToMove);
             }
             case ADVANCE_TO_ILLINOIS -> {
-                int illinoisIndex = Board.indexOf("Illinois Avenue");
+                int illinoisIndex = BoardIndex.ILLINOIS_AVENUE;
                 int distanceToMove = (illinoisIndex - gameState.playerLocations[playerIndex] + Board.SQUARES.size()) % Board.SQUARES.size();
                 moveToken(playerIndex, distanceToMove);
             }
             case ADVANCE_TO_ST_CHARLES -> {
-                int charlesIndex = Board.indexOf("St. Charles Place");
+                int charlesIndex = BoardIndex.ST_CHARLES_PLACE;
                 int distanceToMove = (charlesIndex - gameState.playerLocations[playerIndex] + Board.SQUARES.size()) % Board.SQUARES.size();
                 moveToken(playerIndex, distanceToMove);
             }
             case ADVANCE_TO_NEAREST_RAILROAD, ADVANCE_TO_NEAREST_RAILROAD_2 -> {
-                int railroadIndex = -1;
-                for (int i = 0; i < Board.SQUARES.size(); i++) {
-                    if (Board.SQUARES.get((gameState.playerLocations[playerIndex] + i) % Board.SQUARES.size()).color == COLOR_SET.RAILROAD) {
-                        railroadIndex = (gameState.playerLocations[playerIndex] + i) % Board.SQUARES.size();
-                        break;
-                    }
-                }
+                int railroadIndex = BoardIndex.NEXT_RAILROAD[gameState.playerLocations[playerIndex]];
                 int distanceToMove = (railroadIndex - gameState.playerLocations[playerIndex] + Board.SQUARES.size()) % Board.SQUARES.size();
                 moveToken(playerIndex, distanceToMove, 2.0);
             }
             case ADVANCE_TO_NEAREST_UTILITY -> {
 
-                // Locate nearest utility
-                int utilityIndex = -1;
-                for (int i = 1; i < Board.SQUARES.size(); i++) {
-                    if (Board.SQUARES.get((gameState.playerLocations[playerIndex] + i) % Board.SQUARES.size()).color == COLOR_SET.UTILITY) {
-                        utilityIndex = (gameState.playerLocations[playerIndex] + i) % Board.SQUARES.size();
-                        break;
-                    }
-                }
-
-                // Locate the other (remaining) utility
-                int otherUtilityIndex = -1;
-                for (int i = 1; i < Board.SQUARES.size(); i++) {
-                    if (Board.SQUARES.get((utilityIndex + i) % Board.SQUARES.size()).color == COLOR_SET.UTILITY) {
-                        otherUtilityIndex = (utilityIndex + i) % Board.SQUARES.size();
-                        break;
-                    }
-                }
+                // Locate nearest utility, and the other (remaining) utility
+                int utilityIndex = BoardIndex.NEXT_UTILITY[gameState.playerLocations[playerIndex]];
+                int otherUtilityIndex = BoardIndex.NEXT_UTILITY[utilityIndex];
 
                 // This card makes landing on an owned utility 10x dice.
                 //      This will already be the case if both properties are owned by the same player,
@@ -706,7 +906,7 @@ public class Game implements OutputsWarnings {
             }
             case GTFO_JAIL, GTFO_JAIL_2 -> {
                 if (gameState.gtfoJailCards[playerIndex] < GameState.MAXIMUM_GTFO_JAIL_CARDS)
-                    gameState.gtfoJailCards[playerIndex]++;
+                    gameState.setGtfoJailCards(playerIndex, gameState.gtfoJailCards[playerIndex] + 1);
             }
             case RETREAT_3_SPACES -> {
                 moveToken(playerIndex, -3);
@@ -721,16 +921,16 @@ public class Game implements OutputsWarnings {
                 incrementCash(playerIndex, -15);
             }
             case ADVANCE_TO_READING_RAILROAD -> {
-                int readingIndex = Board.indexOf("Reading Railroad");
+                int readingIndex = BoardIndex.READING_RAILROAD;
                 int distanceToMove = (readingIndex - gameState.playerLocations[playerIndex] + Board.SQUARES.size()) % Board.SQUARES.size();
                 moveToken(playerIndex, distanceToMove);
             }
             case PAY_50_EACH_PLAYER -> {
-                // We remove the cash from the player *first*
-                incrementCash(playerIndex, -50 * gameState.numPlayers);
-                for (int i = 0; i < gameState.cash.length; i++) {
-                    if (i == playerIndex) continue;
-                    incrementCash(i, 50);
+                // One charge per Player, queued in reverse so they're paid in seat order
+                for (int i = gameState.numPlayers - 1; i >= 0; i--) {
+                    if (i == playerIndex || gameState.playerBankruptcy[i]) continue;
+                    int creditorIndex = i;
+                    frames.push(game -> game.chargeCash(playerIndex, 50, creditorIndex));
                 }
             }
             case COLLECT_150 -> {
@@ -745,14 +945,12 @@ public class Game implements OutputsWarnings {
                 incrementCash(playerIndex, -50);
             }
             case COLLECT_50_EACH_PLAYER -> {
-                // We remove the cash from the players *first*
-                int payingPlayers = 0;
-                for (int i = 0; i < gameState.cash.length; i++) {
-                    if (i == playerIndex) continue;
-                    if (incrementCash(i, -50))
-                        payingPlayers++;
+                // One charge per Player, queued in reverse so they pay in seat order
+                for (int i = gameState.numPlayers - 1; i >= 0; i--) {
+                    if (i == playerIndex || gameState.playerBankruptcy[i]) continue;
+                    int debtorIndex = i;
+                    frames.push(game -> game.chargeCash(debtorIndex, 50, playerIndex));
                 }
-                incrementCash(playerIndex, 50 * payingPlayers);
             }
             case COLLECT_100, COLLECT_100_2, COLLECT_100_3, COLLECT_100_4 -> {
                 incrementCash(playerIndex, 100);
@@ -789,69 +987,111 @@ public class Game implements OutputsWarnings {
 
         // Reset timesRolled values (checks for doubles, etc.)
         if (gameState.turnIndicator != -1)
-            gameState.timesRolled[gameState.turnIndicator] = 0;
+            gameState.setTimesRolled(gameState.turnIndicator, 0);
 
         // Increment turnIndicator, looping around if needed
-        gameState.turnIndicator = (gameState.turnIndicator + 1) % players.length;
-
-        currentLegalActions = generateLegalActions(0);  // resets to start-of-turn actions
+        gameState.setTurnIndicator((gameState.turnIndicator + 1) % players.length);
+        turnCount++;
 
         if (isGameOver()) {
             endGame(0);
         }
-        // Signal the next Player's turn if not bankrupt, otherwise skip it
+        // Queue the next Player's turn if not bankrupt, otherwise skip it.
+        // The top of the stack runs first, so the phases are pushed in reverse.
         else if (!gameState.playerBankruptcy[gameState.turnIndicator]) {
+            frames.push(game -> game.resumeActionPhase(true, 0));  // Post-move actions
+            frames.push(Game::resumeMovePhase);
+            frames.push(game -> game.resumeActionPhase(false, 0));  // Pre-move actions
+        }
 
-            // Pre-move actions
-            int consecutiveActions = 0;
-            while (!endTurnFlag && consecutiveActions < MAX_ACTIONS) {
-                String prompt = "Would you like to perform actions before moving?" +
-                        "\nInput END_TURN when finished." +
-                        "\nYou have " + (MAX_ACTIONS - consecutiveActions) + " actions remaining.";
-                signalTurn(2, gameState.turnIndicator, prompt);
-                consecutiveActions++;
-            }
+    }
+
+    /**
+     * Signal the current Player for their next pre- or post-move action, until they end the phase or run out of actions.
+     * @param postMove False for the pre-move phase, true for the post-move phase.
+     * @param consecutiveActions Number of actions already taken in the phase.
+     */
+    private void resumeActionPhase(boolean postMove, int consecutiveActions) {
+
+        int playerIndex = gameState.turnIndicator;
+        if (endTurnFlag || consecutiveActions >= MAX_ACTIONS || gameState.playerBankruptcy[playerIndex]) {
             endTurnFlag = false;
-            consecutiveActions = 0;
+            return;
+        }
 
-            // If Player is in Jail, use the Jail moves set and update turnsInJail accordingly (before & after the turn).
-            if (gameState.jailedPlayers[gameState.turnIndicator]) {
+        frames.push(game -> game.resumeActionPhase(postMove, consecutiveActions + 1));
+        signalTurn(2, playerIndex, () ->
+                (postMove ? "Would you like to perform actions before ending your turn?" : "Would you like to perform actions before moving?") +
+                "\nInput END_TURN when finished." +
+                "\nYou have " + (MAX_ACTIONS - consecutiveActions) + " actions remaining.");
 
-                if (gameState.turnsInJail[gameState.turnIndicator] < Monopoly.MAX_TURNS_IN_JAIL)
-                    signalTurn(3, gameState.turnIndicator, "YOU ARE IN JAIL!\nIt's your turn! " + PROMPT_DEFAULT);
-                else
-                    signalTurn(6, gameState.turnIndicator, "YOU ARE IN JAIL!\nIt's your turn! " + PROMPT_DEFAULT + "\nYou must leave Jail this turn.");
+    }
 
-                if (gameState.jailedPlayers[gameState.turnIndicator])
-                    gameState.turnsInJail[gameState.turnIndicator]++;
-                else
-                    gameState.turnsInJail[gameState.turnIndicator] = 0;
+    /**
+     * Signal the current Player to move, or to get out of Jail if they're in it.
+     */
+    private void resumeMovePhase() {
 
-            }
-            else
-                signalTurn(7, gameState.turnIndicator, "It's your turn! " + PROMPT_DEFAULT);
-
-            // Post-move actions
-            while (!endTurnFlag && consecutiveActions < MAX_ACTIONS) {
-                String prompt = "Would you like to perform actions before ending your turn?" +
-                        "\nInput END_TURN when finished." +
-                        "\nYou have " + (MAX_ACTIONS - consecutiveActions) + " actions remaining.";
-                signalTurn(2, gameState.turnIndicator, prompt);
-                consecutiveActions++;
-            }
-            endTurnFlag = false;
+        int playerIndex = gameState.turnIndicator;
+        if (gameState.playerBankruptcy[playerIndex]) return;
 
+        // If Player is in Jail, use the Jail moves set and update turnsInJail accordingly (before & after the turn).
+        if (gameState.jailedPlayers[playerIndex]) {
+            frames.push(game -> game.resumeJailTurnEnd(playerIndex));
+            if (gameState.turnsInJail[playerIndex] < Monopoly.MAX_TURNS_IN_JAIL)
+                signalTurn(3, playerIndex, () -> "YOU ARE IN JAIL!\nIt's your turn! " + PROMPT_DEFAULT);
+            else
+                signalTurn(6, playerIndex, () -> "YOU ARE IN JAIL!\nIt's your turn! " + PROMPT_DEFAULT + "\nYou must leave Jail this turn.");
         }
+        else
+            signalTurn(7, playerIndex, () -> "It's your turn! " + PROMPT_DEFAULT);
 
     }
 
+    private void resumeJailTurnEnd(int playerIndex) {
+        if (gameState.jailedPlayers[playerIndex])
+            gameState.setTurnsInJail(playerIndex, gameState.turnsInJail[playerIndex] + 1);
+        else
+            gameState.setTurnsInJail(playerIndex, 0);
+    }
+
+    /**
+     * Give a Player who rolled doubles their extra move, unless the roll sent them to Jail or bankrupted them.
+     */
+    private void resumeDoubles(int playerIndex) {
+        if (gameState.jailedPlayers[playerIndex] || gameState.playerBankruptcy[playerIndex]) return;
+        int timesRolled = gameState.timesRolled[playerIndex];
+        signalTurn(7, playerIndex, () ->
+                "You rolled doubles last turn!\n" + PROMPT_DEFAULT +
+                        "\nYou have rolled doubles " + timesRolled + " times in a row.");
+    }
+
     /**
      * @return True under the following conditions, false otherwise:
      *              1) If the Game has exceeded the maximum number of turns.
      *              2) If all other players have left or been eliminated.
      */
-    private boolean isGameOver() {
-        return (currentTurn > MAX_TURNS || gameState.numPlayers <= 1);
+    public boolean isGameOver() {
+        if (gameOverFlag || currentTurn > MAX_TURNS) return true;
+        int playersRemaining = 0;
+        for (boolean bankrupt : gameState.playerBankruptcy)
+            if (!bankrupt) playersRemaining++;
+        return playersRemaining <= 1;
+    }
+
+    /**
+     * @return Index / ID of the winning Player once the Game is over, -1 while it's still running.
+     * The last Player standing wins; if the turn limit is reached first, the remaining Player with the most cash wins.
+     */
+    public int getWinner() {
+        if (!gameOverFlag) return -1;
+        int winner = -1;
+        for (int i = 0; i < gameState.numPlayers; i++) {
+            if (gameState.playerBankruptcy[i]) continue;
+            if (winner == -1 || gameState.cash[i] > gameState.cash[winner])
+                winner = i;
+        }
+        return winner;
     }
 
     /**
@@ -879,20 +1119,18 @@ public class Game implements OutputsWarnings {
         int[][] pitcherContents = trade.getContents(true);
         int[][] catcherContents = trade.getContents(false);
 
-        incrementCash(pitcherIndex, catcherContents[0][0]);
-        incrementCash(catcherIndex, -catcherContents[0][0]);
-        incrementCash(catcherIndex, pitcherContents[0][0]);
-        incrementCash(pitcherIndex, -pitcherContents[0][0]);
+        // Cash amounts were capped at each side's balance when the trade was offered, so these never run into debt
+        chargeCash(catcherIndex, catcherContents[0][0], pitcherIndex);
+        chargeCash(pitcherIndex, pitcherContents[0][0], catcherIndex);
 
-        gameState.gtfoJailCards[pitcherIndex] += catcherContents[2][0];
-        gameState.gtfoJailCards[catcherIndex] -= catcherContents[2][0];
-        gameState.gtfoJailCards[catcherIndex] += pitcherContents[2][0];
-        gameState.gtfoJailCards[pitcherIndex] -= pitcherContents[2][0];
+        int cardsToPitcher = catcherContents[2][0] - pitcherContents[2][0];
+        gameState.setGtfoJailCards(pitcherIndex, gameState.gtfoJailCards[pitcherIndex] + cardsToPitcher);
+        gameState.setGtfoJailCards(catcherIndex, gameState.gtfoJailCards[catcherIndex] - cardsToPitcher);
 
         for (int propIndex : pitcherContents[1])
-            gameState.ownership[propIndex] = catcherIndex;
+            gameState.setOwner(propIndex, catcherIndex);
         for (int propIndex : catcherContents[1])
-            gameState.ownership[propIndex] = pitcherIndex;
+            gameState.setOwner(propIndex, pitcherIndex);
 
     }
 
@@ -901,8 +1139,7 @@ public class Game implements OutputsWarnings {
      * Pre-req: Passed all checks.
      */
     private void buyProperty(int playerIndex, Property property) {
-        incrementCash(playerIndex, -property.marketPrice);  // Take cash out of account *first*!
-        gameState.ownership[Board.indexOf(property.getName())] = playerIndex;
+        buyProperty(playerIndex, property, property.marketPrice);
     }
 
     /**
@@ -910,8 +1147,10 @@ public class Game implements OutputsWarnings {
      * Used primarily in the auction procedure.
      */
     private void buyProperty(int playerIndex, Property property, int customCost) {
-        incrementCash(playerIndex, -customCost);
-        gameState.ownership[Board.indexOf(property.getName())] = playerIndex;
+        incrementCash(playerIndex, -customCost);  // Take cash out of account *first*!
+        gameState.setOwner(property.getIndex(), playerIndex);
+        if (verbose)
+            EngineLog.log(LOG_EVENT.PURCHASE, id, playerIndex, property.getIndex(), customCost);
     }
 
     /**
@@ -922,46 +1161,80 @@ public class Game implements OutputsWarnings {
     private void auctionProperty(int playerIndex, Property property) {
 
         // Initialize relevant fields
-        gameState.biddingProperty = Board.SQUARES.indexOf(property);
+        gameState.setBiddingProperty(property.getIndex());
         for (int i = 0; i < gameState.numPlayers; i++)
-            gameState.auctionBids[i] = STARTING_BID_AMOUNT;
+            gameState.setAuctionBid(i, gameState.playerBankruptcy[i] ? -1 : STARTING_BID_AMOUNT);
+
+        resumeAuction(playerIndex, -1, 0);
 
-        // Auction procedure
-        boolean multiplePlayersRemaining = true;
-        while (multiplePlayersRemaining) {
-            for (int i = 0; i < gameState.numPlayers; i++) {
+    }
 
-                int pIndex = (playerIndex + i) % gameState.numPlayers;
+    /**
+     * Signal the next bidder of the running auction, or close it once a single bidder remains.
+     * @param starterIndex Index / ID of the Player who started the auction. Bidding goes round the table from them.
+     * @param leader Index of the last Player to raise the maximum bid, -1 if nobody has yet.
+     * @param biddingTurn Number of bidding turns taken so far, including those skipped for Players who've dropped out.
+     */
+    private void resumeAuction(int starterIndex, int leader, int biddingTurn) {
+
+        // Check # of Players remaining in the auction.
+        // Close it if only 1 Player remains.
+        int playersRemaining = gameState.numPlayers;
+        for (int bid : gameState.auctionBids) {
+            if (bid < 0)
+                playersRemaining--;
+        }
+        if (playersRemaining < 2) {  // This should never be <= 0, but just in case
+            closeAuction();
+            return;
+        }
 
-                // Skip turns of Players who've dropped out of the auction
-                if (gameState.auctionBids[pIndex] < 0) continue;
+        // Skip turns of Players who've dropped out of the auction
+        int pIndex = (starterIndex + biddingTurn) % gameState.numPlayers;
+        while (gameState.auctionBids[pIndex] < 0) {
+            biddingTurn++;
+            pIndex = (starterIndex + biddingTurn) % gameState.numPlayers;
+        }
 
-                // Check # of Players remaining in the auction.
-                // Exit the loop if only 1 Player remains.
-                int playersRemaining = gameState.numPlayers;
-                for (int bid : gameState.auctionBids) {
-                    if (bid < 0)
-                        playersRemaining--;
-                }
-                if (playersRemaining < 2) {  // This should never be <= 0, but just in case
-                    multiplePlayersRemaining = false;
-                    break;
-                }
+        int maxBid = gameState.getMaximumBid();
 
-                int maxBid = gameState.getMaximumBid();
+        // Signal Player for bid
+        String propertyName = Board.SQUARES.get(gameState.biddingProperty).getName();
+        int bidderIndex = pIndex;
+        int nextTurn = biddingTurn + 1;
+        frames.push(game -> game.resumeAuctionBid(starterIndex, leader, nextTurn, bidderIndex, maxBid));
+        signalTurn(5, pIndex, () ->
+                "What is your bid on " + propertyName + "?" +
+                "\nBid -1 to concede." +
+                "\nCurrent maximum bid: " + maxBid);
+
+    }
 
-                // Signal Player for bid
-                String prompt = "What is your bid on " + property.getName() + "?" +
-                        "\nBid -1 to concede." +
-                        "\nCurrent maximum bid: " + maxBid;
-                signalTurn(5, pIndex, prompt);
+    /**
+     * Check the bid just made in the running auction, then carry on with the next bidder.
+     * @param bidderIndex Index / ID of the Player who just bid.
+     * @param maxBid Maximum bid at the time the Player was signaled.
+     */
+    private void resumeAuctionBid(int starterIndex, int leader, int biddingTurn, int bidderIndex, int maxBid) {
 
-                // Replace all invalid bids with -1
-                if (gameState.auctionBids[pIndex] < STARTING_BID_AMOUNT || gameState.auctionBids[pIndex] < maxBid)
-                    gameState.auctionBids[pIndex] = -1;
+        // Replace all invalid bids with -1.
+        // Anyone but the leader must raise the maximum bid to stay in, otherwise the auction could stall forever.
+        if (gameState.auctionBids[bidderIndex] < STARTING_BID_AMOUNT || gameState.auctionBids[bidderIndex] < maxBid
+                || (gameState.auctionBids[bidderIndex] == maxBid && bidderIndex != leader))
+            gameState.setAuctionBid(bidderIndex, -1);
+        else if (gameState.auctionBids[bidderIndex] > maxBid)
+            leader = bidderIndex;
 
-            }
-        }
+        resumeAuction(starterIndex, leader, biddingTurn);
+
+    }
+
+    /**
+     * Sell the Property up for auction to the highest bidder, and reset the auction fields.
+     */
+    private void closeAuction() {
+
+        Property property = Board.SQUARES.get(gameState.biddingProperty);
 
         // Find the maximum bid and winning player
         int price = -1;  // Maximum bid amount
@@ -975,11 +1248,14 @@ public class Game implements OutputsWarnings {
         }
 
         // Call buyProperty() for auction winner, with the winning bid as the price
-        buyProperty(winner, property, price);
+        // If nobody made a valid bid, the Property stays with the bank.
+        if (price > -1)
+            buyProperty(winner, property, price);
 
         // "Null" relevant fields
-        this.gameState.auctionBids = new int[gameState.auctionBids.length];
-        this.gameState.biddingProperty = 0;
+        for (int i = 0; i < gameState.auctionBids.length; i++)
+            gameState.setAuctionBid(i, 0);
+        gameState.setBiddingProperty(0);
 
     }
 
@@ -988,9 +1264,9 @@ public class Game implements OutputsWarnings {
      * Pre-req: Passed all checks.
      */
     private void mortgageProperty(Property property) {
-        int propertyIndex = Board.indexOf(property.getName());
+        int propertyIndex = property.getIndex();
         int playerIndex = gameState.ownership[propertyIndex];
-        gameState.mortgages[propertyIndex] = true;
+        gameState.setMortgaged(propertyIndex, true);
         incrementCash(playerIndex, (int)(property.marketPrice * property.mortgageDivisor));
     }
 
@@ -999,9 +1275,9 @@ public class Game implements OutputsWarnings {
      * Pre-req: Passed all checks.
      */
     private void unmortgageProperty(Property property) {
-        int propertyIndex = Board.indexOf(property.getName());
+        int propertyIndex = property.getIndex();
         int playerIndex = gameState.ownership[propertyIndex];
-        gameState.mortgages[propertyIndex] = false;
+        gameState.setMortgaged(propertyIndex, false);
         incrementCash(playerIndex, -((int)(property.marketPrice * property.mortgageDivisor * Property.UNMORTGAGE_INTEREST)));
     }
 
@@ -1011,15 +1287,15 @@ public class Game implements OutputsWarnings {
      */
     private void buyHouse(Property property, boolean hotel) {
 
-        int propertyIndex = Board.indexOf(property.getName());
+        int propertyIndex = property.getIndex();
         int playerIndex = gameState.ownership[propertyIndex];
 
-        gameState.houses[propertyIndex]++;
+        gameState.setHouses(propertyIndex, gameState.houses[propertyIndex] + 1);
         if (hotel) {
-            gameState.remainingHouses += 4;
-            gameState.remainingHotels--;
+            gameState.setRemainingHouses(gameState.remainingHouses + 4);
+            gameState.setRemainingHotels(gameState.remainingHotels - 1);
         } else {
-            gameState.remainingHouses--;
+            gameState.setRemainingHouses(gameState.remainingHouses - 1);
         }
 
         incrementCash(playerIndex, -property.baseHouseCost);
@@ -1032,15 +1308,15 @@ public class Game implements OutputsWarnings {
      */
     private void sellHouse(Property property, boolean hotel) {
 
-        int propertyIndex = Board.indexOf(property.getName());
+        int propertyIndex = property.getIndex();
         int playerIndex = gameState.ownership[propertyIndex];
 
-        gameState.houses[propertyIndex]--;
+        gameState.setHouses(propertyIndex, gameState.houses[propertyIndex] - 1);
         if (hotel) {
-            gameState.remainingHouses -= 4;
-            gameState.remainingHotels++;
+            gameState.setRemainingHouses(gameState.remainingHouses - 4);
+            gameState.setRemainingHotels(gameState.remainingHotels + 1);
         } else {
-            gameState.remainingHouses++;
+            gameState.setRemainingHouses(gameState.remainingHouses + 1);
         }
 
         incrementCash(playerIndex, (int)(property.baseHouseCost * property.houseSellDivisor));
@@ -1050,27 +1326,32 @@ public class Game implements OutputsWarnings {
     /**
      * Method called when a Player cannot pay a charge.
      * Will result in the Player making up the funds via secondary means (e.g. mortgages, trades),
-     * ... or declaring bankruptcy.
-     * @param amount Amount owed.
+     * ... or declaring bankruptcy. Resumed once per action the Player takes, until the dispute is resolved.
+     * <br>If the Player raises the funds, the charge is paid in full. Otherwise they are bankrupted,
+     * ... and whatever cash they have left goes to the creditor.
      * @param playerIndex Player that needs to pay.
-     * @return True if the dispute was resolved, false if Player declared bankruptcy.
-     */
-    private boolean cannotPay(int playerIndex, int amount) {
-
-        for (int i = MAX_ACTIONS; i > 0; i--) {
-            // Give player a chance to make up the funds
-            String prompt = "You need to make up the funds to pay $" + amount + ".\nYou have " + i + " actions remaining.";
-            signalTurn(4, playerIndex, prompt);
-            if (gameState.cash[playerIndex] >= amount)
-                return true;
-            if (gameState.playerBankruptcy[playerIndex])
-                break;
+     * @param amount Amount owed.
+     * @param creditorIndex Player being paid, -1 for the bank.
+     * @param actionsRemaining Number of actions the Player has left to make up the funds.
+     */
+    private void cannotPay(int playerIndex, int amount, int creditorIndex, int actionsRemaining) {
+
+        if (!gameState.playerBankruptcy[playerIndex] && gameState.cash[playerIndex] >= amount) {
+            transferCash(playerIndex, amount, creditorIndex);
+            return;
         }
 
         // Bankrupt the player if they haven't raised the funds & haven't already bankrupted
-        if (!gameState.playerBankruptcy[playerIndex])
-            bankruptPlayer(playerIndex);
-        return false;
+        if (gameState.playerBankruptcy[playerIndex] || actionsRemaining <= 0) {
+            if (!gameState.playerBankruptcy[playerIndex])
+                bankruptPlayer(playerIndex);
+            transferCash(playerIndex, gameState.cash[playerIndex], creditorIndex);
+            return;
+        }
+
+        // Give player a chance to make up the funds
+        frames.push(game -> game.cannotPay(playerIndex, amount, creditorIndex, actionsRemaining - 1));
+        signalTurn(4, playerIndex, () -> "You need to make up the funds to pay $" + amount + ".\nYou have " + actionsRemaining + " actions remaining.");
 
     }
 
@@ -1084,48 +1365,59 @@ public class Game implements OutputsWarnings {
 
         // We reference the results of the last dice roll for Utilities' sake.
         // Teleporting to a Utility via a Card means the distance traveled is irrelevant, so we must reference the dice roll itself.
-        int rentCost = (int)(property.calculateRent(this.getGameState(), lastDiceRoll.result()) * rentMultiplier);
-        incrementCash(playerIndex, -rentCost);
-        incrementCash(renterIndex, rentCost);
+        int rentCost = (int)(property.calculateRent(gameState, lastDiceRoll.result()) * rentMultiplier);
+        chargeCash(playerIndex, rentCost, renterIndex);
+        if (verbose)
+            EngineLog.log(LOG_EVENT.RENT, id, playerIndex, rentCost, renterIndex);
 
     }
 
     /**
      * Increment Player's cash by a given amount.
-     * This amount can be negative, but this will be handled by a sub-function decrementCash().
-     * TODO: Incorporate return value where used
+     * Negative amounts are charged to the bank via chargeCash().
      * @param playerIndex Player index / ID.
      * @param amount Amount of cash to give / remove from the Player. Can be negative.
-     * @return Success (t/f). Will always be true for positive values.
      */
-    private boolean incrementCash(int playerIndex, int amount) {
+    private void incrementCash(int playerIndex, int amount) {
 
-        // If negative amount, delegate task to decrementCash() instead
-        if (amount < 0)
-            return decrementCash(playerIndex, -amount);
+        // If negative amount, delegate task to chargeCash() instead
+        if (amount < 0) {
+            chargeCash(playerIndex, -amount, -1);
+            return;
+        }
 
         // If positive amount...
-        gameState.cash[playerIndex] += amount;
-        return true;
+        gameState.setCash(playerIndex, gameState.cash[playerIndex] + amount);
 
     }
 
     /**
-     * Decrement Player's cash by a given amount.
-     * This is a sub-function of incrementCash(). Don't call this in the wild.
+     * Charge a Player a given amount, paid to another Player or the bank.
+     * <br>If the Player can't afford it, the charge is deferred to the cannotPay() procedure, which runs once the caller
+     * ... returns to the state machine. Callers must therefore not rely on the charge having been paid.
      * @param playerIndex Player index / ID.
      * @param amount Amount of cash to remove from the player. Always positive.
-     * @return True if paid successfully, false if Player entered bankruptcy procedure.
+     * @param creditorIndex Player being paid, -1 for the bank.
      */
-    private boolean decrementCash(int playerIndex, int amount) {
+    private void chargeCash(int playerIndex, int amount, int creditorIndex) {
+
+        if (amount > gameState.cash[playerIndex]) {
+            frames.push(game -> game.cannotPay(playerIndex, amount, creditorIndex, MAX_ACTIONS));  // Proceed w/ charge resolving procedure
+            return;
+        }
 
-        int playerCash = gameState.cash[playerIndex];
-        if (amount > playerCash)
-            return cannotPay(playerIndex, amount);  // Proceed w/ charge resolving procedure. Returns false if Player bankrupted.
+        transferCash(playerIndex, amount, creditorIndex);
 
-        gameState.cash[playerIndex] -= amount;  // Remember `amount` is positive.
-        return true;
+    }
 
+    /**
+     * Move cash the Player is known to have to another Player, or to the bank.
+     * Bankrupt creditors are paid nothing; the cash goes to the bank instead.
+     */
+    private void transferCash(int playerIndex, int amount, int creditorIndex) {
+        gameState.setCash(playerIndex, gameState.cash[playerIndex] - amount);  // Remember `amount` is positive.
+        if (creditorIndex != -1 && !gameState.playerBankruptcy[creditorIndex])
+            gameState.setCash(creditorIndex, gameState.cash[creditorIndex] + amount);
     }
 
     /**
@@ -1134,11 +1426,11 @@ public class Game implements OutputsWarnings {
      * @param jailIndex Board position of the Jail space.
      */
     private void jailPlayer(int playerIndex, int jailIndex) {
-        gameState.jailedPlayers[playerIndex] = true;
-        gameState.playerLocations[playerIndex] = jailIndex;
+        gameState.setJailed(playerIndex, true);
+        gameState.setLocation(playerIndex, jailIndex);
     }
     private void jailPlayer(int playerIndex) {
-        jailPlayer(playerIndex, Board.indexOf("Jail"));
+        jailPlayer(playerIndex, BoardIndex.JAIL);
     }
 
     /**
@@ -1148,9 +1440,9 @@ public class Game implements OutputsWarnings {
     private void freePlayer(int playerIndex, int context) {
         switch (context) {
             case 1 -> incrementCash(playerIndex, -Property.BAIL_AMOUNT);
-            case 2 -> gameState.gtfoJailCards[playerIndex]--;
+            case 2 -> gameState.setGtfoJailCards(playerIndex, gameState.gtfoJailCards[playerIndex] - 1);
         }
-        gameState.jailedPlayers[playerIndex] = false;
+        gameState.setJailed(playerIndex, false);
     }
 
     /**
@@ -1162,64 +1454,53 @@ public class Game implements OutputsWarnings {
      * @param playerIndex Player index / ID.
      */
     private void bankruptPlayer(int playerIndex) {  // TODO: Bugs
-        gameState.playerBankruptcy[playerIndex] = true;
-        for (int i = 0; i < gameState.numPlayers; i++) {
-            if (gameState.ownership[i] == playerIndex) {
-                gameState.ownership[i] = -1;
-                gameState.mortgages[i] = false;
-                gameState.houses[i] = 0;
-            }
+        gameState.setBankrupt(playerIndex, true);
+        // Return every owned Property to the bank, walking the set bits of the Player's ownership mask
+        for (long owned = gameState.ownershipMasks[playerIndex]; owned != 0; owned &= owned - 1) {
+            int i = Long.numberOfTrailingZeros(owned);
+            gameState.setOwner(i, -1);
+            gameState.setMortgaged(i, false);
+            gameState.setHouses(i, 0);
         }
-        players[playerIndex].output(playerUUIDs[playerIndex], players[playerIndex].getName() + " bankrupted!!");
+        if (verbose)
+            EngineLog.log(LOG_EVENT.BANKRUPTCY, id, playerIndex, 0, 0);
+        if (players[playerIndex].wantsPrompts())
+            players[playerIndex].output(playerUUIDs[playerIndex], players[playerIndex].getName() + " bankrupted!!");
     }
 
     ////////////////////////////////////////
 
     /**
      * @param execFlowCode Indicator of when in the game logic the function is called.
-     *                     Case -1 (or any invalid case) is used to simply return `currentLegalActions`.
-     * @param nixedActions Set of actions specified by the caller to be illegal regardless.
-     * @return An array of legal actions for a given point in execution.
-     */
-    private Set<GameAction> generateLegalActions(int execFlowCode, Set<GameAction> nixedActions) {
-
-        Set<GameAction> legalActions;
-
-        // Grab defaults from case code
-        switch (execFlowCode) {
-            // Case 0 is used for beginning-of-turn actions. The player must be not in Jail.
-            case 0 -> legalActions = new HashSet<>(List.of(GameAction.START_ACTIONS));
-            // Case 1 is used for landing on a Property.
-            case 1 -> legalActions = new HashSet<>(List.of(GameAction.PROPERTY_BUY_OR_AUCTION));
-            // Case 2 is used for end-of-turn actions e.g. building houses, mortgaging, trading.
-                // Note for later: do we want TRADE_ACCEPT and TRADE_REJECT included in case 2? Atm I say no.
-            case 2 -> legalActions = new HashSet<>(List.of(GameAction.END_ACTIONS));
-            // Case 3 is used for beginning a turn in Jail.
-            case 3 -> legalActions = new HashSet<>(List.of(GameAction.JAIL_ACTIONS));
-            // Case 4 is used for making up funds when unable to pay.
-            case 4 -> legalActions = new HashSet<>(List.of(GameAction.SELL_ACTIONS));
-            // Case 5 is used for the auction sub-routine.
-            case 5 -> legalActions = new HashSet<>(List.of(GameAction.AUCTION_BID));
-            // Case 6 is used for exiting Jail by force.
-            case 6 -> legalActions = new HashSet<>(List.of(GameAction.JAIL_PAY_BAIL, GameAction.JAIL_USE_CARD));
-            // Case 7 is used for forcing a move.
-            case 7 -> legalActions = new HashSet<>(List.of(GameAction.MOVE_THROW_DICE));
-            // Case 8 is used for responding to trades.
-            case 8 -> legalActions = new HashSet<>(List.of(GameAction.TRADE_RESPOND));
-            // Default case (e.g. -1) will simply return `currentLegalActions`.
-            default -> legalActions = new HashSet<>(currentLegalActions);
-        }
-
-        // Cull nixed actions
-        legalActions.removeAll(nixedActions);
-
-        return legalActions;
-
+     *                     Case -1 (or any invalid case) is used to simply return `currentLegalMask`.
+     *                     <br>Case 0 is used for beginning-of-turn actions. The player must be not in Jail.
+     *                     <br>Case 1 is used for landing on a Property.
+     *                     <br>Case 2 is used for end-of-turn actions e.g. building houses, mortgaging, trading.
+     *                     <br>Case 3 is used for beginning a turn in Jail.
+     *                     <br>Case 4 is used for making up funds when unable to pay.
+     *                     <br>Case 5 is used for the auction sub-routine.
+     *                     <br>Case 6 is used for exiting Jail by force.
+     *                     <br>Case 7 is used for forcing a move.
+     *                     <br>Case 8 is used for responding to trades.
+     * @param nixedActions Action mask of actions specified by the caller to be illegal regardless.
+     * @return Action mask of legal actions for a given point in execution.
+     */
+    private int generateLegalActions(int execFlowCode, int nixedActions) {
+        // Note for later: do we want TRADE_ACCEPT and TRADE_REJECT included in case 2? Atm I say no.
+        int legalActions = (execFlowCode >= 0 && execFlowCode < LEGAL_ACTION_MASKS.length)
+                ? LEGAL_ACTION_MASKS[execFlowCode]
+                : currentLegalMask;
+        return legalActions & ~nixedActions;
     }
 
-    // Below called when no nix-able actions provided.
-    private Set<GameAction> generateLegalActions(int execFlowCode) {
-        return generateLegalActions(execFlowCode, new HashSet<>());
+    /**
+     * @return Unmodifiable Set of the actions in `legalMask`. Reuses the shared template Set when there is one.
+     */
+    private Set<GameAction> legalActionSet(int legalMask) {
+        if (legalMask == currentLegalMask) return currentLegalActions;
+        for (int i = 0; i < LEGAL_ACTION_MASKS.length; i++)
+            if (LEGAL_ACTION_MASKS[i] == legalMask) return LEGAL_ACTION_SETS.get(i);
+        return GameAction.setOf(legalMask);  // Only reached when the caller nixed actions
     }
 
     /**
@@ -1260,15 +1541,202 @@ public class Game implements OutputsWarnings {
     ////////////////////////////////////////
 
     /**
-     * @return A *copy* of the Game State object.
-     * We return a copy because GameState is highly mutable.
+     * @return A snapshot of the Game State object: a deep copy, tagged with the current version.
+     * We return a copy because GameState is highly mutable. The copy is only made once per version
+     * ... and is shared by every caller until the Game moves on, so it must be treated as read-only.
+     * <br>Safe to call from other threads (e.g. the GUI), which may compare versions first to skip unchanged states.
+     */
+    public synchronized GameState getGameState() {
+        GameState snapshot = this.snapshot;
+        if (snapshot == null || snapshot.getVersion() != version) {
+            snapshot = new GameState(gameState, version);
+            this.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return The live GameState, without copying it. Only for whoever drives the Game (e.g. a search on its own copy()):
+     * ... it changes with every step, so it must not be modified, kept, or read from another thread.
+     */
+    public GameState peekGameState() {
+        return gameState;
+    }
+
+    /**
+     * Copy the Game at its pending decision, for search.
+     * <br>The copy has the same state and pending decision, but its dice and card decks draw from a fresh stream seeded by `seed`,
+     * ... so searching it never peeks at this Game's future rolls and draws.
+     * Its Players have no Judges and it logs nothing, so it's meant to be driven with step() only.
+     * @param seed Seed of the copy's dice and card decks.
+     */
+    public synchronized Game copy(long seed) {
+        return new Game(this, seed);
+    }
+
+    /**
+     * @return Current version of the Game, bumped every time its state may have changed.
+     * Cheaper than getGameState() for checking whether anything changed since the last snapshot.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The Game's dice. Use `seekRoll()` to jump straight to a given roll of the Game.
+     */
+    public Dice getDice() {
+        return dice;
+    }
+
+    /**
+     * @return Number of Player turns processed so far.
+     */
+    public long getTurnCount() {
+        return turnCount;
+    }
+
+    /**
+     * @return Number of decisions Players have been signaled for so far.
      */
-    public GameState getGameState() {
-        return new GameState(gameState);
+    public long getDecisionCount() {
+        return decisionCount;
+    }
+
+    /**
+     * @return Index / ID of the Player who has to decide next, -1 if the Game is over.
+     */
+    public int getDecisionPlayer() {
+        return decisionPlayer;
+    }
+
+    /**
+     * @return Exec-flow code of the pending decision (see generateLegalActions()), -1 if the Game is over.
+     */
+    public int getDecisionCode() {
+        return decisionCode;
+    }
+
+    /**
+     * @return Unmodifiable Set of the actions legal at the pending decision.
+     */
+    public Set<GameAction> getLegalActions() {
+        return currentLegalActions;
+    }
+
+    /**
+     * @return Action mask (see GameAction.mask()) of the actions legal at the pending decision.
+     */
+    public int getLegalActionMask() {
+        return currentLegalMask;
+    }
+
+    /**
+     * @return Prompt of the pending decision.
+     */
+    public String getPrompt() {
+        return decisionPrompt.get();
     }
 
     public void warn(int code) {  // TODO: Update warn() (and add more uses)
-        System.err.println("Warning called for Game id=" + id + ", CODE " + code + " || " + Calendar.getInstance());
+        EngineLog.log(LOG_EVENT.WARN, id, -1, code, 0);
+    }
+
+    // Make / unmake ///////////////////////////////
+
+    /**
+     * Mark the current state, so that the Game can be rolled back to it with rollbackTo(), e.g. to try an action and take it back during search.
+     * <br>From the first mark on, every change to the GameState, card decks and dice is recorded in an undo journal,
+     * ... so rolling back costs O(changes since the mark) rather than a full copy. Call releaseMarks() to stop journaling.
+     * @return ID of the mark. Marks nest: rolling back to a mark drops every mark made after it.
+     */
+    public synchronized int mark() {
+        if (journal == null)
+            journal = new UndoJournal();
+        if (marks.isEmpty()) {
+            gameState.setJournal(journal);
+            dice.journal = journal;
+        }
+        marks.add(new Checkpoint(journal.size(), frames.toArray(new Frame[0]), gameOverFlag, endTurnFlag, currentTurn,
+                turnCount, decisionCount, currentLegalMask, currentLegalActions, currentTrade, decisionPlayer, decisionCode,
+                decisionPrompt, decisionSignals, lastDiceRoll));
+        return marks.size() - 1;
+    }
+
+    /**
+     * Undo everything that happened since a mark, leaving the Game exactly as it was when the mark was made
+     * ... (pending decision included), and the mark still in place to roll back to again.
+     * <br>The version is still bumped, so snapshots taken since the mark are never mistaken for the current state.
+     * @param mark ID of the mark, from mark().
+     */
+    public synchronized void rollbackTo(int mark) {
+
+        Checkpoint checkpoint = marks.get(mark);
+        journal.rollbackTo(checkpoint.journalSize(), gameState, dice);
+        marks.subList(mark + 1, marks.size()).clear();
+
+        frames.clear();
+        Collections.addAll(frames, checkpoint.frames());
+        gameOverFlag = checkpoint.gameOverFlag();
+        endTurnFlag = checkpoint.endTurnFlag();
+        currentTurn = checkpoint.currentTurn();
+        turnCount = checkpoint.turnCount();
+        decisionCount = checkpoint.decisionCount();
+        currentLegalMask = checkpoint.legalMask();
+        currentLegalActions = checkpoint.legalActions();
+        currentTrade = checkpoint.trade();
+        decisionPlayer = checkpoint.decisionPlayer();
+        decisionCode = checkpoint.decisionCode();
+        decisionPrompt = checkpoint.decisionPrompt();
+        decisionSignals = checkpoint.decisionSignals();
+        lastDiceRoll = checkpoint.lastDiceRoll();
+        version++;
+
+    }
+
+    /**
+     * Jump the dice and both card decks to a position of their streams, e.g. a random one, so that every roll and draw
+     * ... from here on is a fresh sample. Search calls this after each rollback, which would otherwise replay the same rolls.
+     * Journaled like any other change.
+     */
+    public synchronized void seekChance(long position) {
+        dice.seek(position);
+        gameState.chance.seek(position);
+        gameState.communityChest.seek(position);
+    }
+
+    /**
+     * Drop every mark, keeping the current state, and stop journaling.
+     */
+    public synchronized void releaseMarks() {
+        marks.clear();
+        if (journal != null)
+            journal.clear();
+        gameState.setJournal(null);
+        dice.journal = null;
+    }
+
+    /**
+     * Engine state of the Game at a mark. The GameState itself is restored by the journal instead.
+     */
+    private record Checkpoint(int journalSize, Frame[] frames, boolean gameOverFlag, boolean endTurnFlag, int currentTurn,
+                              long turnCount, long decisionCount, int legalMask, Set<GameAction> legalActions, Trade trade,
+                              int decisionPlayer, int decisionCode, Supplier<String> decisionPrompt, int decisionSignals,
+                              Dice lastDiceRoll) {}
+
+    ////////////////////////////////////////
+
+    /**
+     * A piece of engine work left to do once a decision has been made, e.g. the rest of a turn or the next bid of an auction.
+     * <br>Frames must not capture the Game they're pushed by; they receive it as `game` when resumed instead.
+     */
+    @FunctionalInterface
+    private interface Frame {
+        void resume(Game game);
     }
 
-}
\ No newline at end of file
+}
@@ -1,5 +1,9 @@
 package gameobjects;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Enum class representing all possible Player actions in a standard game of Monopoly.
  * Includes groups of actions used in frequently-occurring contexts.
@@ -26,4 +30,33 @@ public enum GameAction {
     public static final GameAction[] JAIL_ACTIONS = new GameAction[]{JAIL_THROW_DICE, JAIL_PAY_BAIL, JAIL_USE_CARD};
     public static final GameAction[] SELL_ACTIONS = new GameAction[]{TRADE_OFFER, TRADE_RESPOND, PROPERTY_MORTGAGE, HOUSE_SELL, DECLARE_BANKRUPTCY};
 
+    private final int mask = 1 << ordinal();
+
+    /**
+     * @return This action's bit in an action mask. Every GameAction has its own bit, so a set of actions fits in an int.
+     */
+    public int mask() {
+        return mask;
+    }
+
+    /**
+     * @return Action mask with the bit of every given action set.
+     */
+    public static int maskOf(GameAction... actions) {
+        int mask = 0;
+        for (GameAction action : actions)
+            mask |= action.mask;
+        return mask;
+    }
+
+    /**
+     * @return Unmodifiable Set of the actions whose bits are set in `mask`.
+     */
+    public static Set<GameAction> setOf(int mask) {
+        EnumSet<GameAction> actions = EnumSet.noneOf(GameAction.class);
+        for (GameAction action : values())
+            if ((mask & action.mask) != 0) actions.add(action);
+        return Collections.unmodifiableSet(actions);
+    }
+
 }
\ No newline at end of file
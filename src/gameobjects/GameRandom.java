@@ -0,0 +1,118 @@
+package gameobjects;
+
+/**
+ * Fast, non-cryptographic, seedable random number stream used for all game randomness (dice, cards, agents).
+ * <br>Counter-based: the n-th value of a stream is SplitMix64's finalizer applied to `seed + n * GAMMA`,
+ * ... so a stream can be replayed exactly from its seed, or jumped to any position in O(1) via seek().
+ * <br>Independent sub-streams are derived with split(), e.g. one per dice, card deck, and seat.
+ * Instances are NOT thread-safe; each Game owns its own streams.
+ */
+public class GameRandom {
+
+    // Sub-stream IDs of a Game's root stream
+    public static final long DICE_STREAM = 0;
+    public static final long CHANCE_STREAM = 1;
+    public static final long COMMUNITY_CHEST_STREAM = 2;
+    public static final long SEAT_STREAM_OFFSET = 16;  // Seat `i` uses stream SEAT_STREAM_OFFSET + i
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private long position = 0;
+
+    public GameRandom(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Copy a stream, including its position. The copy and the original then draw the same values independently.
+     */
+    public GameRandom(GameRandom original) {
+        this.seed = original.seed;
+        this.position = original.position;
+    }
+
+    /**
+     * @return A GameRandom seeded from the system clock, for when reproducibility doesn't matter.
+     */
+    public static GameRandom fromEntropy() {
+        return new GameRandom(mix64(System.nanoTime() ^ Thread.currentThread().getId() * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Derive the seed of game number `gameIndex` of a run, so any single game of a run can be replayed on its own.
+     * @param masterSeed Seed of the whole run.
+     * @param gameIndex Index of the game within the run.
+     */
+    public static long gameSeed(long masterSeed, long gameIndex) {
+        return mix64(masterSeed + mix64(gameIndex * GOLDEN_GAMMA + GOLDEN_GAMMA));
+    }
+
+    /**
+     * @return Next uniformly-distributed 64-bit value.
+     */
+    public long nextLong() {
+        return mix64(seed + (++position) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Returns a value in [0, bound) using exactly one draw, so every call advances the stream by one position.
+     * The bias from the multiply-shift reduction is below 2^-32 for any bound that fits in an int.
+     * @param bound Exclusive upper bound. Must be positive.
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * @return Value in [origin, bound).
+     */
+    public int nextInt(int origin, int bound) {
+        return origin + nextInt(bound - origin);
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * @return Value in [0, 1).
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Derive an independent stream from this one. Does not advance this stream.
+     * @param streamId ID of the sub-stream, e.g. DICE_STREAM.
+     */
+    public GameRandom split(long streamId) {
+        return new GameRandom(mix64(seed ^ mix64((streamId + 1) * GOLDEN_GAMMA)));
+    }
+
+    /**
+     * @return Number of values drawn from this stream so far.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Jump to a given position, as if exactly `position` values had been drawn.
+     */
+    public void seek(long position) {
+        this.position = position;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // SplitMix64 finalizer
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
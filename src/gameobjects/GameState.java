@@ -1,11 +1,11 @@
 package gameobjects;
 
-import java.lang.reflect.Field;
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * Contains the complete state of a Game to be easily consumed by Agents.
+ * <br>The GameStates handed out by Game.getGameState() are snapshots: deep copies tagged with the Game's version,
+ * ... shared by every reader of that version. Treat them as read-only.
  */
 public class GameState {
 
@@ -16,11 +16,16 @@ public class GameState {
     public static final int STARTING_HOUSES = 32;
     public static final int STARTING_HOTELS = 12;
 
+    /**
+     * Bitmask of each color set's squares (bit `i` set for square `i`), indexed by COLOR_SET ordinal.
+     */
+    public static final long[] COLOR_SET_MASKS = computeColorSetMasks();
+
     public final int numPlayers;
 
     public int turnIndicator;
     public final boolean[] mortgages;
-    public final int[] ownership;
+    public final int[] ownership;  // Owner index per square, or -1. Write through setOwner() only.
     public final int[] cash;
     public final int[] houses;  // '5 houses' will equal a hotel
     public final int[] playerLocations;
@@ -30,7 +35,10 @@ public class GameState {
     public final int[] gtfoJailCards;
     public final boolean[] playerBankruptcy;
 
-    public int[] auctionBids;
+    // Per-player ownership bitboards (bit `i` set if the player owns square `i`), kept in sync with `ownership` by setOwner().
+    public final long[] ownershipMasks;
+
+    public final int[] auctionBids;
     public int biddingProperty;
 
     public int remainingHouses;
@@ -39,6 +47,14 @@ public class GameState {
     public final CardStack chance;
     public final CardStack communityChest;
 
+    private long version = 0;  // Version of the Game this is a snapshot of, 0 for live / manually constructed GameStates
+
+    UndoJournal journal = null;  // Journal of the owning Game while it is marked (see Game.mark()). Never copied. Detached during rollbacks.
+
+    // XOR of the Zobrist keys of every feature but the decks'. Computed on first use, then kept up to date by the setters.
+    private long zobristHash = 0;
+    private boolean hashed = false;
+
     // Called when constructing a GameState manually.
     public GameState(int numPlayers, int turnIndicator, boolean[] mortgages, int[] ownership, int[] cash, int[] houses, int[] playerLocations, int[] timesRolled, boolean[] jailedPlayers, int[] turnsInJail, int[] gtfoJailCards, boolean[] playerBankruptcy, int[] auctionBids, int biddingProperty, int remainingHouses, int remainingHotels, CardStack chance, CardStack communityChest) {
         this.numPlayers = numPlayers;
@@ -59,17 +75,38 @@ public class GameState {
         this.remainingHotels = remainingHotels;
         this.chance = chance;
         this.communityChest = communityChest;
+        this.ownershipMasks = computeOwnershipMasks(numPlayers, ownership);
     }
 
     // Called when constructing a new / starting GameState.
-    public GameState(int numPlayers) {
-        this(numPlayers, -1, new boolean[Board.SQUARES.size()], new int[Board.SQUARES.size()], new int[numPlayers], new int[Board.SQUARES.size()], new int[numPlayers], new int[numPlayers], new boolean[numPlayers], new int[numPlayers], new int[numPlayers], new boolean[numPlayers], new int[numPlayers], 0, STARTING_HOUSES, STARTING_HOTELS, new CardStack(CardStack.CHANCE_DEFAULT), new CardStack(CardStack.COMMUNITY_DEFAULT));
+    // The card decks draw from their own sub-streams of `random`.
+    public GameState(int numPlayers, GameRandom random) {
+        this(numPlayers, -1, new boolean[Board.SQUARES.size()], new int[Board.SQUARES.size()], new int[numPlayers], new int[Board.SQUARES.size()], new int[numPlayers], new int[numPlayers], new boolean[numPlayers], new int[numPlayers], new int[numPlayers], new boolean[numPlayers], new int[numPlayers], 0, STARTING_HOUSES, STARTING_HOTELS, new CardStack(CardStack.CHANCE_DEFAULT, random.split(GameRandom.CHANCE_STREAM)), new CardStack(CardStack.COMMUNITY_DEFAULT, random.split(GameRandom.COMMUNITY_CHEST_STREAM)));
         initializeStartingValues();
     }
+    public GameState(int numPlayers) {
+        this(numPlayers, GameRandom.fromEntropy());
+    }
 
-    // Called when cloning a GameState.
+    // Called when cloning a GameState. The clone shares nothing with the original; its card decks draw from fresh streams.
     public GameState(GameState original) {
-        this(original.numPlayers, original.turnIndicator, original.mortgages, original.ownership, original.cash, original.houses, original.playerLocations, original.timesRolled, original.jailedPlayers, original.turnsInJail, original.gtfoJailCards, original.playerBankruptcy, original.auctionBids, original.biddingProperty, original.remainingHouses, original.remainingHotels, original.chance, original.communityChest);
+        this(original.numPlayers, original.turnIndicator, original.mortgages.clone(), original.ownership.clone(), original.cash.clone(), original.houses.clone(), original.playerLocations.clone(), original.timesRolled.clone(), original.jailedPlayers.clone(), original.turnsInJail.clone(), original.gtfoJailCards.clone(), original.playerBankruptcy.clone(), original.auctionBids.clone(), original.biddingProperty, original.remainingHouses, original.remainingHotels, new CardStack(original.chance), new CardStack(original.communityChest));
+        this.version = original.version;
+        this.zobristHash = original.zobristHash;
+        this.hashed = original.hashed;
+    }
+
+    // Called when cloning a GameState for search: the card decks of the clone draw from their own sub-streams of `random`.
+    public GameState(GameState original, GameRandom random) {
+        this(original.numPlayers, original.turnIndicator, original.mortgages.clone(), original.ownership.clone(), original.cash.clone(), original.houses.clone(), original.playerLocations.clone(), original.timesRolled.clone(), original.jailedPlayers.clone(), original.turnsInJail.clone(), original.gtfoJailCards.clone(), original.playerBankruptcy.clone(), original.auctionBids.clone(), original.biddingProperty, original.remainingHouses, original.remainingHotels, new CardStack(original.chance, random.split(GameRandom.CHANCE_STREAM)), new CardStack(original.communityChest, random.split(GameRandom.COMMUNITY_CHEST_STREAM)));
+        this.zobristHash = original.zobristHash;
+        this.hashed = original.hashed;
+    }
+
+    // Called when taking a snapshot of a live GameState.
+    GameState(GameState original, long version) {
+        this(original);
+        this.version = version;
     }
 
     /**
@@ -79,6 +116,203 @@ public class GameState {
     private void initializeStartingValues() {
         Arrays.fill(this.cash, STARTING_CASH);
         Arrays.fill(this.ownership, -1);
+        Arrays.fill(this.ownershipMasks, 0);
+    }
+
+    private static long[] computeColorSetMasks() {
+        long[] masks = new long[COLOR_SET.values().length];
+        for (int i = 0; i < Board.SQUARES.size(); i++)
+            masks[Board.SQUARES.get(i).color.ordinal()] |= (1L << i);
+        return masks;
+    }
+
+    /**
+     * @return Zobrist hash of the current values of every feature but the decks', from scratch.
+     */
+    private long computeZobristHash() {
+        long hash = Zobrist.key(Zobrist.TURN_INDICATOR, 0, turnIndicator) ^ Zobrist.key(Zobrist.BIDDING_PROPERTY, 0, biddingProperty);
+        for (int i = 0; i < numPlayers; i++) {
+            hash ^= Zobrist.key(Zobrist.LOCATION, i, playerLocations[i]);
+            hash ^= Zobrist.cashKey(i, cash[i]);
+            hash ^= Zobrist.key(Zobrist.TIMES_ROLLED, i, timesRolled[i]);
+            hash ^= Zobrist.key(Zobrist.JAILED, i, jailedPlayers[i]);
+            hash ^= Zobrist.key(Zobrist.TURNS_IN_JAIL, i, turnsInJail[i]);
+            hash ^= Zobrist.key(Zobrist.GTFO_JAIL_CARDS, i, gtfoJailCards[i]);
+            hash ^= Zobrist.key(Zobrist.BANKRUPTCY, i, playerBankruptcy[i]);
+        }
+        for (int square = 0; square < ownership.length; square++) {
+            hash ^= Zobrist.key(Zobrist.OWNER, square, ownership[square]);
+            hash ^= Zobrist.key(Zobrist.HOUSES, square, houses[square]);
+            hash ^= Zobrist.key(Zobrist.MORTGAGE, square, mortgages[square]);
+        }
+        return hash;
+    }
+
+    private static long[] computeOwnershipMasks(int numPlayers, int[] ownership) {
+        long[] masks = new long[numPlayers];
+        for (int i = 0; i < ownership.length; i++) {
+            if (ownership[i] != -1)
+                masks[ownership[i]] |= (1L << i);
+        }
+        return masks;
+    }
+
+    /**
+     * Change the owner of a Property, keeping `ownershipMasks` in sync.
+     * All ownership changes (purchase, auction, trade, bankruptcy) must go through here.
+     * @param propertyIndex Index of the Property.
+     * @param playerIndex Index of the new owner, or -1 to return the Property to the bank.
+     */
+    public void setOwner(int propertyIndex, int playerIndex) {
+        if (journal != null)
+            journal.record(UndoJournal.OWNER, propertyIndex, ownership[propertyIndex]);
+        restoreOwner(propertyIndex, playerIndex);
+    }
+
+    /**
+     * setOwner() without journaling, for undoing journaled changes.
+     */
+    void restoreOwner(int propertyIndex, int playerIndex) {
+        int previousOwner = ownership[propertyIndex];
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.OWNER, propertyIndex, previousOwner) ^ Zobrist.key(Zobrist.OWNER, propertyIndex, playerIndex);
+        if (previousOwner != -1)
+            ownershipMasks[previousOwner] &= ~(1L << propertyIndex);
+        if (playerIndex != -1)
+            ownershipMasks[playerIndex] |= (1L << propertyIndex);
+        ownership[propertyIndex] = playerIndex;
+    }
+
+    // Journaled setters ////////////////////////////
+    // The Game writes its live GameState through these, so that every change can be undone while it is marked,
+    // ... and so that they keep the Zobrist hash up to date.
+
+    /**
+     * Attach the journal every change is recorded in from now on, or detach it with null. The card decks record their draws too.
+     */
+    void setJournal(UndoJournal journal) {
+        this.journal = journal;
+        chance.journal = journal;
+        chance.journalCode = UndoJournal.CHANCE_DRAW;
+        chance.seekJournalCode = UndoJournal.CHANCE_SEEK;
+        communityChest.journal = journal;
+        communityChest.journalCode = UndoJournal.COMMUNITY_CHEST_DRAW;
+        communityChest.seekJournalCode = UndoJournal.COMMUNITY_CHEST_SEEK;
+    }
+
+    void setTurnIndicator(int turnIndicator) {
+        if (journal != null)
+            journal.record(UndoJournal.TURN_INDICATOR, 0, this.turnIndicator);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.TURN_INDICATOR, 0, this.turnIndicator) ^ Zobrist.key(Zobrist.TURN_INDICATOR, 0, turnIndicator);
+        this.turnIndicator = turnIndicator;
+    }
+
+    void setBiddingProperty(int biddingProperty) {
+        if (journal != null)
+            journal.record(UndoJournal.BIDDING_PROPERTY, 0, this.biddingProperty);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.BIDDING_PROPERTY, 0, this.biddingProperty) ^ Zobrist.key(Zobrist.BIDDING_PROPERTY, 0, biddingProperty);
+        this.biddingProperty = biddingProperty;
+    }
+
+    void setRemainingHouses(int remainingHouses) {
+        if (journal != null)
+            journal.record(UndoJournal.REMAINING_HOUSES, 0, this.remainingHouses);
+        this.remainingHouses = remainingHouses;
+    }
+
+    void setRemainingHotels(int remainingHotels) {
+        if (journal != null)
+            journal.record(UndoJournal.REMAINING_HOTELS, 0, this.remainingHotels);
+        this.remainingHotels = remainingHotels;
+    }
+
+    void setMortgaged(int propertyIndex, boolean value) {
+        if (journal != null)
+            journal.record(UndoJournal.MORTGAGE, propertyIndex, mortgages[propertyIndex] ? 1 : 0);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.MORTGAGE, propertyIndex, mortgages[propertyIndex]) ^ Zobrist.key(Zobrist.MORTGAGE, propertyIndex, value);
+        mortgages[propertyIndex] = value;
+    }
+
+    void setCash(int playerIndex, int value) {
+        if (journal != null)
+            journal.record(UndoJournal.CASH, playerIndex, cash[playerIndex]);
+        if (hashed)
+            zobristHash ^= Zobrist.cashKey(playerIndex, cash[playerIndex]) ^ Zobrist.cashKey(playerIndex, value);
+        cash[playerIndex] = value;
+    }
+
+    void setHouses(int propertyIndex, int value) {
+        if (journal != null)
+            journal.record(UndoJournal.HOUSES, propertyIndex, houses[propertyIndex]);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.HOUSES, propertyIndex, houses[propertyIndex]) ^ Zobrist.key(Zobrist.HOUSES, propertyIndex, value);
+        houses[propertyIndex] = value;
+    }
+
+    void setLocation(int playerIndex, int value) {
+        if (journal != null)
+            journal.record(UndoJournal.LOCATION, playerIndex, playerLocations[playerIndex]);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.LOCATION, playerIndex, playerLocations[playerIndex]) ^ Zobrist.key(Zobrist.LOCATION, playerIndex, value);
+        playerLocations[playerIndex] = value;
+    }
+
+    void setTimesRolled(int playerIndex, int value) {
+        if (journal != null)
+            journal.record(UndoJournal.TIMES_ROLLED, playerIndex, timesRolled[playerIndex]);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.TIMES_ROLLED, playerIndex, timesRolled[playerIndex]) ^ Zobrist.key(Zobrist.TIMES_ROLLED, playerIndex, value);
+        timesRolled[playerIndex] = value;
+    }
+
+    void setJailed(int playerIndex, boolean value) {
+        if (journal != null)
+            journal.record(UndoJournal.JAILED, playerIndex, jailedPlayers[playerIndex] ? 1 : 0);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.JAILED, playerIndex, jailedPlayers[playerIndex]) ^ Zobrist.key(Zobrist.JAILED, playerIndex, value);
+        jailedPlayers[playerIndex] = value;
+    }
+
+    void setTurnsInJail(int playerIndex, int value) {
+        if (journal != null)
+            journal.record(UndoJournal.TURNS_IN_JAIL, playerIndex, turnsInJail[playerIndex]);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.TURNS_IN_JAIL, playerIndex, turnsInJail[playerIndex]) ^ Zobrist.key(Zobrist.TURNS_IN_JAIL, playerIndex, value);
+        turnsInJail[playerIndex] = value;
+    }
+
+    void setGtfoJailCards(int playerIndex, int value) {
+        if (journal != null)
+            journal.record(UndoJournal.GTFO_JAIL_CARDS, playerIndex, gtfoJailCards[playerIndex]);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.GTFO_JAIL_CARDS, playerIndex, gtfoJailCards[playerIndex]) ^ Zobrist.key(Zobrist.GTFO_JAIL_CARDS, playerIndex, value);
+        gtfoJailCards[playerIndex] = value;
+    }
+
+    void setBankrupt(int playerIndex, boolean value) {
+        if (journal != null)
+            journal.record(UndoJournal.BANKRUPTCY, playerIndex, playerBankruptcy[playerIndex] ? 1 : 0);
+        if (hashed)
+            zobristHash ^= Zobrist.key(Zobrist.BANKRUPTCY, playerIndex, playerBankruptcy[playerIndex]) ^ Zobrist.key(Zobrist.BANKRUPTCY, playerIndex, value);
+        playerBankruptcy[playerIndex] = value;
+    }
+
+    void setAuctionBid(int playerIndex, int value) {
+        if (journal != null)
+            journal.record(UndoJournal.AUCTION_BID, playerIndex, auctionBids[playerIndex]);
+        auctionBids[playerIndex] = value;
+    }
+
+    ////////////////////////////////////////////////
+
+    /**
+     * @return Number of Properties of a color set owned by a Player.
+     */
+    public int countOwned(int playerIndex, COLOR_SET colorSet) {
+        return Long.bitCount(ownershipMasks[playerIndex] & COLOR_SET_MASKS[colorSet.ordinal()]);
     }
 
     /**
@@ -86,25 +320,23 @@ public class GameState {
      */
     public boolean propertyIsMonopoly(int propertyIndex) {
 
-        if (ownership[propertyIndex] == -1) return false;
+        int owner = ownership[propertyIndex];
+        if (owner == -1) return false;
 
         Property property = Board.SQUARES.get(propertyIndex);
 
         if (property.isFunctionalOnly()) return false;
 
-        List<Integer> sameColorIndexes = Board.getIndexesOfColorSet(property.color);
-
-        boolean monopoly = true;
-        for (int pIndex : sameColorIndexes) {
-            if (propertyIndex == pIndex) continue;
-            if (ownership[pIndex] != ownership[propertyIndex]) {
-                monopoly = false;
-                break;
-            }
-        }
+        long colorSetMask = COLOR_SET_MASKS[property.color.ordinal()];
+        return (ownershipMasks[owner] & colorSetMask) == colorSetMask;
 
-        return monopoly;
+    }
 
+    /**
+     * @return Version of the Game this GameState is a snapshot of. Equal versions of the same Game hold equal state.
+     */
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -117,43 +349,64 @@ public class GameState {
         return maxBid;
     }
 
+    /**
+     * @return 64-bit Zobrist hash of the turn, Player locations, ownership, houses, mortgages, jail state, bankruptcies,
+     * ... cash (in buckets of Zobrist.CASH_BUCKET), the Property up for auction and the card decks' positions.
+     * Equal GameStates have equal hashes. O(1) after the first call, from which on the setters the Game writes through keep it up to date.
+     */
+    public long getZobristHash() {
+        if (!hashed) {
+            zobristHash = computeZobristHash();
+            hashed = true;
+        }
+        return zobristHash ^ Zobrist.key(Zobrist.CHANCE_REMAINING, 0, chance.getNumRemaining()) ^ Zobrist.key(Zobrist.COMMUNITY_CHEST_REMAINING, 0, communityChest.getNumRemaining());
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getZobristHash());
+    }
+
     @Override
     public boolean equals(Object object) {
 
         if (!(object instanceof GameState gs))
             return super.equals(object);
 
-        return (this.turnIndicator == gs.turnIndicator && Arrays.equals(this.mortgages, gs.mortgages) && Arrays.equals(this.ownership, gs.ownership) && Arrays.equals(this.cash, gs.cash) && Arrays.equals(this.houses, gs.houses) && Arrays.equals(this.playerLocations, gs.playerLocations) && Arrays.equals(this.timesRolled, gs.timesRolled) && Arrays.equals(this.jailedPlayers, gs.jailedPlayers) && Arrays.equals(this.gtfoJailCards, gs.gtfoJailCards) && Arrays.equals(this.playerBankruptcy, gs.playerBankruptcy) && Arrays.equals(this.auctionBids, gs.auctionBids) && this.biddingProperty == gs.biddingProperty && this.chance.equals(gs.chance) && this.communityChest.equals(gs.communityChest));
+        if (this.getZobristHash() != gs.getZobristHash())
+            return false;
+
+        return (this.turnIndicator == gs.turnIndicator && Arrays.equals(this.mortgages, gs.mortgages) && Arrays.equals(this.ownership, gs.ownership) && Arrays.equals(this.cash, gs.cash) && Arrays.equals(this.houses, gs.houses) && Arrays.equals(this.playerLocations, gs.playerLocations) && Arrays.equals(this.timesRolled, gs.timesRolled) && Arrays.equals(this.jailedPlayers, gs.jailedPlayers) && Arrays.equals(this.turnsInJail, gs.turnsInJail) && Arrays.equals(this.gtfoJailCards, gs.gtfoJailCards) && Arrays.equals(this.playerBankruptcy, gs.playerBankruptcy) && Arrays.equals(this.auctionBids, gs.auctionBids) && this.biddingProperty == gs.biddingProperty && this.chance.equals(gs.chance) && this.communityChest.equals(gs.communityChest));
 
     }
 
     @Override
     public String toString() {
 
-        StringBuilder str = new StringBuilder();
-        str.append(this.getClass().getName());
-        str.append(" {\n");
-        Field[] fields = this.getClass().getDeclaredFields();
-        for (Field field : fields) {
-            str.append("\t");
-            try {
-                str.append(field.getName());
-                str.append(": ");
-                if (field.get(this) instanceof boolean[])
-                    str.append(Arrays.toString((boolean[]) field.get(this)));
-                else if (field.get(this) instanceof int[])
-                    str.append(Arrays.toString((int[]) field.get(this)));
-                else if (field.get(this) instanceof CardStack)
-
-                str.append(field.get(this));
-            } catch (IllegalAccessException ex) {
-                ex.printStackTrace();
-            }
-            str.append("\n");
-        }
-        str.append("}");
+        StringBuilder str = new StringBuilder(1024);
+        str.append(this.getClass().getName()).append(" {\n");
+        str.append("\tnumPlayers: ").append(numPlayers).append('\n');
+        str.append("\tturnIndicator: ").append(turnIndicator).append('\n');
+        str.append("\tmortgages: ").append(Arrays.toString(mortgages)).append('\n');
+        str.append("\townership: ").append(Arrays.toString(ownership)).append('\n');
+        str.append("\tcash: ").append(Arrays.toString(cash)).append('\n');
+        str.append("\thouses: ").append(Arrays.toString(houses)).append('\n');
+        str.append("\tplayerLocations: ").append(Arrays.toString(playerLocations)).append('\n');
+        str.append("\ttimesRolled: ").append(Arrays.toString(timesRolled)).append('\n');
+        str.append("\tjailedPlayers: ").append(Arrays.toString(jailedPlayers)).append('\n');
+        str.append("\tturnsInJail: ").append(Arrays.toString(turnsInJail)).append('\n');
+        str.append("\tgtfoJailCards: ").append(Arrays.toString(gtfoJailCards)).append('\n');
+        str.append("\tplayerBankruptcy: ").append(Arrays.toString(playerBankruptcy)).append('\n');
+        str.append("\tauctionBids: ").append(Arrays.toString(auctionBids)).append('\n');
+        str.append("\tbiddingProperty: ").append(biddingProperty).append('\n');
+        str.append("\tremainingHouses: ").append(remainingHouses).append('\n');
+        str.append("\tremainingHotels: ").append(remainingHotels).append('\n');
+        str.append("\tchance: ").append(chance).append('\n');
+        str.append("\tcommunityChest: ").append(communityChest).append('\n');
+        str.append("\tversion: ").append(version).append('\n');
+        str.append('}');
         return str.toString();
 
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package gameobjects;
+
+/**
+ * Enum class representing the types of events written to the EngineLog, each with its severity level.
+ * Every event carries a Game ID, a Player index, and two integer arguments, described below.
+ */
+public enum LOG_EVENT {
+
+    ROLL(LOG_LEVEL.INFO),  // (r1, r2) of a dice toss
+    RENT(LOG_LEVEL.INFO),  // (amount, renter index)
+    CARD(LOG_LEVEL.INFO),  // (CARD ordinal, unused)
+    PURCHASE(LOG_LEVEL.INFO),  // (Property index, price)
+    TRADE(LOG_LEVEL.INFO),  // (catcher index, 1 if accepted else 0) - the Player is the pitcher
+    BANKRUPTCY(LOG_LEVEL.INFO),  // (unused, unused)
+    WARN(LOG_LEVEL.WARN);  // (warning code, unused)
+
+    public final LOG_LEVEL level;
+
+    LOG_EVENT(LOG_LEVEL level) {
+        this.level = level;
+    }
+
+}
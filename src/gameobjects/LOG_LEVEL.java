@@ -0,0 +1,14 @@
+package gameobjects;
+
+/**
+ * Enum class representing the severity levels of engine log events, least severe first.
+ * Setting EngineLog's level to OFF disables logging entirely.
+ */
+public enum LOG_LEVEL {
+
+    DEBUG,
+    INFO,
+    WARN,
+    OFF
+
+}
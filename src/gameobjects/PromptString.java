@@ -2,25 +2,40 @@ package gameobjects;
 
 import playerobjects.Player;
 
+import java.util.function.Supplier;
+
 /**
  * PromptString is a class that wraps metadata about the usage of a 'Prompt' String within the same object.
+ * <br>The text is built lazily, the first time somebody actually reads it, so unread prompts cost next to nothing.
  */
 public class PromptString {
 
-    public String str;
+    private final Supplier<String> text;
+    private String str = null;  // Built from `text` on first use
     private final Player player;
     private final GameState gameState;
 
-    public PromptString(String str, Player player, GameState gameState) {
-        this.str = str;
+    public PromptString(Supplier<String> text, Player player, GameState gameState) {
+        this.text = text;
         this.player = player;
         this.gameState = gameState;
     }
 
+    public PromptString(String str, Player player, GameState gameState) {
+        this(() -> str, player, gameState);
+    }
+
     public PromptString(String str, Player player) {
-        this.str = str;
-        this.player = player;
-        this.gameState = null;
+        this(str, player, null);
+    }
+
+    /**
+     * @return The prompt's text, without the GameState and Player name.
+     */
+    public String getText() {
+        if (str == null)
+            str = text.get();
+        return str;
     }
 
     @Override
@@ -28,8 +43,8 @@ public class PromptString {
         String str = "";
         if (gameState != null) str += gameState.toString() + "\n";
         str += player.getName() + " | ";
-        str += this.str;
+        str += getText();
         return str;
     }
 
-}
\ No newline at end of file
+}
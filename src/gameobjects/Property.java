@@ -6,6 +6,7 @@ public class Property {
     public static final double UNMORTGAGE_INTEREST = 1.1;
 
     private final String name;
+    int index = -1;  // Position on the board, assigned once by Board
 
     protected COLOR_SET color;
     protected int marketPrice;
@@ -69,6 +70,33 @@ public class Property {
         return name;
     }
 
+    /**
+     * @return Position of this Property on the board (index into `Board.SQUARES`).
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public COLOR_SET getColor() {
+        return color;
+    }
+
+    public int getMarketPrice() {
+        return marketPrice;
+    }
+
+    public double getMortgageDivisor() {
+        return mortgageDivisor;
+    }
+
+    public int getBaseHouseCost() {
+        return baseHouseCost;
+    }
+
+    public double getHouseSellDivisor() {
+        return houseSellDivisor;
+    }
+
     /**
      * Calculate & return rent value for a [non-functional] Property.
      * @param gameState Game State context.
@@ -82,29 +110,15 @@ public class Property {
 
             // Railroad rent calculation - depends on # of Railroads the player owns.
             case RAILROAD -> {
-                int railroadsOwned = 1;
-                int pIndex = Board.indexOf(this.name);
-                for (int i = 0; i < Board.SQUARES.size(); i++) {
-                    Property property = Board.SQUARES.get(i);
-                    if (i == pIndex || property.color != COLOR_SET.RAILROAD) continue;
-                    if (ownership[i] == ownership[pIndex])
-                        railroadsOwned++;
-                }
-                return (baseRent * railroadsOwned);
+                int owner = ownership[index];
+                if (owner == -1) return baseRent;
+                return (baseRent * gameState.countOwned(owner, COLOR_SET.RAILROAD));
             }
 
             // Utility rent calculation - depends on # of Utilities the player owns, and the last dice roll.
             case UTILITY -> {
-                boolean multipleUtilities = false;
-                int pIndex = Board.indexOf(this.name);
-                for (int i = 0; i < Board.SQUARES.size(); i++) {
-                    Property property = Board.SQUARES.get(i);
-                    if (i == pIndex || property.color != COLOR_SET.UTILITY) continue;
-                    if (ownership[i] == ownership[pIndex]) {
-                        multipleUtilities = true;
-                        break;
-                    }
-                }
+                int owner = ownership[index];
+                boolean multipleUtilities = (owner != -1 && gameState.countOwned(owner, COLOR_SET.UTILITY) > 1);
                 if (multipleUtilities)
                     return (roll * 10);
                 else
@@ -113,7 +127,7 @@ public class Property {
 
             // Rented Property rent calculation - this covers all 'normal' Properties, e.g. Boardwalk
             default -> {
-                int pIndex = Board.indexOf(this.name);
+                int pIndex = index;
                 boolean isMonopoly = gameState.propertyIsMonopoly(pIndex);
                 if (isMonopoly) {
                     if (gameState.houses[pIndex] > 0)
@@ -0,0 +1,20 @@
+package gameobjects;
+
+/**
+ * Enum class representing what happens when a Player lands on a square of the board.
+ */
+public enum SQUARE_KIND {
+
+    STREET,
+    RAILROAD,
+    UTILITY,
+    GO,
+    CHANCE,
+    COMMUNITY_CHEST,
+    INCOME_TAX,
+    LUXURY_TAX,
+    JAIL,
+    GO_TO_JAIL,
+    FREE_PARKING
+
+}
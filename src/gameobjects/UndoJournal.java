@@ -0,0 +1,119 @@
+package gameobjects;
+
+import java.util.Arrays;
+
+/**
+ * Primitive log of the changes made to a live GameState (and the Game's dice), so they can be undone in reverse order.
+ * <br>Each entry is one overwritten value: a field code, an index into the field (player or square), and the old value.
+ * Entries live in three parallel arrays that only grow, so recording allocates nothing once the journal has warmed up.
+ * <br>Used by Game.mark() / Game.rollbackTo() for make / unmake search: rolling back costs O(changes since the mark).
+ */
+class UndoJournal {
+
+    // Field codes
+    static final int TURN_INDICATOR = 0;
+    static final int MORTGAGE = 1;
+    static final int OWNER = 2;
+    static final int CASH = 3;
+    static final int HOUSES = 4;
+    static final int LOCATION = 5;
+    static final int TIMES_ROLLED = 6;
+    static final int JAILED = 7;
+    static final int TURNS_IN_JAIL = 8;
+    static final int GTFO_JAIL_CARDS = 9;
+    static final int BANKRUPTCY = 10;
+    static final int AUCTION_BID = 11;
+    static final int BIDDING_PROPERTY = 12;
+    static final int REMAINING_HOUSES = 13;
+    static final int REMAINING_HOTELS = 14;
+    static final int CHANCE_DRAW = 15;  // Index: drawn slot (| RESHUFFLED), value: stream position before the draw
+    static final int COMMUNITY_CHEST_DRAW = 16;
+    static final int DICE_TOSS = 17;  // Index: previous doubles flag and values (see Dice.undoToss()), value: stream position before the toss
+    static final int DICE_SEEK = 18;  // Value: stream position before the seek
+    static final int CHANCE_SEEK = 19;
+    static final int COMMUNITY_CHEST_SEEK = 20;
+
+    static final int RESHUFFLED = 1 << 16;  // Flag of a draw that reshuffled the stack first
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] codes = new int[INITIAL_CAPACITY];
+    private int[] indexes = new int[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Record the value a field held before being overwritten.
+     */
+    void record(int code, int index, long oldValue) {
+        if (size == codes.length)
+            grow();
+        codes[size] = code;
+        indexes[size] = index;
+        values[size] = oldValue;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = codes.length * 2;
+        codes = Arrays.copyOf(codes, capacity);
+        indexes = Arrays.copyOf(indexes, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * Undo every entry past `position`, newest first, and forget them.
+     * @param position Journal size to return to, from size().
+     * @param gameState GameState the entries were recorded from.
+     * @param dice Dice the DICE_TOSS entries were recorded from.
+     */
+    void rollbackTo(int position, GameState gameState, Dice dice) {
+        // Undo through the GameState's setters, which keep its hash up to date, without recording the undoing itself
+        UndoJournal attached = gameState.journal;
+        gameState.journal = null;
+        while (size > position) {
+            size--;
+            int index = indexes[size];
+            long value = values[size];
+            switch (codes[size]) {
+                case TURN_INDICATOR -> gameState.setTurnIndicator((int) value);
+                case MORTGAGE -> gameState.setMortgaged(index, value != 0);
+                case OWNER -> gameState.restoreOwner(index, (int) value);
+                case CASH -> gameState.setCash(index, (int) value);
+                case HOUSES -> gameState.setHouses(index, (int) value);
+                case LOCATION -> gameState.setLocation(index, (int) value);
+                case TIMES_ROLLED -> gameState.setTimesRolled(index, (int) value);
+                case JAILED -> gameState.setJailed(index, value != 0);
+                case TURNS_IN_JAIL -> gameState.setTurnsInJail(index, (int) value);
+                case GTFO_JAIL_CARDS -> gameState.setGtfoJailCards(index, (int) value);
+                case BANKRUPTCY -> gameState.setBankrupt(index, value != 0);
+                case AUCTION_BID -> gameState.setAuctionBid(index, (int) value);
+                case BIDDING_PROPERTY -> gameState.setBiddingProperty((int) value);
+                case REMAINING_HOUSES -> gameState.setRemainingHouses((int) value);
+                case REMAINING_HOTELS -> gameState.setRemainingHotels((int) value);
+                case CHANCE_DRAW -> gameState.chance.undoDraw(index & ~RESHUFFLED, (index & RESHUFFLED) != 0, value);
+                case COMMUNITY_CHEST_DRAW -> gameState.communityChest.undoDraw(index & ~RESHUFFLED, (index & RESHUFFLED) != 0, value);
+                case DICE_TOSS -> dice.undoToss(index, value);
+                case DICE_SEEK -> dice.undoSeek(value);
+                case CHANCE_SEEK -> gameState.chance.undoSeek(value);
+                case COMMUNITY_CHEST_SEEK -> gameState.communityChest.undoSeek(value);
+            }
+        }
+        gameState.journal = attached;
+    }
+
+    /**
+     * @return Number of entries recorded, i.e. the position to pass to rollbackTo() to undo everything after this point.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Forget every entry, without undoing them.
+     */
+    void clear() {
+        size = 0;
+    }
+
+}
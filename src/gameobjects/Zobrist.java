@@ -0,0 +1,64 @@
+package gameobjects;
+
+/**
+ * Zobrist keys of GameState features: a GameState's hash is the XOR of the keys of its features' current values,
+ * ... so changing one feature updates the hash in O(1) by XOR-ing out the old key and XOR-ing in the new one.
+ * <br>Keys are derived from (feature, index, value) with SplitMix64, so any number of Players (and any cash) fits;
+ * ... the keys of small indexes and values, i.e. almost all of them, are precomputed into a table.
+ */
+final class Zobrist {
+
+    private Zobrist() {}
+
+    // Features
+    static final int TURN_INDICATOR = 0;
+    static final int LOCATION = 1;  // Per Player
+    static final int OWNER = 2;  // Per square
+    static final int HOUSES = 3;  // Per square
+    static final int MORTGAGE = 4;  // Per square
+    static final int JAILED = 5;  // Per Player
+    static final int TURNS_IN_JAIL = 6;  // Per Player
+    static final int GTFO_JAIL_CARDS = 7;  // Per Player
+    static final int BANKRUPTCY = 8;  // Per Player
+    static final int CASH = 9;  // Per Player, bucketed
+    static final int TIMES_ROLLED = 10;  // Per Player
+    static final int BIDDING_PROPERTY = 11;
+    static final int CHANCE_REMAINING = 12;
+    static final int COMMUNITY_CHEST_REMAINING = 13;
+
+    static final int CASH_BUCKET = 50;  // Cash is hashed in buckets this wide, so near-identical positions share a hash
+
+    private static final int FEATURES = 14;
+    private static final long SEED = 0x5A0B215DE1F0CA7EL;
+
+    // Precomputed keys of indexes 0-63 and values -1-62, at ((feature * 64 + index) * 64 + value + 1)
+    private static final long[] KEYS = new long[FEATURES * 64 * 64];
+    static {
+        for (int feature = 0; feature < FEATURES; feature++)
+            for (int index = 0; index < 64; index++)
+                for (int value = -1; value < 63; value++)
+                    KEYS[(((feature << 6) | index) << 6) + value + 1] = computeKey(feature, index, value);
+    }
+
+    /**
+     * @return Key of a feature at an index (Player or square, 0 for global features) holding a value.
+     */
+    static long key(int feature, int index, int value) {
+        if (index < 64 && value >= -1 && value < 63)
+            return KEYS[(((feature << 6) | index) << 6) + value + 1];
+        return computeKey(feature, index, value);
+    }
+
+    private static long computeKey(int feature, int index, int value) {
+        return GameRandom.mix64(SEED ^ ((long) feature << 56) ^ ((long) index << 40) ^ (value & 0xFFFFFFFFL));
+    }
+
+    static long key(int feature, int index, boolean value) {
+        return value ? key(feature, index, 1) : 0;
+    }
+
+    static long cashKey(int playerIndex, int cash) {
+        return key(CASH, playerIndex, Math.floorDiv(cash, CASH_BUCKET));
+    }
+
+}
@@ -11,6 +11,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.paint.ImagePattern;
 import javafx.stage.Stage;
 import gameobjects.Game;
+import playerobjects.Judge;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -110,11 +111,13 @@ public class MonopolyGraphicsFX extends Application {
             28  // Boardwalk
     };
 
-    private static final Game game = new Game(4, new String[]{"Car", "Thimble", "Ship", "Dog"}, null);  // TODO: Temporary!
+    private static final Game game = new Game(4, new String[]{"Car", "Thimble", "Ship", "Dog"}, new Judge[]{new GFXJudge(), new GFXJudge(), new GFXJudge(), new GFXJudge()}, null, null);  // TODO: Temporary!
 
     // Package private -- for graphics handling only
-    static ActionState actionState = null;
-    static Property selectedProperty = null;
+    // Written by the JavaFX thread, polled by the game thread (see GFXInPipe), hence volatile.
+    // This is GUI-only state: headless Games never touch it.
+    static volatile ActionState actionState = null;
+    static volatile Property selectedProperty = null;
 
     public static void main(String[] args) {
         //new MonopolyGraphicsFX(null).run(args);
@@ -140,8 +143,18 @@ public class MonopolyGraphicsFX extends Application {
 
         Timer timer = new Timer();
         timer.scheduleAtFixedRate(new TimerTask() {
+
+            // Last Game version and ActionState drawn; the scene is only rebuilt when either changes
+            private long drawnVersion = -1;
+            private ActionState drawnActionState = null;
+
             @Override
             public void run() {
+                long version = game.getVersion();
+                ActionState currentActionState = actionState;
+                if (version == drawnVersion && currentActionState == drawnActionState) return;
+                drawnVersion = version;
+                drawnActionState = currentActionState;
                 Platform.runLater(() -> {
                     stage.setScene(generateScene());
                     //stage.show();
@@ -0,0 +1,29 @@
+package neural;
+
+/**
+ * Enum class representing the activation functions a DenseLayer can apply to its outputs.
+ */
+public enum ACTIVATION {
+
+    IDENTITY,
+    RELU,
+    TANH;
+
+    /**
+     * Apply this activation in place to `values[from, to)`.
+     */
+    public void apply(float[] values, int from, int to) {
+        switch (this) {
+            case IDENTITY -> {}
+            case RELU -> {
+                for (int i = from; i < to; i++)
+                    if (values[i] < 0f) values[i] = 0f;
+            }
+            case TANH -> {
+                for (int i = from; i < to; i++)
+                    values[i] = (float) Math.tanh(values[i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,260 @@
+package neural;
+
+import gameobjects.Board;
+import gameobjects.BoardIndex;
+import gameobjects.COLOR_SET;
+import gameobjects.Game;
+import gameobjects.GameAction;
+import gameobjects.GameObject;
+import gameobjects.GameState;
+import gameobjects.Property;
+
+import java.util.Set;
+
+/**
+ * Discrete action space of the neural agents: every decision a Player can make is an index in [0, ACTION_COUNT),
+ * ... standing for one GameAction with its wrapper already filled in.
+ * <br>Square actions (mortgage, unmortgage, build, sell) come in blocks of NUM_SQUARES, one index per board square.
+ * <br>Trade offers have no fixed-size encoding and are left out; incoming trades can still be accepted or rejected.
+ * <br>legalMask() narrows the Game's legal GameActions down to the indexes that would actually do something,
+ * ... so a masked policy never spends a decision on an action the engine would ignore.
+ */
+public final class ActionSpace {
+
+    public static final int NUM_SQUARES = BoardIndex.NUM_SQUARES;
+    public static final int BID_INCREMENT = 10;  // Amount a raise adds to the maximum bid
+
+    // Fixed actions
+    public static final int MOVE = 0;
+    public static final int BUY = 1;
+    public static final int AUCTION = 2;
+    public static final int BID_PASS = 3;  // Drop out of the auction
+    public static final int BID_HOLD = 4;  // Keep the leading bid
+    public static final int BID_RAISE = 5;  // Raise the maximum bid by BID_INCREMENT
+    public static final int TRADE_ACCEPT = 6;
+    public static final int TRADE_REJECT = 7;
+    public static final int JAIL_THROW_DICE = 8;
+    public static final int JAIL_PAY_BAIL = 9;
+    public static final int JAIL_USE_CARD = 10;
+    public static final int END_TURN = 11;
+    public static final int DECLARE_BANKRUPTCY = 12;
+
+    // Square actions, each a block of NUM_SQUARES indexes
+    public static final int MORTGAGE = 13;
+    public static final int UNMORTGAGE = MORTGAGE + NUM_SQUARES;
+    public static final int BUILD = UNMORTGAGE + NUM_SQUARES;
+    public static final int SELL = BUILD + NUM_SQUARES;
+    public static final int ACTION_COUNT = SELL + NUM_SQUARES;
+
+    private static final int TRADE_DECISION_CODE = 8;  // Exec-flow code of a trade response, see Game.generateLegalActions()
+
+    private ActionSpace() {}
+
+    /**
+     * @return GameAction an action index stands for.
+     */
+    public static GameAction gameAction(int action) {
+        return switch (action) {
+            case MOVE -> GameAction.MOVE_THROW_DICE;
+            case BUY, AUCTION -> GameAction.PROPERTY_BUY_OR_AUCTION;
+            case BID_PASS, BID_HOLD, BID_RAISE -> GameAction.AUCTION_BID;
+            case TRADE_ACCEPT, TRADE_REJECT -> GameAction.TRADE_RESPOND;
+            case JAIL_THROW_DICE -> GameAction.JAIL_THROW_DICE;
+            case JAIL_PAY_BAIL -> GameAction.JAIL_PAY_BAIL;
+            case JAIL_USE_CARD -> GameAction.JAIL_USE_CARD;
+            case END_TURN -> GameAction.END_TURN;
+            case DECLARE_BANKRUPTCY -> GameAction.DECLARE_BANKRUPTCY;
+            default -> {
+                if (action < MORTGAGE || action >= ACTION_COUNT)
+                    throw new IllegalArgumentException("Action index out of range: " + action);
+                else if (action < UNMORTGAGE) yield GameAction.PROPERTY_MORTGAGE;
+                else if (action < BUILD) yield GameAction.PROPERTY_UNMORTGAGE;
+                else if (action < SELL) yield GameAction.HOUSE_BUILD;
+                else yield GameAction.HOUSE_SELL;
+            }
+        };
+    }
+
+    /**
+     * Turn an action index into its GameAction, filling in the wrapper the engine expects with it.
+     * @param action Action index.
+     * @param gameState State the action is taken in (read for the current auction bids).
+     * @param playerIndex Index / ID of the acting Player.
+     * @param wrapper Wrapper to fill in. Every field is overwritten, so one wrapper may be reused.
+     * @return GameAction to step the Game with, along with `wrapper`.
+     */
+    public static GameAction decode(int action, GameState gameState, int playerIndex, GameObject wrapper) {
+
+        GameAction gameAction = gameAction(action);
+
+        wrapper.objInt = -1;
+        wrapper.objBool = (action == BUY || action == TRADE_ACCEPT);
+        wrapper.objProperty = (action >= MORTGAGE) ? Board.SQUARES.get(square(action)) : null;
+        wrapper.objTrade = null;
+
+        if (action == BID_HOLD)
+            wrapper.objInt = gameState.auctionBids[playerIndex];
+        else if (action == BID_RAISE)
+            wrapper.objInt = gameState.getMaximumBid() + BID_INCREMENT;
+
+        return gameAction;
+
+    }
+
+    /**
+     * @return Board square a square action applies to.
+     */
+    public static int square(int action) {
+        return (action - MORTGAGE) % NUM_SQUARES;
+    }
+
+    /**
+     * Write the legal action indexes at the Game's pending decision into `out[offset, offset + ACTION_COUNT)`.
+     * @return Number of legal actions, 0 if there is no pending decision (e.g. the Game is over).
+     */
+    public static int legalMask(Game game, GameState gameState, boolean[] out, int offset) {
+        return legalMask(gameState, game.getDecisionPlayer(), game.getDecisionCode(), game.getLegalActionMask(), out, offset);
+    }
+
+    /**
+     * Write the legal action indexes of a Judge's decision into `out[offset, offset + ACTION_COUNT)`.
+     * Judges are handed the legal GameActions but no exec-flow code; a trade response is the only decision where TRADE_RESPOND is the sole legal GameAction.
+     * @return Number of legal actions.
+     */
+    public static int legalMask(GameState gameState, int playerIndex, Set<GameAction> possibleActions, boolean[] out, int offset) {
+        int legalActionMask = 0;
+        for (GameAction action : possibleActions)
+            legalActionMask |= action.mask();
+        int decisionCode = (legalActionMask == GameAction.TRADE_RESPOND.mask()) ? TRADE_DECISION_CODE : -1;
+        return legalMask(gameState, playerIndex, decisionCode, legalActionMask, out, offset);
+    }
+
+    /**
+     * Write the legal action indexes of a decision into `out[offset, offset + ACTION_COUNT)`.
+     * <br>An index is legal if its GameAction is in `legalActionMask` and the engine would act on it, mirroring the checks of Game.step().
+     * If that leaves nothing (e.g. a Player raising funds off-turn, who can neither sell nor mortgage), every fixed action
+     * ... whose GameAction is legal is allowed instead, so a decision always has at least one legal index.
+     * @param gameState State at the decision.
+     * @param playerIndex Index / ID of the deciding Player, -1 if there is no decision.
+     * @param decisionCode Exec-flow code of the decision.
+     * @param legalActionMask Action mask of the legal GameActions (see GameAction.mask()).
+     * @return Number of legal actions.
+     */
+    public static int legalMask(GameState gameState, int playerIndex, int decisionCode, int legalActionMask, boolean[] out, int offset) {
+
+        for (int i = 0; i < ACTION_COUNT; i++)
+            out[offset + i] = false;
+        if (playerIndex == -1) return 0;
+
+        int cash = gameState.cash[playerIndex];
+        boolean isPlayerTurn = (gameState.turnIndicator == playerIndex);
+        int count = 0;
+
+        // Fixed actions
+        for (int action = 0; action < MORTGAGE; action++) {
+            if ((legalActionMask & gameAction(action).mask()) == 0) continue;
+            boolean legal = switch (action) {
+                case BUY -> cash >= Board.SQUARES.get(gameState.playerLocations[playerIndex]).getMarketPrice();
+                case BID_HOLD -> isLeadingBid(gameState, playerIndex);
+                case BID_RAISE -> cash >= gameState.getMaximumBid() + BID_INCREMENT;
+                case TRADE_ACCEPT, TRADE_REJECT -> decisionCode == TRADE_DECISION_CODE;
+                case JAIL_PAY_BAIL -> cash >= Property.BAIL_AMOUNT;
+                case JAIL_USE_CARD -> gameState.gtfoJailCards[playerIndex] > 0;
+                case MOVE, JAIL_THROW_DICE, DECLARE_BANKRUPTCY -> isPlayerTurn;
+                default -> true;
+            };
+            if (legal) {
+                out[offset + action] = true;
+                count++;
+            }
+        }
+
+        // Square actions - only ever on the Player's own turn
+        if (isPlayerTurn) {
+            boolean canMortgage = (legalActionMask & GameAction.PROPERTY_MORTGAGE.mask()) != 0;
+            boolean canUnmortgage = (legalActionMask & GameAction.PROPERTY_UNMORTGAGE.mask()) != 0;
+            boolean canBuild = (legalActionMask & GameAction.HOUSE_BUILD.mask()) != 0;
+            boolean canSell = (legalActionMask & GameAction.HOUSE_SELL.mask()) != 0;
+            for (int square = 0; square < NUM_SQUARES; square++) {
+                if (gameState.ownership[square] != playerIndex) continue;
+                Property property = Board.SQUARES.get(square);
+                boolean mortgaged = gameState.mortgages[square];
+                if (canMortgage && !mortgaged && gameState.houses[square] == 0) {
+                    out[offset + MORTGAGE + square] = true;
+                    count++;
+                }
+                if (canUnmortgage && mortgaged && cash >= property.getMarketPrice() * property.getMortgageDivisor() * Property.UNMORTGAGE_INTEREST) {
+                    out[offset + UNMORTGAGE + square] = true;
+                    count++;
+                }
+                if (canBuild && canBuild(gameState, playerIndex, property)) {
+                    out[offset + BUILD + square] = true;
+                    count++;
+                }
+                if (canSell && canSell(gameState, property)) {
+                    out[offset + SELL + square] = true;
+                    count++;
+                }
+            }
+        }
+
+        // Nothing would have an effect - fall back to the fixed actions the engine allows
+        if (count == 0) {
+            for (int action = 0; action < MORTGAGE; action++) {
+                if ((legalActionMask & gameAction(action).mask()) != 0) {
+                    out[offset + action] = true;
+                    count++;
+                }
+            }
+        }
+
+        return count;
+
+    }
+
+    /**
+     * @return True if the Player holds the single highest bid of the running auction.
+     * Only the leader may keep their bid; anyone else has to raise or drop out.
+     */
+    private static boolean isLeadingBid(GameState gameState, int playerIndex) {
+        int bid = gameState.auctionBids[playerIndex];
+        if (bid <= 0) return false;
+        for (int i = 0; i < gameState.numPlayers; i++)
+            if (i != playerIndex && gameState.auctionBids[i] >= bid) return false;
+        return true;
+    }
+
+    // Mirrors the HOUSE_BUILD checks of Game.performAction(), and keeps houses off Railroads and Utilities.
+    private static boolean canBuild(GameState gameState, int playerIndex, Property property) {
+        int square = property.getIndex();
+        int houses = gameState.houses[square];
+        boolean isBuyingHotel = (houses == 4);
+        if (
+                   property.getColor() == COLOR_SET.RAILROAD  // The engine doesn't stop this itself
+                || property.getColor() == COLOR_SET.UTILITY
+                || houses >= 5
+                || (gameState.remainingHouses <= 0 && !isBuyingHotel)
+                || (gameState.remainingHotels <= 0 && isBuyingHotel)
+                || gameState.cash[playerIndex] < property.getBaseHouseCost()
+                || gameState.mortgages[square]
+        ) return false;
+        for (int setSquare : BoardIndex.COLOR_SET_INDEXES[property.getColor().ordinal()])
+            if (gameState.ownership[setSquare] != playerIndex || houses > gameState.houses[setSquare]) return false;
+        return true;
+    }
+
+    // Mirrors the HOUSE_SELL checks of Game.performAction().
+    private static boolean canSell(GameState gameState, Property property) {
+        int square = property.getIndex();
+        int houses = gameState.houses[square];
+        if (
+                   houses <= 0
+                || gameState.mortgages[square]
+                || (gameState.remainingHouses < 4 && houses == 5)
+        ) return false;
+        for (int setSquare : BoardIndex.COLOR_SET_INDEXES[property.getColor().ordinal()])
+            if (houses < gameState.houses[setSquare]) return false;
+        return true;
+    }
+
+}
@@ -0,0 +1,54 @@
+package neural;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fully-connected layer: `output = activation(input * weights + bias)`.
+ * <br>Parameters live in little-endian ByteBuffers, typically slices of a memory-mapped Network file, so they are never copied:
+ * ... `weights` holds inputSize x outputSize floats in row-major order (row `i` = weights out of input `i`),
+ * ... `bias` holds outputSize floats.
+ * <br>Read-only once built, so one layer may be used by any number of threads.
+ */
+public class DenseLayer {
+
+    public final int inputSize;
+    public final int outputSize;
+    public final ACTIVATION activation;
+
+    final ByteBuffer weights;
+    final ByteBuffer bias;
+
+    /**
+     * @param weights Buffer of exactly inputSize * outputSize floats.
+     * @param bias Buffer of exactly outputSize floats.
+     */
+    public DenseLayer(int inputSize, int outputSize, ACTIVATION activation, ByteBuffer weights, ByteBuffer bias) {
+        if (weights.capacity() != inputSize * outputSize * Float.BYTES || bias.capacity() != outputSize * Float.BYTES)
+            throw new IllegalArgumentException("Parameter buffers do not match a " + inputSize + "x" + outputSize + " layer");
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.activation = activation;
+        this.weights = weights.order(ByteOrder.LITTLE_ENDIAN);
+        this.bias = bias.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return Weight from input `input` to output `output`.
+     */
+    public float getWeight(int input, int output) {
+        return weights.getFloat((input * outputSize + output) * Float.BYTES);
+    }
+
+    public float getBias(int output) {
+        return bias.getFloat(output * Float.BYTES);
+    }
+
+    /**
+     * @return Number of parameters (weights and biases).
+     */
+    public int parameterCount() {
+        return (inputSize + 1) * outputSize;
+    }
+
+}
@@ -0,0 +1,20 @@
+package neural;
+
+/**
+ * Defines a class of classes that run encoded states through a Network, one state per call.
+ * <br>Implemented by Network itself (a forward pass per call) and by InferenceBatcher (calls from many threads share forward passes).
+ */
+public interface Evaluator {
+
+    /**
+     * Evaluate one encoded state. Blocks until the result is ready.
+     * @param observation Encoded state, getInputSize() floats.
+     * @param output Array receiving getOutputSize() floats.
+     */
+    void evaluate(float[] observation, float[] output);
+
+    int getInputSize();
+
+    int getOutputSize();
+
+}
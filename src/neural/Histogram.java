@@ -0,0 +1,79 @@
+package neural;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of non-negative values over power-of-two buckets: bucket `b` counts values in [2^(b-1), 2^b), bucket 0 counts zeros.
+ * <br>Cheap enough to record into on every call of a hot path, e.g. latencies in nanoseconds.
+ */
+public class Histogram {
+
+    public static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long value) {
+        counts.incrementAndGet(bucket(Math.max(value, 0)));
+    }
+
+    /**
+     * @return Bucket a value falls into.
+     */
+    public static int bucket(long value) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * @return Upper bound (exclusive) of the values in a bucket.
+     */
+    public static long upperBound(int bucket) {
+        return (bucket >= 63) ? Long.MAX_VALUE : (1L << bucket);
+    }
+
+    /**
+     * @return Copy of the count of every bucket.
+     */
+    public long[] getCounts() {
+        long[] copy = new long[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++)
+            copy[b] = counts.get(b);
+        return copy;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++)
+            count += counts.get(b);
+        return count;
+    }
+
+    /**
+     * @param quantile Quantile in [0, 1], e.g. 0.99.
+     * @return Upper bound of the bucket holding the quantile, 0 if nothing has been recorded.
+     */
+    public long percentile(double quantile) {
+        long[] snapshot = getCounts();
+        long total = 0;
+        for (long count : snapshot)
+            total += count;
+        if (total == 0) return 0;
+        long target = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += snapshot[b];
+            if (seen >= target && snapshot[b] > 0) return upperBound(b);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++)
+            counts.set(b, 0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50<%d p90<%d p99<%d", getCount(), percentile(0.5), percentile(0.9), percentile(0.99));
+    }
+
+}
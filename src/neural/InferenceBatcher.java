@@ -0,0 +1,209 @@
+package neural;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Dynamic batcher that merges single-state evaluations from many threads into batched Network forward passes.
+ * <br>Callers submit() an encoded state and get a future of its output. A worker thread collects pending states
+ * ... and runs one forward pass as soon as `maxBatchSize` states are waiting, or `maxWaitNanos` after the oldest one arrived,
+ * ... whichever comes first. So a lone caller waits at most `maxWaitNanos` longer than with an unbatched Network,
+ * ... while many concurrent callers (e.g. NeuralJudges of Games on a GamePool) share the cost of each weight read.
+ * <br>Batch sizes and request latencies (submit to completion) are recorded for tuning `maxBatchSize` and `maxWaitNanos`.
+ */
+public class InferenceBatcher implements Evaluator, AutoCloseable {
+
+    public static final long DEFAULT_MAX_WAIT_NANOS = 1_000_000;  // 1ms
+
+    private final Network network;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final AtomicLongArray batchSizes;  // Number of forward passes run at each batch size
+    private final Histogram latency = new Histogram();  // Nanoseconds from submit() to completion, per request
+
+    private record Request(float[] observation, CompletableFuture<float[]> future, long submitTime) {}
+
+    /**
+     * Starts the worker thread (a daemon).
+     * @param network Network to run.
+     * @param maxBatchSize Largest number of states per forward pass.
+     * @param maxWaitNanos Longest time the oldest pending state waits for the batch to fill.
+     */
+    public InferenceBatcher(Network network, int maxBatchSize, long maxWaitNanos) {
+        this.network = network;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWaitNanos;
+        this.batchSizes = new AtomicLongArray(maxBatchSize + 1);
+        this.worker = new Thread(this::run, "InferenceBatcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public InferenceBatcher(Network network, int maxBatchSize) {
+        this(network, maxBatchSize, DEFAULT_MAX_WAIT_NANOS);
+    }
+
+    /**
+     * Queue one encoded state for evaluation.
+     * @param observation Encoded state, getInputSize() floats. Must not be modified until the future completes.
+     * @return Future of the Network's getOutputSize() outputs for the state.
+     */
+    public CompletableFuture<float[]> submit(float[] observation) {
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("InferenceBatcher is closed"));
+            return future;
+        }
+        Request request = new Request(observation, future, System.nanoTime());
+        queue.add(request);
+        // close() may have run since the check above, after the worker's last drain. If the request is still queued, fail it here;
+        // if it's gone, the worker or close() took it and completes it.
+        if (!running && queue.remove(request))
+            future.completeExceptionally(new IllegalStateException("InferenceBatcher is closed"));
+        return future;
+    }
+
+    @Override
+    public void evaluate(float[] observation, float[] output) {
+        float[] result = submit(observation).join();
+        System.arraycopy(result, 0, output, 0, result.length);
+    }
+
+    /**
+     * Worker loop: wait for a first request, fill the batch until it's full or the oldest request's deadline passes, run it.
+     */
+    private void run() {
+
+        int inputSize = network.getInputSize();
+        int outputSize = network.getOutputSize();
+        float[] input = new float[maxBatchSize * inputSize];
+        float[] output = new float[maxBatchSize * outputSize];
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+
+        while (running) {
+
+            try {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = first.submitTime + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) break;
+                    Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;  // Nothing takes requests any more: submit() must fail them as after close()
+                for (Request request : batch)
+                    request.future.completeExceptionally(new IllegalStateException("InferenceBatcher was interrupted"));
+                break;
+            }
+
+            int rows = batch.size();
+            try {
+                for (int r = 0; r < rows; r++)
+                    System.arraycopy(batch.get(r).observation, 0, input, r * inputSize, inputSize);
+                network.forward(input, rows, output);
+                long now = System.nanoTime();
+                for (int r = 0; r < rows; r++) {
+                    Request request = batch.get(r);
+                    float[] result = new float[outputSize];
+                    System.arraycopy(output, r * outputSize, result, 0, outputSize);
+                    latency.record(now - request.submitTime);
+                    request.future.complete(result);
+                }
+                batchSizes.incrementAndGet(rows);
+            } catch (RuntimeException e) {
+                for (Request request : batch)
+                    request.future.completeExceptionally(e);
+            }
+            batch.clear();
+
+        }
+
+        failQueued();
+
+    }
+
+    /**
+     * Fail every request still queued, once the worker is stopping or stopped.
+     */
+    private void failQueued() {
+        for (Request request = queue.poll(); request != null; request = queue.poll())
+            request.future.completeExceptionally(new IllegalStateException("InferenceBatcher is closed"));
+    }
+
+    /**
+     * Stop the worker thread once its current batch is done. Requests still queued are failed.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued();  // Anything submitted while the worker was exiting
+    }
+
+    /**
+     * @return Copy of the number of forward passes run at each batch size (index = batch size).
+     */
+    public long[] getBatchSizeHistogram() {
+        long[] copy = new long[batchSizes.length()];
+        for (int i = 0; i < copy.length; i++)
+            copy[i] = batchSizes.get(i);
+        return copy;
+    }
+
+    /**
+     * @return Mean number of states per forward pass so far.
+     */
+    public double getMeanBatchSize() {
+        long passes = 0;
+        long states = 0;
+        for (int i = 0; i < batchSizes.length(); i++) {
+            passes += batchSizes.get(i);
+            states += (long) i * batchSizes.get(i);
+        }
+        return (passes == 0) ? 0 : (double) states / passes;
+    }
+
+    /**
+     * @return Histogram of request latencies in nanoseconds, from submit() to completion.
+     */
+    public Histogram getLatencyHistogram() {
+        return latency;
+    }
+
+    @Override
+    public int getInputSize() {
+        return network.getInputSize();
+    }
+
+    @Override
+    public int getOutputSize() {
+        return network.getOutputSize();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InferenceBatcher {maxBatchSize: %d, maxWait: %dns, meanBatchSize: %.2f, latency: %s}",
+                maxBatchSize, maxWaitNanos, getMeanBatchSize(), latency);
+    }
+
+}
@@ -0,0 +1,19 @@
+package neural;
+
+/**
+ * Defines a training objective, evaluated one row of a minibatch at a time.
+ * <br>Called from the Trainer's worker threads, each on its own rows, so implementations must not write shared state.
+ */
+@FunctionalInterface
+public interface Loss {
+
+    /**
+     * Evaluate the loss of one row, and its gradient with respect to the Network's outputs.
+     * @param row Index of the row within the minibatch, for looking up its targets.
+     * @param output Array holding the row's Network outputs at `[outputOffset, outputOffset + outputSize)`.
+     * @param gradient Array receiving dLoss/dOutput at `[outputOffset, outputOffset + outputSize)`. Zeroed beforehand.
+     * @return Loss of the row.
+     */
+    float evaluate(int row, float[] output, int outputOffset, float[] gradient);
+
+}
@@ -0,0 +1,37 @@
+package neural;
+
+/**
+ * Defines the batched matrix multiply at the heart of a DenseLayer's forward pass.
+ * <br>Two implementations exist: ScalarKernel (plain Java, always available) and VectorKernel (SIMD through the
+ * ... incubating Vector API, compiled separately from `src-vector` and only usable when the JVM runs with
+ * ... `--add-modules jdk.incubator.vector`).
+ */
+interface MatMulKernel {
+
+    /**
+     * Compute `output = input * layer.weights + layer.bias` for `rows` rows at once. No activation is applied.
+     * @param input Row-major input, `rows` x `layer.inputSize`.
+     * @param rows Number of rows (batch size).
+     * @param layer Layer whose parameters to use.
+     * @param output Row-major output, `rows` x `layer.outputSize`. Fully overwritten.
+     */
+    void multiply(float[] input, int rows, DenseLayer layer, float[] output);
+
+    /**
+     * @return Short name of the kernel, for logs and benchmarks.
+     */
+    String getName();
+
+    /**
+     * @return The fastest kernel this JVM can run: VectorKernel if it was compiled and the Vector API module is present, ScalarKernel otherwise.
+     * The VectorKernel is loaded reflectively, so this class never links against the incubator module itself.
+     */
+    static MatMulKernel best() {
+        try {
+            return (MatMulKernel) Class.forName("neural.VectorKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarKernel();
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+package neural;
+
+import gameobjects.GameRandom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Multi-layer perceptron for CPU inference: a stack of DenseLayers run over whole batches of row-major float arrays.
+ * <br>Networks are stored in a flat little-endian binary file, which load() memory-maps, so the layers read their parameters
+ * ... straight out of the page cache and startup costs no parsing or copying. Layout:
+ * <br>- Header: int MAGIC, int FORMAT_VERSION, int layer count, then per layer: int input size, int output size, int ACTIVATION ordinal.
+ * <br>- Parameters: per layer, in order, its weights (input size x output size floats, row-major) then its bias (output size floats).
+ * <br>The matrix multiplies run on MatMulKernel.best(), i.e. SIMD when the Vector API is available.
+ * <br>Thread-safe: parameters are read-only, and each thread gets its own scratch space.
+ */
+public class Network implements Evaluator {
+
+    public static final int MAGIC = 0x4D4E4554;  // "MNET"
+    public static final int FORMAT_VERSION = 1;
+    private static final int HEADER_INTS = 3;
+    private static final int LAYER_HEADER_INTS = 3;
+
+    private final ByteBuffer image;  // Whole file image, header included
+    private final List<DenseLayer> layers;
+    private final int maxWidth;
+    private final MatMulKernel kernel = MatMulKernel.best();
+
+    // Two ping-pong activation buffers per thread, grown on demand
+    private final ThreadLocal<float[][]> scratch = ThreadLocal.withInitial(() -> new float[][]{new float[0], new float[0]});
+
+    /**
+     * Parse a Network from its file image. The layers are views of `image`, which must not change afterwards.
+     */
+    public Network(ByteBuffer image) {
+
+        this.image = image.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer buffer = this.image;
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != FORMAT_VERSION)
+            throw new IllegalArgumentException("Not a version " + FORMAT_VERSION + " Network image");
+        int layerCount = buffer.getInt(2 * Integer.BYTES);
+
+        List<DenseLayer> layers = new ArrayList<>(layerCount);
+        int offset = (HEADER_INTS + layerCount * LAYER_HEADER_INTS) * Integer.BYTES;
+        int maxWidth = 0;
+        for (int l = 0; l < layerCount; l++) {
+            int header = (HEADER_INTS + l * LAYER_HEADER_INTS) * Integer.BYTES;
+            int inputSize = buffer.getInt(header);
+            int outputSize = buffer.getInt(header + Integer.BYTES);
+            ACTIVATION activation = ACTIVATION.values()[buffer.getInt(header + 2 * Integer.BYTES)];
+            if (l > 0 && inputSize != layers.get(l - 1).outputSize)
+                throw new IllegalArgumentException("Layer " + l + " does not fit the layer before it");
+            int weightBytes = inputSize * outputSize * Float.BYTES;
+            int biasBytes = outputSize * Float.BYTES;
+            layers.add(new DenseLayer(inputSize, outputSize, activation, buffer.slice(offset, weightBytes), buffer.slice(offset + weightBytes, biasBytes)));
+            offset += weightBytes + biasBytes;
+            maxWidth = Math.max(maxWidth, outputSize);
+        }
+        if (layerCount == 0 || offset != buffer.limit())
+            throw new IllegalArgumentException("Network image is truncated or has trailing data");
+
+        this.layers = Collections.unmodifiableList(layers);
+        this.maxWidth = maxWidth;
+
+    }
+
+    /**
+     * Memory-map a Network file (read-only).
+     */
+    public static Network load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Network(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write this Network's file image to `path`, replacing any existing file.
+     */
+    public void save(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = image.duplicate().clear();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    /**
+     * Build a freshly-initialized Network: He-uniform weights and zero biases.
+     * @param sizes Width of every layer, input first, e.g. {FEATURE_COUNT, 256, 256, OUTPUT_SIZE}.
+     * @param hidden Activation of the hidden layers.
+     * @param output Activation of the output layer.
+     * @param random Stream the weights are drawn from.
+     */
+    public static Network initialize(int[] sizes, ACTIVATION hidden, ACTIVATION output, GameRandom random) {
+
+        int layerCount = sizes.length - 1;
+        ACTIVATION[] activations = new ACTIVATION[layerCount];
+        float[][] weights = new float[layerCount][];
+        float[][] biases = new float[layerCount][];
+        for (int l = 0; l < layerCount; l++) {
+            activations[l] = (l == layerCount - 1) ? output : hidden;
+            weights[l] = new float[sizes[l] * sizes[l + 1]];
+            biases[l] = new float[sizes[l + 1]];
+            double limit = Math.sqrt(6.0 / sizes[l]);
+            for (int i = 0; i < weights[l].length; i++)
+                weights[l][i] = (float) ((random.nextDouble() * 2 - 1) * limit);
+        }
+        return new Network(encode(sizes, activations, weights, biases));
+
+    }
+
+    /**
+     * Lay out parameters as a Network file image, in a direct buffer.
+     * @param sizes Width of every layer, input first.
+     * @param activations Activation of every layer.
+     * @param weights Row-major weights of every layer.
+     * @param biases Biases of every layer.
+     */
+    public static ByteBuffer encode(int[] sizes, ACTIVATION[] activations, float[][] weights, float[][] biases) {
+
+        int layerCount = sizes.length - 1;
+        int bytes = (HEADER_INTS + layerCount * LAYER_HEADER_INTS) * Integer.BYTES;
+        for (int l = 0; l < layerCount; l++)
+            bytes += (sizes[l] + 1) * sizes[l + 1] * Float.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(layerCount);
+        for (int l = 0; l < layerCount; l++)
+            buffer.putInt(sizes[l]).putInt(sizes[l + 1]).putInt(activations[l].ordinal());
+        for (int l = 0; l < layerCount; l++) {
+            buffer.asFloatBuffer().put(weights[l], 0, sizes[l] * sizes[l + 1]).put(biases[l], 0, sizes[l + 1]);
+            buffer.position(buffer.position() + (sizes[l] + 1) * sizes[l + 1] * Float.BYTES);
+        }
+        return buffer.flip();
+
+    }
+
+    /**
+     * Run a batch through the Network.
+     * @param input Row-major input, `rows` x getInputSize().
+     * @param rows Number of rows (batch size).
+     * @param output Row-major output, `rows` x getOutputSize(). Fully overwritten.
+     */
+    public void forward(float[] input, int rows, float[] output) {
+
+        float[][] buffers = scratch.get();
+        if (buffers[0].length < rows * maxWidth) {
+            buffers[0] = new float[rows * maxWidth];
+            buffers[1] = new float[rows * maxWidth];
+        }
+
+        float[] current = input;
+        for (int l = 0; l < layers.size(); l++) {
+            DenseLayer layer = layers.get(l);
+            float[] next = (l == layers.size() - 1) ? output : buffers[l & 1];
+            kernel.multiply(current, rows, layer, next);
+            layer.activation.apply(next, 0, rows * layer.outputSize);
+            current = next;
+        }
+
+    }
+
+    /**
+     * Softmax over the legal entries of `count` logits; illegal entries get probability 0.
+     * @param logits Array holding the logits at `[logitsOffset, logitsOffset + count)`.
+     * @param legal Array holding the legal flags at `[legalOffset, legalOffset + count)`.
+     * @param probabilities Array receiving the probabilities at `[probabilitiesOffset, probabilitiesOffset + count)`. May be `logits`.
+     * @return Number of legal entries. If 0, every probability is 0.
+     */
+    public static int maskedSoftmax(float[] logits, int logitsOffset, boolean[] legal, int legalOffset, int count, float[] probabilities, int probabilitiesOffset) {
+
+        // Subtract the maximum legal logit, so exp() cannot overflow
+        float max = Float.NEGATIVE_INFINITY;
+        int legalCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (legal[legalOffset + i]) {
+                max = Math.max(max, logits[logitsOffset + i]);
+                legalCount++;
+            }
+        }
+
+        float sum = 0f;
+        for (int i = 0; i < count; i++) {
+            float p = legal[legalOffset + i] ? (float) Math.exp(logits[logitsOffset + i] - max) : 0f;
+            probabilities[probabilitiesOffset + i] = p;
+            sum += p;
+        }
+        if (sum > 0f) {
+            for (int i = 0; i < count; i++)
+                probabilities[probabilitiesOffset + i] /= sum;
+        }
+        return legalCount;
+
+    }
+
+    /**
+     * Run a single state through the Network.
+     */
+    @Override
+    public void evaluate(float[] observation, float[] output) {
+        forward(observation, 1, output);
+    }
+
+    public List<DenseLayer> getLayers() {
+        return layers;
+    }
+
+    @Override
+    public int getInputSize() {
+        return layers.get(0).inputSize;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return layers.get(layers.size() - 1).outputSize;
+    }
+
+    /**
+     * @return Number of parameters over all layers.
+     */
+    public int parameterCount() {
+        int count = 0;
+        for (DenseLayer layer : layers)
+            count += layer.parameterCount();
+        return count;
+    }
+
+    /**
+     * @return Name of the MatMulKernel in use, e.g. "scalar" or "vector-256".
+     */
+    public String getKernelName() {
+        return kernel.getName();
+    }
+
+}
@@ -0,0 +1,96 @@
+package neural;
+
+import gameobjects.ActionState;
+import gameobjects.GameAction;
+import gameobjects.GameObject;
+import gameobjects.GameRandom;
+import gameobjects.GameState;
+import playerobjects.Judge;
+import playerobjects.OutPipe;
+
+import java.nio.FloatBuffer;
+import java.util.Set;
+
+/**
+ * Judge implementation that decides with a policy Network, run directly or through an InferenceBatcher (see Evaluator).
+ * <br>The GameState is encoded from the Judge's own perspective (see StateEncoder), and the Network's first ACTION_COUNT outputs
+ * ... are read as logits over ActionSpace. Illegal actions are masked out before the softmax.
+ * A Network may have further outputs (e.g. a value estimate at VALUE_OUTPUT), which are ignored here.
+ * <br>Buffers are reused between decisions, so each NeuralJudge must only serve one seat of one Game at a time.
+ * The Evaluator itself may be shared by any number of NeuralJudges.
+ */
+public class NeuralJudge implements Judge {
+
+    public static final int VALUE_OUTPUT = ActionSpace.ACTION_COUNT;  // Index of the value output, for Networks that have one
+
+    private final int playerIndex;
+    private final Evaluator evaluator;
+    private final GameRandom random;
+    private final boolean greedy;
+
+    private final float[] observation = new float[StateEncoder.FEATURE_COUNT];
+    private final FloatBuffer observationView = FloatBuffer.wrap(observation);
+    private final boolean[] legal = new boolean[ActionSpace.ACTION_COUNT];
+    private final float[] output;
+
+    /**
+     * @param playerIndex Index / ID of the Player this Judge decides for.
+     * @param evaluator Evaluator of the policy Network, with StateEncoder.FEATURE_COUNT inputs and at least ActionSpace.ACTION_COUNT outputs.
+     * @param random Stream actions are sampled from.
+     * @param greedy True to always take the most probable action instead of sampling.
+     */
+    public NeuralJudge(int playerIndex, Evaluator evaluator, GameRandom random, boolean greedy) {
+        if (evaluator.getInputSize() != StateEncoder.FEATURE_COUNT || evaluator.getOutputSize() < ActionSpace.ACTION_COUNT)
+            throw new IllegalArgumentException("Network does not fit the StateEncoder and ActionSpace");
+        this.playerIndex = playerIndex;
+        this.evaluator = evaluator;
+        this.random = random;
+        this.greedy = greedy;
+        this.output = new float[evaluator.getOutputSize()];
+    }
+
+    public NeuralJudge(int playerIndex, Evaluator evaluator, GameRandom random) {
+        this(playerIndex, evaluator, random, false);
+    }
+
+    @Override
+    public ActionState decide(Set<GameAction> possibleActions, OutPipe outPipe, GameState gameState, boolean canEndTurn) {
+
+        ActionSpace.legalMask(gameState, playerIndex, possibleActions, legal, 0);
+        StateEncoder.encode(gameState, playerIndex, observationView, 0);
+        evaluator.evaluate(observation, output);
+        Network.maskedSoftmax(output, 0, legal, 0, ActionSpace.ACTION_COUNT, output, 0);
+
+        int action = greedy ? argmax(output, ActionSpace.ACTION_COUNT) : sample(output, ActionSpace.ACTION_COUNT, random);
+
+        GameObject wrapper = new GameObject();
+        return new ActionState(ActionSpace.decode(action, gameState, playerIndex, wrapper), wrapper);
+
+    }
+
+    /**
+     * @return Index of the largest of the first `count` probabilities.
+     */
+    public static int argmax(float[] probabilities, int count) {
+        int best = 0;
+        for (int i = 1; i < count; i++)
+            if (probabilities[i] > probabilities[best]) best = i;
+        return best;
+    }
+
+    /**
+     * @return Index drawn from the distribution over the first `count` probabilities. Zero-probability indexes are never drawn.
+     */
+    public static int sample(float[] probabilities, int count, GameRandom random) {
+        double target = random.nextDouble();
+        int last = 0;
+        for (int i = 0; i < count; i++) {
+            if (probabilities[i] <= 0f) continue;
+            target -= probabilities[i];
+            if (target < 0) return i;
+            last = i;
+        }
+        return last;  // Rounding left a sliver of probability unspent
+    }
+
+}
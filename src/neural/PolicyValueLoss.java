@@ -0,0 +1,53 @@
+package neural;
+
+/**
+ * Actor-critic Loss over a sampled ReplayBuffer.Batch, for Networks with ActionSpace.ACTION_COUNT policy logits followed by a value output
+ * ... (at NeuralJudge.VALUE_OUTPUT, squashed with tanh).
+ * <br>Each transition's reward is taken as the return of its action, e.g. the final VecEnv outcome for the acting Player.
+ * <br>- Policy: `-advantage * log p(action)` over the masked softmax of the logits, with `advantage = return - value` (not differentiated).
+ * <br>- Value: `valueWeight * (value - return)^2`.
+ * <br>Both terms are scaled by the transition's importance-sampling weight.
+ * The absolute advantages of the last evaluation are kept in `errors`, to feed back as ReplayBuffer priorities.
+ */
+public class PolicyValueLoss implements Loss {
+
+    public static final int OUTPUT_SIZE = ActionSpace.ACTION_COUNT + 1;
+
+    private final ReplayBuffer.Batch batch;
+    private final float valueWeight;
+    public final float[] errors;
+
+    public PolicyValueLoss(ReplayBuffer.Batch batch, float valueWeight) {
+        this.batch = batch;
+        this.valueWeight = valueWeight;
+        this.errors = new float[batch.capacity];
+    }
+
+    @Override
+    public float evaluate(int row, float[] output, int outputOffset, float[] gradient) {
+
+        int actions = ActionSpace.ACTION_COUNT;
+        int legalOffset = row * actions;
+        float weight = batch.weights[row];
+        float target = batch.rewards[row];
+
+        // Value head
+        float value = (float) Math.tanh(output[outputOffset + NeuralJudge.VALUE_OUTPUT]);
+        float valueError = value - target;
+        gradient[outputOffset + NeuralJudge.VALUE_OUTPUT] = weight * valueWeight * 2 * valueError * (1 - value * value);
+
+        // Policy head, into `gradient` as scratch: probabilities first, then their gradient
+        float advantage = target - value;
+        Network.maskedSoftmax(output, outputOffset, batch.legal, legalOffset, actions, gradient, outputOffset);
+        int action = batch.actions[row];
+        float probability = Math.max(gradient[outputOffset + action], 1e-8f);
+        for (int a = 0; a < actions; a++)
+            gradient[outputOffset + a] *= weight * advantage;
+        gradient[outputOffset + action] -= weight * advantage;
+
+        errors[row] = Math.abs(advantage);
+        return weight * (-advantage * (float) Math.log(probability) + valueWeight * valueError * valueError);
+
+    }
+
+}
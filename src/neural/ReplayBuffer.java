@@ -0,0 +1,295 @@
+package neural;
+
+import gameobjects.GameRandom;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-capacity ring of (observation, legal mask, action, reward, next observation, done) transitions, with prioritized sampling.
+ * <br>Transitions are stored off-heap, in direct ByteBuffer chunks of at most CHUNK_BYTES each, so even a buffer of many
+ * ... gigabytes is a handful of objects to the garbage collector. A transition takes `TRANSITION_BYTES` (about 3.8KB).
+ * <br>Appends take no locks: a writer claims the next slot with one atomic increment, marks it through the slot's sequence number
+ * ... (odd while being written, even once published), writes it, then publishes it. Samplers read a slot seqlock-style and retry
+ * ... if it was overwritten meanwhile, so any number of Game threads can add() while a trainer samples.
+ * Writers only ever wait on each other when one is a whole lap (`capacity` appends) behind another on the same slot.
+ * <br>Priorities live in a sum tree of fixed-point longs, updated with atomic adds. Integer sums never drift, however many
+ * ... concurrent updates they see. New transitions get the highest priority seen so far, so each is sampled at least once soon.
+ */
+public class ReplayBuffer {
+
+    public static final int FEATURE_COUNT = StateEncoder.FEATURE_COUNT;
+    public static final int ACTION_COUNT = ActionSpace.ACTION_COUNT;
+    public static final int LEGAL_WORDS = (ACTION_COUNT + 63) / 64;  // Legal masks are stored as bitsets
+
+    // Layout of one transition, in bytes
+    private static final int OBSERVATION = 0;
+    private static final int NEXT_OBSERVATION = OBSERVATION + FEATURE_COUNT * Float.BYTES;
+    private static final int LEGAL = NEXT_OBSERVATION + FEATURE_COUNT * Float.BYTES;
+    private static final int ACTION = LEGAL + LEGAL_WORDS * Long.BYTES;
+    private static final int REWARD = ACTION + Integer.BYTES;
+    private static final int DONE = REWARD + Float.BYTES;
+    public static final int TRANSITION_BYTES = (DONE + Integer.BYTES + 7) & ~7;
+
+    public static final int CHUNK_BYTES = 1 << 30;
+
+    // Priorities are stored as round(priority^alpha * PRIORITY_SCALE), at most MAX_PRIORITY
+    public static final double PRIORITY_SCALE = 1 << 16;
+    public static final double MAX_PRIORITY = 1 << 16;
+    private static final int MAX_SAMPLE_ATTEMPTS = 64;
+
+    private final int capacity;
+    private final double alpha;
+
+    private final int slotsPerChunk;
+    private final ByteBuffer[] chunks;
+    private final FloatBuffer[] chunkFloats;  // Float views of `chunks`, for bulk copies
+
+    private final AtomicLong cursor = new AtomicLong();  // Number of slots claimed so far
+    private final AtomicLongArray sequences;  // Per slot: 0 if never written, 2n+1 while transition `n` is written, 2n+2 once published
+
+    private final int leaves;  // Leaves of the sum tree, a power of two >= capacity
+    private final AtomicLongArray tree;  // Sum tree, root at 1, leaf of slot `i` at `leaves + i`
+    private final AtomicLong maxPriority = new AtomicLong(Math.round(PRIORITY_SCALE));
+
+    /**
+     * Allocates the whole buffer up front.
+     * @param capacity Number of transitions kept; the oldest are overwritten once full.
+     * @param alpha Priority exponent: 0 samples uniformly, 1 fully in proportion to priority.
+     */
+    public ReplayBuffer(int capacity, double alpha) {
+
+        this.capacity = capacity;
+        this.alpha = alpha;
+
+        this.slotsPerChunk = CHUNK_BYTES / TRANSITION_BYTES;
+        int chunkCount = (capacity + slotsPerChunk - 1) / slotsPerChunk;
+        this.chunks = new ByteBuffer[chunkCount];
+        this.chunkFloats = new FloatBuffer[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            int slots = Math.min(slotsPerChunk, capacity - c * slotsPerChunk);
+            chunks[c] = ByteBuffer.allocateDirect(slots * TRANSITION_BYTES).order(ByteOrder.nativeOrder());
+            chunkFloats[c] = chunks[c].asFloatBuffer();
+        }
+
+        this.sequences = new AtomicLongArray(capacity);
+        this.leaves = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.tree = new AtomicLongArray(2 * leaves);
+
+    }
+
+    /**
+     * Append a transition, overwriting the oldest one once the buffer is full. Safe to call from any number of threads.
+     * @param observation Array holding the encoded state at `[observationOffset, observationOffset + FEATURE_COUNT)`.
+     * @param legal Array holding the legal mask at `[legalOffset, legalOffset + ACTION_COUNT)`.
+     * @param action Action index taken.
+     * @param reward Reward received for it.
+     * @param nextObservation Array holding the next encoded state at `[nextOffset, nextOffset + FEATURE_COUNT)`.
+     * @param done True if the Game ended with this transition.
+     * @return Number of the transition (its slot is `number % capacity`). It is dropped unwritten if a whole lap of newer
+     * ... transitions reached its slot first.
+     */
+    public long add(float[] observation, int observationOffset, boolean[] legal, int legalOffset, int action, float reward,
+                    float[] nextObservation, int nextOffset, boolean done) {
+
+        long number = cursor.getAndIncrement();
+        int slot = (int) (number % capacity);
+        // Mark the slot as being written, so samplers skip it.
+        // Only if a writer a whole lap behind still holds the slot does this wait, for that writer to finish.
+        // If a writer a lap or more ahead already claimed the slot, this transition is stale: drop it rather than overwrite a newer one.
+        while (true) {
+            long sequence = sequences.get(slot);
+            if (sequence >= 2 * number + 1) return number;
+            if ((sequence & 1) == 0 && sequences.compareAndSet(slot, sequence, 2 * number + 1)) break;
+            Thread.onSpinWait();
+        }
+
+        ByteBuffer chunk = chunks[slot / slotsPerChunk];
+        FloatBuffer floats = chunkFloats[slot / slotsPerChunk];
+        int base = (slot % slotsPerChunk) * TRANSITION_BYTES;
+
+        floats.put((base + OBSERVATION) / Float.BYTES, observation, observationOffset, FEATURE_COUNT);
+        floats.put((base + NEXT_OBSERVATION) / Float.BYTES, nextObservation, nextOffset, FEATURE_COUNT);
+        for (int word = 0; word < LEGAL_WORDS; word++) {
+            long bits = 0;
+            for (int bit = 0; bit < 64 && word * 64 + bit < ACTION_COUNT; bit++)
+                if (legal[legalOffset + word * 64 + bit]) bits |= (1L << bit);
+            chunk.putLong(base + LEGAL + word * Long.BYTES, bits);
+        }
+        chunk.putInt(base + ACTION, action);
+        chunk.putFloat(base + REWARD, reward);
+        chunk.putInt(base + DONE, done ? 1 : 0);
+
+        setLeaf(slot, maxPriority.get());
+        sequences.set(slot, 2 * number + 2);  // Publish
+        return number;
+
+    }
+
+    /**
+     * Draw a prioritized minibatch, one transition from each of `batchSize` equal slices of the total priority (stratified sampling).
+     * <br>Importance-sampling weights `(size * P(i))^-beta` are normalized by the batch's largest weight.
+     * @param batchSize Number of transitions, at most `out.capacity`.
+     * @param beta Importance-sampling exponent: 0 for no correction, 1 for full correction.
+     * @param random Stream the samples are drawn from.
+     * @param out Batch to fill.
+     * @return Number of transitions drawn: `batchSize`, unless nothing published could be found (e.g. 0 while the buffer is empty).
+     */
+    public int sample(int batchSize, double beta, GameRandom random, Batch out) {
+
+        long total = tree.get(1);
+        long size = size();
+        if (total <= 0 || size == 0) return 0;
+
+        double maxWeight = 0;
+        double segment = (double) total / batchSize;
+        int drawn = 0;
+        for (int i = 0; i < batchSize; i++, drawn++) {
+            long priority = 0;
+            for (int attempt = 0; attempt < MAX_SAMPLE_ATTEMPTS && priority == 0; attempt++) {
+                long target = (long) ((i + random.nextDouble()) * segment);
+                int slot = find(Math.min(target, tree.get(1) - 1));
+                priority = read(slot, out, i) ? tree.get(leaves + slot) : 0;
+            }
+            if (priority == 0) {  // Only unpublished slots were hit - settle for any published one
+                int slot = random.nextInt((int) size);
+                boolean found = false;
+                for (int scanned = 0; scanned < size && !(found = read(slot, out, i)); scanned++)
+                    slot = (slot + 1) % (int) size;
+                if (!found) break;
+                priority = Math.max(1, tree.get(leaves + slot));
+            }
+            double weight = Math.pow(size * (double) priority / total, -beta);
+            out.weights[i] = (float) weight;
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        for (int i = 0; i < drawn; i++)
+            out.weights[i] /= (float) maxWeight;
+        return drawn;
+
+    }
+
+    /**
+     * Set new priorities (e.g. absolute TD or policy errors) for sampled transitions.
+     * @param slots Slots of the transitions, as returned in Batch.slots.
+     * @param priorities New priorities, before the alpha exponent.
+     * @param count Number of entries to update.
+     */
+    public void updatePriorities(int[] slots, float[] priorities, int count) {
+        for (int i = 0; i < count; i++) {
+            double scaled = Math.min(MAX_PRIORITY, Math.pow(Math.max(priorities[i], 0f), alpha)) * PRIORITY_SCALE;
+            long fixed = Math.max(1, Math.round(scaled));
+            setLeaf(slots[i], fixed);
+            maxPriority.accumulateAndGet(fixed, Math::max);
+        }
+    }
+
+    /**
+     * @return Number of transitions held (claimed slots, some of which may still be being written).
+     */
+    public long size() {
+        return Math.min(cursor.get(), capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Total number of transitions ever added.
+     */
+    public long getAddedCount() {
+        return cursor.get();
+    }
+
+    /**
+     * Set a leaf of the sum tree, and add the difference to every node above it.
+     */
+    private void setLeaf(int slot, long priority) {
+        long delta = priority - tree.getAndSet(leaves + slot, priority);
+        if (delta == 0) return;
+        for (int node = (leaves + slot) >>> 1; node >= 1; node >>>= 1)
+            tree.addAndGet(node, delta);
+    }
+
+    /**
+     * @return Slot whose priority interval holds `target`, walking down from the root.
+     */
+    private int find(long target) {
+        int node = 1;
+        while (node < leaves) {
+            long left = tree.get(2 * node);
+            if (target < left) {
+                node = 2 * node;
+            } else {
+                target -= left;
+                node = 2 * node + 1;
+            }
+        }
+        return Math.min(node - leaves, capacity - 1);
+    }
+
+    /**
+     * Copy a published slot into row `row` of a Batch.
+     * @return False if the slot is unpublished, or was overwritten while being read.
+     */
+    private boolean read(int slot, Batch out, int row) {
+
+        long sequence = sequences.get(slot);
+        if (sequence == 0 || (sequence & 1) != 0) return false;
+
+        ByteBuffer chunk = chunks[slot / slotsPerChunk];
+        FloatBuffer floats = chunkFloats[slot / slotsPerChunk];
+        int base = (slot % slotsPerChunk) * TRANSITION_BYTES;
+
+        floats.get((base + OBSERVATION) / Float.BYTES, out.observations, row * FEATURE_COUNT, FEATURE_COUNT);
+        floats.get((base + NEXT_OBSERVATION) / Float.BYTES, out.nextObservations, row * FEATURE_COUNT, FEATURE_COUNT);
+        for (int word = 0; word < LEGAL_WORDS; word++) {
+            long bits = chunk.getLong(base + LEGAL + word * Long.BYTES);
+            for (int bit = 0; bit < 64 && word * 64 + bit < ACTION_COUNT; bit++)
+                out.legal[row * ACTION_COUNT + word * 64 + bit] = (bits & (1L << bit)) != 0;
+        }
+        out.actions[row] = chunk.getInt(base + ACTION);
+        out.rewards[row] = chunk.getFloat(base + REWARD);
+        out.dones[row] = chunk.getInt(base + DONE) != 0;
+        out.slots[row] = slot;
+
+        VarHandle.acquireFence();  // Keep the payload reads above the re-check
+        return sequences.get(slot) == sequence;
+
+    }
+
+    /**
+     * Reusable minibatch of transitions in flat row-major arrays, filled by sample().
+     */
+    public static class Batch {
+
+        public final int capacity;
+        public final float[] observations;
+        public final float[] nextObservations;
+        public final boolean[] legal;
+        public final int[] actions;
+        public final float[] rewards;
+        public final boolean[] dones;
+        public final int[] slots;  // Slot of each transition, for updatePriorities()
+        public final float[] weights;  // Importance-sampling weight of each transition
+
+        public Batch(int capacity) {
+            this.capacity = capacity;
+            this.observations = new float[capacity * FEATURE_COUNT];
+            this.nextObservations = new float[capacity * FEATURE_COUNT];
+            this.legal = new boolean[capacity * ACTION_COUNT];
+            this.actions = new int[capacity];
+            this.rewards = new float[capacity];
+            this.dones = new boolean[capacity];
+            this.slots = new int[capacity];
+            this.weights = new float[capacity];
+        }
+
+    }
+
+}
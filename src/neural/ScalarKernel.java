@@ -0,0 +1,64 @@
+package neural;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Plain-Java MatMulKernel, the fallback when the Vector API is unavailable.
+ * <br>Rows are processed four at a time, so each weight read is used four times. Zero inputs are skipped,
+ * ... which pays off on the sparse one-hot StateEncoder vectors and on ReLU outputs.
+ */
+final class ScalarKernel implements MatMulKernel {
+
+    private static final int ROW_BLOCK = 4;
+
+    @Override
+    public void multiply(float[] input, int rows, DenseLayer layer, float[] output) {
+
+        int inputSize = layer.inputSize;
+        int outputSize = layer.outputSize;
+        ByteBuffer weights = layer.weights;
+
+        // Start every row at the bias
+        for (int r = 0; r < rows; r++)
+            for (int o = 0; o < outputSize; o++)
+                output[r * outputSize + o] = layer.getBias(o);
+
+        int r = 0;
+        for (; r + ROW_BLOCK <= rows; r += ROW_BLOCK) {
+            int in0 = r * inputSize, in1 = in0 + inputSize, in2 = in1 + inputSize, in3 = in2 + inputSize;
+            int out0 = r * outputSize, out1 = out0 + outputSize, out2 = out1 + outputSize, out3 = out2 + outputSize;
+            for (int i = 0; i < inputSize; i++) {
+                float x0 = input[in0 + i], x1 = input[in1 + i], x2 = input[in2 + i], x3 = input[in3 + i];
+                if (x0 == 0f && x1 == 0f && x2 == 0f && x3 == 0f) continue;
+                int w = i * outputSize * Float.BYTES;
+                for (int o = 0; o < outputSize; o++, w += Float.BYTES) {
+                    float weight = weights.getFloat(w);
+                    output[out0 + o] += x0 * weight;
+                    output[out1 + o] += x1 * weight;
+                    output[out2 + o] += x2 * weight;
+                    output[out3 + o] += x3 * weight;
+                }
+            }
+        }
+
+        // Remaining rows, one at a time
+        for (; r < rows; r++) {
+            int in = r * inputSize;
+            int out = r * outputSize;
+            for (int i = 0; i < inputSize; i++) {
+                float x = input[in + i];
+                if (x == 0f) continue;
+                int w = i * outputSize * Float.BYTES;
+                for (int o = 0; o < outputSize; o++, w += Float.BYTES)
+                    output[out + o] += x * weights.getFloat(w);
+            }
+        }
+
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+}
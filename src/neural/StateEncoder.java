@@ -0,0 +1,144 @@
+package neural;
+
+import gameobjects.BoardIndex;
+import gameobjects.CardStack;
+import gameobjects.GameState;
+import main.Monopoly;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Encodes a GameState into a fixed-layout float vector, the input of the neural networks.
+ * <br>Players are encoded relative to a 'perspective' Player, who is always seat 0 of the vector,
+ * ... so one network can play any seat. Seats beyond the Game's number of players are left zero.
+ * <br>Encoding writes straight into a caller-supplied FloatBuffer and allocates nothing.
+ * Many states can be encoded into one contiguous buffer (one row of FEATURE_COUNT floats per state),
+ * ... e.g. a direct (off-heap) buffer from allocateBatch().
+ */
+public final class StateEncoder {
+
+    public static final int NUM_SQUARES = BoardIndex.NUM_SQUARES;
+    public static final int MAX_PLAYERS = Monopoly.MAX_PLAYERS;
+
+    // Normalization constants
+    public static final float CASH_SCALE = GameState.STARTING_CASH;
+    public static final float MAX_HOUSES = 5;  // A hotel
+    public static final float MAX_TIMES_ROLLED = 3;
+    public static final int NUM_CARDS = CardStack.CHANCE_DEFAULT.size();
+
+    // Layout of the vector, in order. Per-seat blocks hold MAX_PLAYERS entries, relative to the perspective Player.
+    public static final int LOCATIONS = 0;  // One-hot square per seat: MAX_PLAYERS x NUM_SQUARES
+    public static final int OWNERSHIP = LOCATIONS + MAX_PLAYERS * NUM_SQUARES;  // One-hot owning seat per square: NUM_SQUARES x MAX_PLAYERS
+    public static final int HOUSES = OWNERSHIP + NUM_SQUARES * MAX_PLAYERS;  // Houses / 5 per square
+    public static final int MORTGAGES = HOUSES + NUM_SQUARES;  // 1 per mortgaged square
+    public static final int CASH = MORTGAGES + NUM_SQUARES;  // Cash / CASH_SCALE per seat
+    public static final int JAILED = CASH + MAX_PLAYERS;  // 1 per jailed seat
+    public static final int TURNS_IN_JAIL = JAILED + MAX_PLAYERS;  // Turns in Jail / MAX_TURNS_IN_JAIL per seat
+    public static final int JAIL_CARDS = TURNS_IN_JAIL + MAX_PLAYERS;  // Get Out of Jail cards / maximum per seat
+    public static final int BANKRUPT = JAIL_CARDS + MAX_PLAYERS;  // 1 per bankrupt seat
+    public static final int TIMES_ROLLED = BANKRUPT + MAX_PLAYERS;  // Consecutive doubles / 3 per seat
+    public static final int TURN = TIMES_ROLLED + MAX_PLAYERS;  // One-hot seat whose turn it is
+    public static final int AUCTION_BIDS = TURN + MAX_PLAYERS;  // Bid / CASH_SCALE per seat, 0 if out of the auction
+    public static final int BIDDING_PROPERTY = AUCTION_BIDS + MAX_PLAYERS;  // One-hot square up for auction, all 0 if none
+    public static final int CHANCE_REMAINING = BIDDING_PROPERTY + NUM_SQUARES;  // Undrawn Chance cards / NUM_CARDS
+    public static final int COMMUNITY_CHEST_REMAINING = CHANCE_REMAINING + 1;  // Undrawn Community Chest cards / NUM_CARDS
+    public static final int REMAINING_HOUSES = COMMUNITY_CHEST_REMAINING + 1;  // Bank's houses / starting houses
+    public static final int REMAINING_HOTELS = REMAINING_HOUSES + 1;  // Bank's hotels / starting hotels
+    public static final int FEATURE_COUNT = REMAINING_HOTELS + 1;
+
+    private StateEncoder() {}
+
+    /**
+     * @return A zeroed, native-order, off-heap buffer with room for `batchSize` encoded states.
+     */
+    public static FloatBuffer allocateBatch(int batchSize) {
+        return ByteBuffer.allocateDirect(batchSize * FEATURE_COUNT * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Encode a GameState into `FEATURE_COUNT` floats of `out`, starting at absolute index `offset`.
+     * Every one of those floats is written, so the buffer may be reused without clearing. The buffer's position is untouched.
+     * @param gameState GameState to encode.
+     * @param perspective Index / ID of the Player whose point of view is encoded (seat 0 of the vector).
+     * @param out Buffer to write into.
+     * @param offset Index of the first float to write.
+     */
+    public static void encode(GameState gameState, int perspective, FloatBuffer out, int offset) {
+
+        int numPlayers = gameState.numPlayers;
+
+        // Clear first: most of the vector is one-hot blocks
+        for (int i = 0; i < FEATURE_COUNT; i++)
+            out.put(offset + i, 0f);
+
+        // Per-seat features
+        for (int player = 0; player < numPlayers; player++) {
+            int seat = seat(player, perspective, numPlayers);
+            out.put(offset + LOCATIONS + seat * NUM_SQUARES + gameState.playerLocations[player], 1f);
+            out.put(offset + CASH + seat, gameState.cash[player] / CASH_SCALE);
+            out.put(offset + JAILED + seat, gameState.jailedPlayers[player] ? 1f : 0f);
+            out.put(offset + TURNS_IN_JAIL + seat, gameState.turnsInJail[player] / (float) Monopoly.MAX_TURNS_IN_JAIL);
+            out.put(offset + JAIL_CARDS + seat, gameState.gtfoJailCards[player] / (float) GameState.MAXIMUM_GTFO_JAIL_CARDS);
+            out.put(offset + BANKRUPT + seat, gameState.playerBankruptcy[player] ? 1f : 0f);
+            out.put(offset + TIMES_ROLLED + seat, gameState.timesRolled[player] / MAX_TIMES_ROLLED);
+            out.put(offset + AUCTION_BIDS + seat, Math.max(gameState.auctionBids[player], 0) / CASH_SCALE);
+        }
+        if (gameState.turnIndicator >= 0)
+            out.put(offset + TURN + seat(gameState.turnIndicator, perspective, numPlayers), 1f);
+
+        // Per-square features
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            int owner = gameState.ownership[square];
+            if (owner != -1)
+                out.put(offset + OWNERSHIP + square * MAX_PLAYERS + seat(owner, perspective, numPlayers), 1f);
+            out.put(offset + HOUSES + square, gameState.houses[square] / MAX_HOUSES);
+            out.put(offset + MORTGAGES + square, gameState.mortgages[square] ? 1f : 0f);
+        }
+
+        // Auction in progress, if any Player is still bidding
+        for (int bid : gameState.auctionBids) {
+            if (bid > 0) {
+                out.put(offset + BIDDING_PROPERTY + gameState.biddingProperty, 1f);
+                break;
+            }
+        }
+
+        // Bank
+        out.put(offset + CHANCE_REMAINING, gameState.chance.getNumRemaining() / (float) NUM_CARDS);
+        out.put(offset + COMMUNITY_CHEST_REMAINING, gameState.communityChest.getNumRemaining() / (float) NUM_CARDS);
+        out.put(offset + REMAINING_HOUSES, gameState.remainingHouses / (float) GameState.STARTING_HOUSES);
+        out.put(offset + REMAINING_HOTELS, gameState.remainingHotels / (float) GameState.STARTING_HOTELS);
+
+    }
+
+    /**
+     * Encode a GameState at the buffer's position, then advance the position past it.
+     */
+    public static void encode(GameState gameState, int perspective, FloatBuffer out) {
+        int offset = out.position();
+        encode(gameState, perspective, out, offset);
+        out.position(offset + FEATURE_COUNT);
+    }
+
+    /**
+     * Encode many GameStates into one contiguous buffer, state `i` at row `i` (absolute index `i * FEATURE_COUNT`).
+     * @param gameStates GameStates to encode.
+     * @param perspectives Perspective Player of each GameState.
+     * @param count Number of GameStates to encode, from index 0.
+     * @param out Buffer with room for at least `count` rows.
+     */
+    public static void encodeBatch(GameState[] gameStates, int[] perspectives, int count, FloatBuffer out) {
+        for (int i = 0; i < count; i++)
+            encode(gameStates[i], perspectives[i], out, i * FEATURE_COUNT);
+    }
+
+    /**
+     * @return Seat of a Player relative to the perspective Player, who is seat 0.
+     */
+    public static int seat(int playerIndex, int perspective, int numPlayers) {
+        return (playerIndex - perspective + numPlayers) % numPlayers;
+    }
+
+}
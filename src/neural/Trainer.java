@@ -0,0 +1,343 @@
+package neural;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Trains a Network's parameters with backpropagation and Adam, on the CPU.
+ * <br>The Trainer keeps its own heap copy of the parameters; toNetwork() and save() turn them back into the Network file format,
+ * ... so a checkpoint can be memory-mapped by Network.load() as-is.
+ * <br>Each minibatch is cut into shards of SHARD_ROWS rows, whose gradients are computed in parallel on a ForkJoinPool.
+ * The shards and their summation order depend only on the batch size, never on the thread count or on scheduling,
+ * ... so training is deterministic: the same batches give bit-identical parameters on any machine and any number of cores.
+ */
+public class Trainer {
+
+    public static final int SHARD_ROWS = 32;
+
+    public static final double DEFAULT_BETA1 = 0.9;
+    public static final double DEFAULT_BETA2 = 0.999;
+    public static final double DEFAULT_EPSILON = 1e-8;
+
+    private final int[] sizes;  // Width of every layer, input first
+    private final ACTIVATION[] activations;
+    private final int layerCount;
+    private final int maxWidth;
+
+    // Parameters and Adam moments, per layer (weights row-major, input x output, as in DenseLayer)
+    private final float[][] weights;
+    private final float[][] biases;
+    private final float[][] weightMoments;
+    private final float[][] weightVelocities;
+    private final float[][] biasMoments;
+    private final float[][] biasVelocities;
+
+    private double learningRate;
+    private final double beta1;
+    private final double beta2;
+    private final double epsilon;
+    private long stepCount = 0;
+
+    private final ForkJoinPool pool;
+    private final List<Shard> shards = new ArrayList<>();  // Workspaces, one per shard of the largest batch so far
+
+    /**
+     * Start training from a Network's parameters.
+     * @param network Network to copy the parameters of.
+     * @param learningRate Adam step size.
+     * @param pool Pool the shards run on.
+     */
+    public Trainer(Network network, double learningRate, ForkJoinPool pool) {
+
+        List<DenseLayer> layers = network.getLayers();
+        this.layerCount = layers.size();
+        this.sizes = new int[layerCount + 1];
+        this.activations = new ACTIVATION[layerCount];
+        this.weights = new float[layerCount][];
+        this.biases = new float[layerCount][];
+        this.weightMoments = new float[layerCount][];
+        this.weightVelocities = new float[layerCount][];
+        this.biasMoments = new float[layerCount][];
+        this.biasVelocities = new float[layerCount][];
+
+        int maxWidth = 0;
+        sizes[0] = network.getInputSize();
+        for (int l = 0; l < layerCount; l++) {
+            DenseLayer layer = layers.get(l);
+            sizes[l + 1] = layer.outputSize;
+            activations[l] = layer.activation;
+            weights[l] = new float[layer.inputSize * layer.outputSize];
+            biases[l] = new float[layer.outputSize];
+            for (int i = 0; i < layer.inputSize; i++)
+                for (int o = 0; o < layer.outputSize; o++)
+                    weights[l][i * layer.outputSize + o] = layer.getWeight(i, o);
+            for (int o = 0; o < layer.outputSize; o++)
+                biases[l][o] = layer.getBias(o);
+            weightMoments[l] = new float[weights[l].length];
+            weightVelocities[l] = new float[weights[l].length];
+            biasMoments[l] = new float[biases[l].length];
+            biasVelocities[l] = new float[biases[l].length];
+            maxWidth = Math.max(maxWidth, layer.outputSize);
+        }
+        this.maxWidth = maxWidth;
+
+        this.learningRate = learningRate;
+        this.beta1 = DEFAULT_BETA1;
+        this.beta2 = DEFAULT_BETA2;
+        this.epsilon = DEFAULT_EPSILON;
+        this.pool = pool;
+
+    }
+
+    public Trainer(Network network, double learningRate) {
+        this(network, learningRate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run one minibatch: forward, backward, then one Adam update with the mean gradient.
+     * @param inputs Row-major inputs, `rows` x input size.
+     * @param rows Number of rows (batch size). 0 does nothing, e.g. for an empty ReplayBuffer.sample().
+     * @param loss Loss of each row, given its outputs.
+     * @return Mean loss over the rows, before the update. 0 if there are no rows.
+     */
+    public float step(float[] inputs, int rows, Loss loss) {
+
+        if (rows < 0 || (long) rows * sizes[0] > inputs.length)
+            throw new IllegalArgumentException(rows + " rows do not fit " + inputs.length + " inputs of size " + sizes[0]);
+        if (rows == 0) return 0f;  // No gradient: leave the parameters and the Adam step count alone
+
+        int shardCount = (rows + SHARD_ROWS - 1) / SHARD_ROWS;
+        while (shards.size() < shardCount)
+            shards.add(new Shard());
+
+        // Gradients of every shard, in parallel
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(shardCount);
+        for (int s = 0; s < shardCount; s++) {
+            Shard shard = shards.get(s);
+            int from = s * SHARD_ROWS;
+            int to = Math.min(rows, from + SHARD_ROWS);
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    shard.compute(inputs, from, to, loss);
+                }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        // Reduce in shard order, so the sums don't depend on which shard finished first
+        Shard total = shards.get(0);
+        float lossSum = total.loss;
+        for (int s = 1; s < shardCount; s++) {
+            Shard shard = shards.get(s);
+            for (int l = 0; l < layerCount; l++) {
+                add(total.weightGradients[l], shard.weightGradients[l]);
+                add(total.biasGradients[l], shard.biasGradients[l]);
+            }
+            lossSum += shard.loss;
+        }
+
+        // Adam update with the mean gradient
+        stepCount++;
+        float scale = 1f / rows;
+        double correction1 = 1 - Math.pow(beta1, stepCount);
+        double correction2 = 1 - Math.pow(beta2, stepCount);
+        float stepSize = (float) (learningRate * Math.sqrt(correction2) / correction1);
+        for (int l = 0; l < layerCount; l++) {
+            adam(weights[l], total.weightGradients[l], weightMoments[l], weightVelocities[l], scale, stepSize);
+            adam(biases[l], total.biasGradients[l], biasMoments[l], biasVelocities[l], scale, stepSize);
+        }
+
+        return lossSum / rows;
+
+    }
+
+    /**
+     * Adam update of one parameter array (with the bias correction folded into `stepSize`).
+     */
+    private void adam(float[] parameters, float[] gradients, float[] moments, float[] velocities, float scale, float stepSize) {
+        float b1 = (float) beta1;
+        float b2 = (float) beta2;
+        float eps = (float) epsilon;
+        for (int i = 0; i < parameters.length; i++) {
+            float gradient = gradients[i] * scale;
+            moments[i] = b1 * moments[i] + (1 - b1) * gradient;
+            velocities[i] = b2 * velocities[i] + (1 - b2) * gradient * gradient;
+            parameters[i] -= stepSize * moments[i] / ((float) Math.sqrt(velocities[i]) + eps);
+        }
+    }
+
+    private static void add(float[] sum, float[] values) {
+        for (int i = 0; i < sum.length; i++)
+            sum[i] += values[i];
+    }
+
+    /**
+     * @return Network holding the current parameters, in a fresh direct buffer.
+     */
+    public Network toNetwork() {
+        return new Network(Network.encode(sizes, activations, weights, biases));
+    }
+
+    /**
+     * Checkpoint the current parameters to `path`, in the format Network.load() maps.
+     */
+    public void save(Path path) throws IOException {
+        toNetwork().save(path);
+    }
+
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * @return Number of Adam updates done so far.
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Gradient workspace of one shard: its activations and gradient sums, reused from step to step.
+     */
+    private class Shard {
+
+        final float[][] activationValues = new float[layerCount + 1][];  // Post-activation outputs per layer, [0] unused (the inputs)
+        final float[] outputGradient = new float[SHARD_ROWS * maxWidth];
+        final float[] inputGradient = new float[SHARD_ROWS * maxWidth];
+        final float[][] weightGradients = new float[layerCount][];
+        final float[][] biasGradients = new float[layerCount][];
+        float loss;
+
+        Shard() {
+            for (int l = 0; l < layerCount; l++) {
+                activationValues[l + 1] = new float[SHARD_ROWS * sizes[l + 1]];
+                weightGradients[l] = new float[weights[l].length];
+                biasGradients[l] = new float[biases[l].length];
+            }
+        }
+
+        /**
+         * Sum the gradients of rows [from, to) into this shard's gradient arrays, which start from zero.
+         */
+        void compute(float[] inputs, int from, int to, Loss loss) {
+
+            int rows = to - from;
+            for (int l = 0; l < layerCount; l++) {
+                Arrays.fill(weightGradients[l], 0f);
+                Arrays.fill(biasGradients[l], 0f);
+            }
+
+            // Forward, keeping every layer's outputs
+            for (int l = 0; l < layerCount; l++) {
+                float[] in = (l == 0) ? inputs : activationValues[l];
+                int inOffset = (l == 0) ? from * sizes[0] : 0;
+                multiply(in, inOffset, rows, l, activationValues[l + 1]);
+                activations[l].apply(activationValues[l + 1], 0, rows * sizes[l + 1]);
+            }
+
+            // Loss, and its gradient with respect to the outputs
+            int outputSize = sizes[layerCount];
+            float[] outputs = activationValues[layerCount];
+            Arrays.fill(outputGradient, 0, rows * outputSize, 0f);
+            this.loss = 0f;
+            for (int r = 0; r < rows; r++)
+                this.loss += loss.evaluate(from + r, outputs, r * outputSize, outputGradient);
+
+            // Backward, layer by layer
+            float[] gradient = outputGradient;
+            float[] nextGradient = inputGradient;
+            for (int l = layerCount - 1; l >= 0; l--) {
+
+                int inSize = sizes[l];
+                int outSize = sizes[l + 1];
+                float[] out = activationValues[l + 1];
+                float[] in = (l == 0) ? inputs : activationValues[l];
+                int inOffset = (l == 0) ? from * inSize : 0;
+
+                // Through the activation
+                for (int i = 0; i < rows * outSize; i++) {
+                    gradient[i] *= switch (activations[l]) {
+                        case IDENTITY -> 1f;
+                        case RELU -> out[i] > 0f ? 1f : 0f;
+                        case TANH -> 1f - out[i] * out[i];
+                    };
+                }
+
+                // Parameter gradients
+                float[] weightGradient = weightGradients[l];
+                float[] biasGradient = biasGradients[l];
+                for (int r = 0; r < rows; r++) {
+                    int g = r * outSize;
+                    for (int o = 0; o < outSize; o++)
+                        biasGradient[o] += gradient[g + o];
+                    for (int i = 0; i < inSize; i++) {
+                        float x = in[inOffset + r * inSize + i];
+                        if (x == 0f) continue;
+                        int w = i * outSize;
+                        for (int o = 0; o < outSize; o++)
+                            weightGradient[w + o] += x * gradient[g + o];
+                    }
+                }
+
+                // Gradient of the layer's inputs, unless they're the Network's inputs
+                if (l > 0) {
+                    float[] layerWeights = weights[l];
+                    for (int r = 0; r < rows; r++) {
+                        int g = r * outSize;
+                        for (int i = 0; i < inSize; i++) {
+                            int w = i * outSize;
+                            float sum = 0f;
+                            for (int o = 0; o < outSize; o++)
+                                sum += layerWeights[w + o] * gradient[g + o];
+                            nextGradient[r * inSize + i] = sum;
+                        }
+                    }
+                    float[] swap = gradient;
+                    gradient = nextGradient;
+                    nextGradient = swap;
+                }
+
+            }
+
+        }
+
+        /**
+         * `output = input * weights[l] + biases[l]` for `rows` rows, input starting at `inOffset`.
+         */
+        private void multiply(float[] input, int inOffset, int rows, int l, float[] output) {
+            int inSize = sizes[l];
+            int outSize = sizes[l + 1];
+            float[] layerWeights = weights[l];
+            float[] bias = biases[l];
+            for (int r = 0; r < rows; r++) {
+                int out = r * outSize;
+                System.arraycopy(bias, 0, output, out, outSize);
+                for (int i = 0; i < inSize; i++) {
+                    float x = input[inOffset + r * inSize + i];
+                    if (x == 0f) continue;
+                    int w = i * outSize;
+                    for (int o = 0; o < outSize; o++)
+                        output[out + o] += x * layerWeights[w + o];
+                }
+            }
+        }
+
+    }
+
+}
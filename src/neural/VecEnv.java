@@ -0,0 +1,160 @@
+package neural;
+
+import gameobjects.Game;
+import gameobjects.GameAction;
+import gameobjects.GameObject;
+import gameobjects.GameRandom;
+import gameobjects.GameState;
+import playerobjects.Judge;
+import playerobjects.NullOutPipe;
+import playerobjects.OutPipe;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Gym-style vectorized environment: `numEnvs` independent Games stepped in lockstep, one action per Game per step.
+ * <br>Games are driven from outside through Game.step(), never through Judges, so the caller's policy decides every seat
+ * ... (self-play). Each observation is seen from the perspective of the Player who has to decide next, given in `players`.
+ * <br>Results land in flat primitive arrays that are reused across steps, one row per Game:
+ * ... `observations` (StateEncoder.FEATURE_COUNT floats per row), `legalMasks` (ActionSpace.ACTION_COUNT flags per row),
+ * ... and `rewards`, `dones`, `winners` and `players` (one entry per row).
+ * <br>Finished Games reset on their own: a done row already holds the first observation of the next Game.
+ * Game `i` of the run is seeded with `GameRandom.gameSeed(masterSeed, i)`, as in the Simulator, so runs are reproducible.
+ * <br>Not thread-safe; step each VecEnv from one thread.
+ */
+public class VecEnv {
+
+    public static final float WIN_REWARD = 1f;
+    public static final float LOSS_REWARD = -1f;
+
+    public final int numEnvs;
+    public final int numPlayers;
+
+    public final float[] observations;
+    public final boolean[] legalMasks;
+    public final float[] rewards;  // Reward of the Player who acted in the last step: WIN_REWARD, LOSS_REWARD (bankrupt or beaten), or 0
+    public final boolean[] dones;  // True if the last step finished the Game (the row has since been reset)
+    public final int[] winners;  // Winner of the finished Game on done rows, -1 otherwise
+    public final int[] players;  // Index / ID of the Player each observation and legal mask belong to
+
+    private final String[] names;
+    private final long masterSeed;
+    private long nextGameIndex = 0;
+
+    private final Game[] games;
+    private final FloatBuffer observationBuffer;  // View of `observations` for the StateEncoder
+    private final GameObject wrapper = new GameObject();  // Reused for every action
+
+    /**
+     * @param numEnvs Number of Games stepped at once.
+     * @param numPlayers Number of players per Game.
+     * @param masterSeed Seed of the whole run.
+     */
+    public VecEnv(int numEnvs, int numPlayers, long masterSeed) {
+        this.numEnvs = numEnvs;
+        this.numPlayers = numPlayers;
+        this.masterSeed = masterSeed;
+        this.observations = new float[numEnvs * StateEncoder.FEATURE_COUNT];
+        this.legalMasks = new boolean[numEnvs * ActionSpace.ACTION_COUNT];
+        this.rewards = new float[numEnvs];
+        this.dones = new boolean[numEnvs];
+        this.winners = new int[numEnvs];
+        this.players = new int[numEnvs];
+        this.observationBuffer = FloatBuffer.wrap(observations);
+        this.games = new Game[numEnvs];
+        this.names = new String[numPlayers];
+        for (int i = 0; i < numPlayers; i++)
+            names[i] = "Player " + (i + 1);
+    }
+
+    /**
+     * Start a fresh Game in every row, and observe each one's first decision.
+     * Rewards and done flags are cleared.
+     */
+    public void reset() {
+        for (int env = 0; env < numEnvs; env++) {
+            games[env] = createGame();
+            rewards[env] = 0f;
+            dones[env] = false;
+            winners[env] = -1;
+            observe(env);
+        }
+    }
+
+    /**
+     * Play one action in every Game, then observe each Game's next decision.
+     * <br>Actions should be legal according to `legalMasks`. An action whose GameAction the Game does not allow is rejected
+     * ... by the Game, which stays at the same decision (with a zero reward).
+     * @param actions Action index (see ActionSpace) per row.
+     */
+    public void step(int[] actions) {
+
+        for (int env = 0; env < numEnvs; env++) {
+
+            Game game = games[env];
+            int player = players[env];
+
+            GameState gameState = game.peekGameState();
+            GameAction action = ActionSpace.decode(actions[env], gameState, player, wrapper);
+            game.step(action, wrapper);
+
+            float reward = 0f;
+            boolean done = (game.getDecisionPlayer() == -1);
+            int winner = done ? game.getWinner() : -1;
+            if (done)
+                reward = (winner == player) ? WIN_REWARD : LOSS_REWARD;
+            else if (game.peekGameState().playerBankruptcy[player])
+                reward = LOSS_REWARD;
+
+            rewards[env] = reward;
+            dones[env] = done;
+            winners[env] = winner;
+
+            if (done)
+                games[env] = createGame();
+            observe(env);
+
+        }
+
+    }
+
+    /**
+     * @return Game currently in a row. It's driven by this VecEnv, so only read from it.
+     */
+    public Game getGame(int env) {
+        return games[env];
+    }
+
+    /**
+     * @return Number of Games started so far, over all rows.
+     */
+    public long getGameCount() {
+        return nextGameIndex;
+    }
+
+    /**
+     * Encode a row's pending decision: its Player, observation and legal mask.
+     */
+    private void observe(int env) {
+        Game game = games[env];
+        GameState gameState = game.peekGameState();
+        int player = game.getDecisionPlayer();
+        players[env] = player;
+        StateEncoder.encode(gameState, Math.max(player, 0), observationBuffer, env * StateEncoder.FEATURE_COUNT);
+        ActionSpace.legalMask(game, gameState, legalMasks, env * ActionSpace.ACTION_COUNT);
+    }
+
+    /**
+     * Builds the next Game of the run: silent, with no Judges, resting at its first decision.
+     */
+    private Game createGame() {
+        long seed = GameRandom.gameSeed(masterSeed, nextGameIndex++);
+        OutPipe[] outPipes = new OutPipe[numPlayers];
+        for (int i = 0; i < numPlayers; i++)
+            outPipes[i] = new NullOutPipe();
+        Game game = new Game(numPlayers, names, new Judge[numPlayers], outPipes, null, seed);
+        game.setVerbose(false);
+        return game;
+    }
+
+}
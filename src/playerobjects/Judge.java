@@ -1,6 +1,7 @@
 package playerobjects;
 
 import gameobjects.ActionState;
+import gameobjects.Game;
 import gameobjects.GameAction;
 import gameobjects.GameState;
 
@@ -21,4 +22,11 @@ public interface Judge {
      */
     ActionState decide(Set<GameAction> possibleActions, OutPipe outPipe, GameState gameState, boolean canEndTurn);
 
+    /**
+     * Called once by the Game this Judge plays in, before its first decision.
+     * Search-based Judges keep the Game to copy it at each decision (see Game.copy()); the rest ignore it.
+     * @param game Game the Judge's Player is seated in.
+     */
+    default void bind(Game game) {}
+
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package playerobjects;
+
+import gameobjects.PromptString;
+
+/**
+ * OutPipe implementation that discards all output.
+ * Intended for machine-driven (headless) Players, where nobody is reading the prompts.
+ */
+public class NullOutPipe implements OutPipe {
+
+    @Override
+    public void output(String prompt) {}
+
+    @Override
+    public void output(PromptString prompt) {}
+
+    @Override
+    public boolean wantsPrompts() {
+        return false;
+    }
+
+}
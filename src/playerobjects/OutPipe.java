@@ -8,4 +8,11 @@ import gameobjects.PromptString;
 public interface OutPipe {
     void output(String prompt);
     void output(PromptString prompt);
+
+    /**
+     * @return False if this OutPipe discards prompts, in which case the Game doesn't bother building them ("quiet mode").
+     */
+    default boolean wantsPrompts() {
+        return true;
+    }
 }
\ No newline at end of file
@@ -20,7 +20,6 @@ package playerobjects;
 
 
 import gameobjects.*;
-import gfx.GFXJudge;
 
 import java.util.*;
 
@@ -30,34 +29,43 @@ import java.util.*;
  */
 public class Player implements OutputsWarnings {
 
-    private static int ID_INCREMENT = 0;
-
     private final String name;
-    private final int id = ID_INCREMENT++;
+    private final int id;  // Seat index within the parent Game
 
     private final UUID uuid;
 
     public Communicator communicator;  // TODO: Temporarily public!
-    //private final Judge judge = new DebugJudge(new ScannerInPipe());  // TODO
-    private final Judge judge = new GFXJudge();
-    private final OutPipe output = new DebugOutPipe();
+    private final Judge judge;
+    private final OutPipe output;
 
-    public Player(Communicator communicator, String name, UUID uuid) {
+    /**
+     * Constructs a Player with a given decision-making Judge and output mechanism.
+     * @param id Seat index within the parent Game, matching `GameState.turnIndicator`.
+     * @param judge Judge responsible for this Player's decisions (e.g. GFXJudge, DebugJudge, RandomJudge).
+     * @param output OutPipe receiving this Player's prompts and messages.
+     */
+    public Player(Communicator communicator, int id, String name, UUID uuid, Judge judge, OutPipe output) {
         this.communicator = communicator;
+        this.id = id;
         this.name = name;
         this.uuid = uuid;
+        this.judge = judge;
+        this.output = output;
+    }
+
+    // Defaults to stdin / stdout debugging.
+    public Player(Communicator communicator, int id, String name, UUID uuid) {
+        this(communicator, id, name, uuid, new DebugJudge(new ScannerInPipe()), new DebugOutPipe());
     }
 
     /**
      * Entry method for the Game object to signal a Player object to take its turn.
      * @param legalActions Set of GameActions considered legal by the caller.
      * @param uuid Player's UUID key, supplied here to ensure only the Game object can apply the signal.
-     * @param prompt Prompt displayed to the user.
+     * @param prompt Prompt displayed to the user. Null if the Player's OutPipe doesn't want prompts.
      */
     public void signalTurn(Set<GameAction> legalActions, UUID uuid, PromptString prompt) {
 
-        if (prompt == null) prompt = new PromptString("", this);
-
         // Reject bad authentication
         if (!uuid.equals(this.uuid)) {
             warn(3);
@@ -68,7 +76,8 @@ public class Player implements OutputsWarnings {
         syncState();
 
         // Output prompt
-        output.output(prompt);
+        if (prompt != null && output.wantsPrompts())
+            output.output(prompt);
 
         // Black-box decision-making
         // Also, ugly stinky extraction process
@@ -77,8 +86,8 @@ public class Player implements OutputsWarnings {
         GameAction decidedAction = actionMap.selectedAction;
         GameObject wrapper = actionMap.selectedContext;
 
-        // async param use case..?
-        takeTurn(new GameAction[]{decidedAction}, new GameObject[]{wrapper}, false);
+        // The Game also signals Players on other Players' turns (auctions, trades, debts), hence async
+        takeTurn(new GameAction[]{decidedAction}, new GameObject[]{wrapper}, gameStateCopy.turnIndicator != id);
     }
 
     /**
@@ -110,6 +119,7 @@ public class Player implements OutputsWarnings {
                 case JAIL_PAY_BAIL -> performJailAction(GameAction.JAIL_PAY_BAIL);
                 case JAIL_USE_CARD -> performJailAction(GameAction.JAIL_USE_CARD);
                 case END_TURN -> endTurn();
+                case DECLARE_BANKRUPTCY -> declareBankruptcy();
                 default -> warn(2);
             }
         }
@@ -187,6 +197,10 @@ public class Player implements OutputsWarnings {
         communicator.requestAction(GameAction.END_TURN, uuid, null);
     }
 
+    private void declareBankruptcy() {
+        communicator.requestAction(GameAction.DECLARE_BANKRUPTCY, uuid, null);
+    }
+
     ////////////////////////////////////////
 
     // Below state variables should be used as *indicators* on if certain actions are valid.
@@ -207,13 +221,20 @@ public class Player implements OutputsWarnings {
     }
 
 
+    /**
+     * @return False if this Player's output is discarded, so callers can skip building it.
+     */
+    public boolean wantsPrompts() {
+        return output.wantsPrompts();
+    }
+
     public void output(UUID uuid, String content) {
         if (uuid.equals(this.uuid))
             output.output(content);
     }
 
     public void warn(int code) {
-        System.err.println("Warning called for Player id=" + id + ", CODE " + code + " || " + Calendar.getInstance());
+        EngineLog.log(LOG_EVENT.WARN, -1, id, code, 0);
     }
 
 }
\ No newline at end of file
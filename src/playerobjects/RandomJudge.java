@@ -0,0 +1,160 @@
+package playerobjects;
+
+import gameobjects.*;
+
+import java.util.Set;
+
+/**
+ * Judge implementation that makes random (but roughly sane) decisions without any user input.
+ * <br>Intended for headless simulation, testing, and as a baseline opponent.
+ * Never offers trades, since it has no way of valuing them.
+ */
+public class RandomJudge implements Judge {
+
+    public static final int CASH_RESERVE = 200;  // Cash kept on hand before building / unmortgaging
+    public static final int BID_INCREMENT = 10;
+
+    private final int playerIndex;
+    private final GameRandom random;
+
+    /**
+     * @param playerIndex Index / ID of the Player this Judge decides for.
+     * @param random Stream this Judge draws its decisions from, e.g. the seat's sub-stream of a Game's seed.
+     */
+    public RandomJudge(int playerIndex, GameRandom random) {
+        this.playerIndex = playerIndex;
+        this.random = random;
+    }
+
+    public RandomJudge(int playerIndex, long seed) {
+        this(playerIndex, new GameRandom(seed));
+    }
+
+    @Override
+    public ActionState decide(Set<GameAction> possibleActions, OutPipe outPipe, GameState gameState, boolean canEndTurn) {
+
+        GameObject wrapper = new GameObject();
+        wrapper.objInt = -1;
+        GameAction action;
+
+        int cash = gameState.cash[playerIndex];
+
+        // Landed on an unowned Property - usually buy it
+        if (possibleActions.contains(GameAction.PROPERTY_BUY_OR_AUCTION)) {
+            action = GameAction.PROPERTY_BUY_OR_AUCTION;
+            wrapper.objProperty = Board.SQUARES.get(gameState.playerLocations[playerIndex]);
+            wrapper.objBool = random.nextInt(4) != 0;
+        }
+
+        // Auction sub-routine - raise the bid while the Property is still cheap enough, otherwise concede
+        else if (possibleActions.contains(GameAction.AUCTION_BID)) {
+            action = GameAction.AUCTION_BID;
+            int maxBid = gameState.getMaximumBid();
+            int limit = Math.min(cash, Board.SQUARES.get(gameState.biddingProperty).getMarketPrice());
+            if (maxBid + BID_INCREMENT <= limit && random.nextBoolean())
+                wrapper.objInt = Math.min(limit, maxBid + BID_INCREMENT * (1 + random.nextInt(5)));
+        }
+
+        // Responding to a trade
+        else if (possibleActions.contains(GameAction.TRADE_RESPOND) && !possibleActions.contains(GameAction.DECLARE_BANKRUPTCY)) {
+            action = GameAction.TRADE_RESPOND;
+            wrapper.objBool = random.nextBoolean();
+        }
+
+        // Jail - use a card if we have one, otherwise pay or roll
+        else if (possibleActions.contains(GameAction.JAIL_PAY_BAIL)) {
+            boolean mustLeave = !possibleActions.contains(GameAction.JAIL_THROW_DICE);
+            if (possibleActions.contains(GameAction.JAIL_USE_CARD) && gameState.gtfoJailCards[playerIndex] > 0)
+                action = GameAction.JAIL_USE_CARD;
+            else if (mustLeave || (cash >= Property.BAIL_AMOUNT + CASH_RESERVE && random.nextBoolean()))
+                action = GameAction.JAIL_PAY_BAIL;
+            else
+                action = GameAction.JAIL_THROW_DICE;
+        }
+
+        // Raising funds - sell houses first, then mortgage, then give up
+        else if (possibleActions.contains(GameAction.DECLARE_BANKRUPTCY)) {
+            int houseIndex = findOwnedSquare(gameState, true, false);
+            int mortgageIndex = findOwnedSquare(gameState, false, false);
+            if (houseIndex != -1) {
+                action = GameAction.HOUSE_SELL;
+                wrapper.objProperty = Board.SQUARES.get(houseIndex);
+            } else if (mortgageIndex != -1) {
+                action = GameAction.PROPERTY_MORTGAGE;
+                wrapper.objProperty = Board.SQUARES.get(mortgageIndex);
+            } else {
+                action = GameAction.DECLARE_BANKRUPTCY;
+            }
+        }
+
+        // Pre- and post-move actions - occasionally build or unmortgage, otherwise end the phase
+        else if (possibleActions.contains(GameAction.END_TURN)) {
+            action = GameAction.END_TURN;
+            int buildIndex = findBuildableSquare(gameState);
+            int unmortgageIndex = findOwnedSquare(gameState, false, true);
+            if (buildIndex != -1 && random.nextBoolean()) {
+                action = GameAction.HOUSE_BUILD;
+                wrapper.objProperty = Board.SQUARES.get(buildIndex);
+            } else if (unmortgageIndex != -1 && random.nextBoolean()) {
+                action = GameAction.PROPERTY_UNMORTGAGE;
+                wrapper.objProperty = Board.SQUARES.get(unmortgageIndex);
+            }
+        }
+
+        // Anything else - only one sensible choice is left (e.g. a forced move)
+        else if (possibleActions.contains(GameAction.MOVE_THROW_DICE)) {
+            action = GameAction.MOVE_THROW_DICE;
+        }
+        else {
+            action = GameAction.END_TURN;
+            for (GameAction possibleAction : GameAction.values()) {  // Iterate in enum order to keep decisions reproducible
+                if (possibleAction != GameAction.TRADE_OFFER && possibleActions.contains(possibleAction)) {
+                    action = possibleAction;
+                    break;
+                }
+            }
+        }
+
+        return new ActionState(action, wrapper);
+
+    }
+
+    /**
+     * Finds an owned Property matching the given criteria.
+     * @param withHouses True to look for a Property with houses on it.
+     * @param mortgaged True to look for a mortgaged Property (affordable to unmortgage), false for an unmortgaged one.
+     * @return Index of the first matching Property, or -1 if there are none.
+     */
+    private int findOwnedSquare(GameState gameState, boolean withHouses, boolean mortgaged) {
+        for (int i = 0; i < Board.SQUARES.size(); i++) {
+            if (gameState.ownership[i] != playerIndex || gameState.mortgages[i] != mortgaged) continue;
+            if (withHouses != (gameState.houses[i] > 0)) continue;
+            if (mortgaged && gameState.cash[playerIndex] < Board.SQUARES.get(i).getMarketPrice() + CASH_RESERVE) continue;
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return Index of the least-developed Property in one of the Player's Monopolies that can still be built on, or -1.
+     */
+    private int findBuildableSquare(GameState gameState) {
+        int bestIndex = -1;
+        for (int i = 0; i < Board.SQUARES.size(); i++) {
+            Property property = Board.SQUARES.get(i);
+            if (
+                       gameState.ownership[i] != playerIndex
+                    || property.getColor() == COLOR_SET.RAILROAD
+                    || property.getColor() == COLOR_SET.UTILITY
+                    || gameState.houses[i] >= 5
+                    || gameState.mortgages[i]
+                    || gameState.cash[playerIndex] < property.getBaseHouseCost() + CASH_RESERVE
+                    || !gameState.propertyIsMonopoly(i)
+            ) continue;
+            if (bestIndex == -1 || gameState.houses[i] < gameState.houses[bestIndex])
+                bestIndex = i;
+        }
+        return bestIndex;
+    }
+
+}
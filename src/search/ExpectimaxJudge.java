@@ -0,0 +1,284 @@
+package search;
+
+import gameobjects.ActionState;
+import gameobjects.Dice;
+import gameobjects.Game;
+import gameobjects.GameAction;
+import gameobjects.GameObject;
+import gameobjects.GameRandom;
+import gameobjects.GameState;
+import neural.ActionSpace;
+import playerobjects.Judge;
+import playerobjects.OutPipe;
+import playerobjects.RandomJudge;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Judge implementation that picks the action with the best expected StateValue over the next few dice tosses, computed exactly.
+ * <br>Every toss is a chance node over its 15 distinct outcomes (dice sum, and whether it's doubles), weighted by probability,
+ * ... instead of being sampled as in MctsJudge. Suited to short-horizon decisions such as buy vs. auction,
+ * ... building before a roll, or paying bail vs. rolling for doubles.
+ * <br>Only the root decision is maximized: the decisions inside the horizon, the Judge's own included, follow a RandomJudge policy
+ * ... seeded by the position, and card draws are seeded by the position too. A position's value is then a function of the position,
+ * ... so it's memoized in a TranspositionTable shared across threads and decisions.
+ * <br>Each root action, and each outcome of the first toss below it, is evaluated in parallel on a fork-join pool, on its own Game copy.
+ * <br>Unbound, or for another Player's decision, it falls back to a RandomJudge.
+ */
+public class ExpectimaxJudge implements Judge {
+
+    public static final int DEFAULT_DEPTH = 2;  // Dice tosses looked ahead
+    public static final int DEFAULT_TABLE_BITS = 20;
+
+    // Distinct toss outcomes: one representative roll per (sum, doubles), and its probability
+    private static final int[] TOSS_R1 = new int[15];
+    private static final int[] TOSS_R2 = new int[15];
+    private static final float[] TOSS_PROBABILITIES = new float[15];
+    static {
+        int count = 0;
+        for (int sum = 2; sum <= 12; sum++) {
+            for (int doubles = 1; doubles >= 0; doubles--) {
+                int ways = 0;
+                for (int r1 = 1; r1 <= 6; r1++) {
+                    int r2 = sum - r1;
+                    if (r2 >= 1 && r2 <= 6 && (r1 == r2) == (doubles == 1)) ways++;
+                }
+                if (ways == 0) continue;
+                TOSS_R1[count] = (doubles == 1) ? sum / 2 : Math.max(1, sum - 6);
+                TOSS_R2[count] = sum - TOSS_R1[count];
+                TOSS_PROBABILITIES[count] = ways / 36f;
+                count++;
+            }
+        }
+    }
+
+    private final int playerIndex;
+    private final GameRandom random;
+    private final int depth;
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+    private final RandomJudge fallback;
+
+    private Game game = null;
+
+    /**
+     * @param playerIndex Index / ID of the Player this Judge decides for.
+     * @param random Stream the Judge draws its randomness from.
+     * @param depth Number of dice tosses to look ahead.
+     * @param pool Pool the root actions and toss outcomes are evaluated on.
+     */
+    public ExpectimaxJudge(int playerIndex, GameRandom random, int depth, ForkJoinPool pool) {
+        this.playerIndex = playerIndex;
+        this.random = random;
+        this.depth = depth;
+        this.pool = pool;
+        this.table = new TranspositionTable(DEFAULT_TABLE_BITS);
+        this.fallback = new RandomJudge(playerIndex, random.split(0));
+    }
+
+    public ExpectimaxJudge(int playerIndex, GameRandom random) {
+        this(playerIndex, random, DEFAULT_DEPTH, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public void bind(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public ActionState decide(Set<GameAction> possibleActions, OutPipe outPipe, GameState gameState, boolean canEndTurn) {
+
+        if (game == null || game.getDecisionPlayer() != playerIndex)
+            return fallback.decide(possibleActions, outPipe, gameState, canEndTurn);
+
+        long seed = random.nextLong();
+        Game root = game.copy(seed);
+        boolean[] legal = new boolean[ActionSpace.ACTION_COUNT];
+        int count = ActionSpace.legalMask(root, root.peekGameState(), legal, 0);
+        int[] actions = new int[count];
+        int n = 0;
+        for (int action = 0; action < ActionSpace.ACTION_COUNT; action++)
+            if (legal[action]) actions[n++] = action;
+
+        int best = actions[0];
+        if (count > 1) {
+            float[] values = pool.invoke(new RecursiveTask<float[]>() {
+                @Override
+                protected float[] compute() {
+                    List<RecursiveTask<Float>> tasks = new ArrayList<>(actions.length);
+                    for (int action : actions)
+                        tasks.add(new ActionTask(root, seed, action));
+                    invokeAll(tasks);
+                    float[] values = new float[actions.length];
+                    for (int i = 0; i < actions.length; i++)
+                        values[i] = tasks.get(i).join();
+                    return values;
+                }
+            });
+            // Ties go to the lower index
+            float bestValue = values[0];
+            for (int i = 1; i < actions.length; i++) {
+                if (values[i] > bestValue) {
+                    bestValue = values[i];
+                    best = actions[i];
+                }
+            }
+        }
+
+        GameObject wrapper = new GameObject();
+        return new ActionState(ActionSpace.decode(best, gameState, playerIndex, wrapper), wrapper);
+
+    }
+
+    private static boolean tosses(GameAction action) {
+        return action == GameAction.MOVE_THROW_DICE || action == GameAction.JAIL_THROW_DICE;
+    }
+
+    /**
+     * Expected value of one root action, on its own copy of the Game.
+     */
+    private class ActionTask extends RecursiveTask<Float> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Game source;
+        private final long seed;
+        private final int action;
+
+        ActionTask(Game source, long seed, int action) {
+            this.source = source;
+            this.seed = seed;
+            this.action = action;
+        }
+
+        @Override
+        protected Float compute() {
+            // The source is decide()'s private copy, which nothing modifies, so every task can decode from it
+            GameObject wrapper = new GameObject();
+            GameAction gameAction = ActionSpace.decode(action, source.peekGameState(), playerIndex, wrapper);
+            if (!tosses(gameAction))
+                return new Search(source.copy(seed)).expectation(gameAction, wrapper, depth);
+
+            // Each outcome of the toss on its own copy (Game.copy() synchronizes on the source)
+            List<RecursiveTask<Float>> outcomes = new ArrayList<>(TOSS_PROBABILITIES.length);
+            for (int k = 0; k < TOSS_PROBABILITIES.length; k++) {
+                int outcome = k;
+                outcomes.add(new RecursiveTask<>() {
+                    @Override
+                    protected Float compute() {
+                        Search branch = new Search(source.copy(seed));
+                        return branch.outcome(gameAction, wrapper, outcome, depth);
+                    }
+                });
+            }
+            invokeAll(outcomes);
+            float value = 0f;
+            for (int k = 0; k < outcomes.size(); k++)
+                value += TOSS_PROBABILITIES[k] * outcomes.get(k).join();
+            return value;
+        }
+
+    }
+
+    /**
+     * Depth-first expectimax on one Game copy, rolled back with marks (see Game.mark()).
+     */
+    private class Search {
+
+        final Game game;
+        private final RandomJudge[] policies;
+        private final GameRandom[] policyRandoms;
+        private final float[] values;
+        private final boolean[] legal = new boolean[ActionSpace.ACTION_COUNT];
+
+        Search(Game game) {
+            this.game = game;
+            int numPlayers = game.peekGameState().numPlayers;
+            this.policies = new RandomJudge[numPlayers];
+            this.policyRandoms = new GameRandom[numPlayers];
+            for (int i = 0; i < numPlayers; i++) {
+                policyRandoms[i] = random.split(1 + i);
+                policies[i] = new RandomJudge(i, policyRandoms[i]);
+            }
+            this.values = new float[numPlayers];
+        }
+
+        /**
+         * @return Value of the current position with `depth` tosses left to look ahead.
+         */
+        float value(int depth) {
+
+            GameState gameState = game.peekGameState();
+            if (depth == 0 || game.getDecisionPlayer() == -1) {
+                StateValue.evaluate(game, gameState, values);
+                return values[playerIndex];
+            }
+
+            long fingerprint = Fingerprint.of(game, gameState);
+            long key = Fingerprint.mix(fingerprint, depth);
+            float cached = table.get(key);
+            if (!Float.isNaN(cached)) return cached;
+
+            // The policy's decision and any card drawn next are seeded by the position
+            int player = game.getDecisionPlayer();
+            policyRandoms[player].seek(fingerprint);
+            Set<GameAction> legalActions = game.getLegalActions();
+            ActionState decision = policies[player].decide(legalActions, null, gameState, legalActions.contains(GameAction.END_TURN));
+            GameAction action = decision.selectedAction;
+            GameObject wrapper = decision.selectedContext;
+            if ((game.getLegalActionMask() & action.mask()) == 0) {
+                ActionSpace.legalMask(game, gameState, legal, 0);
+                int first = 0;
+                while (!legal[first]) first++;
+                wrapper = new GameObject();
+                action = ActionSpace.decode(first, gameState, player, wrapper);
+            }
+
+            float value = expectation(action, wrapper, depth);
+            table.put(key, value);
+            return value;
+
+        }
+
+        /**
+         * @return Expected value of taking an action at the current position. The position is left as it was.
+         */
+        float expectation(GameAction action, GameObject wrapper, int depth) {
+            if (!tosses(action)) {
+                int mark = game.mark();
+                game.seekChance(Fingerprint.of(game, game.peekGameState()) >>> 1);
+                game.step(action, wrapper);
+                float value = value(depth);
+                game.rollbackTo(mark);
+                return value;
+            }
+            float value = 0f;
+            for (int k = 0; k < TOSS_PROBABILITIES.length; k++)
+                value += TOSS_PROBABILITIES[k] * outcome(action, wrapper, k, depth);
+            return value;
+        }
+
+        /**
+         * @return Value of taking a tossing action with toss outcome `k`. The position is left as it was.
+         */
+        float outcome(GameAction action, GameObject wrapper, int k, int depth) {
+            int mark = game.mark();
+            Dice dice = game.getDice();
+            game.seekChance(Fingerprint.of(game, game.peekGameState()) >>> 1);
+            dice.forceNextToss(TOSS_R1[k], TOSS_R2[k]);
+            game.step(action, wrapper);
+            dice.forceNextToss(0, 0);
+            float value = value(depth - 1);
+            game.rollbackTo(mark);
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,35 @@
+package search;
+
+import gameobjects.Game;
+import gameobjects.GameState;
+
+/**
+ * 64-bit hash of a search position, identifying it in trees and transposition tables.
+ */
+final class Fingerprint {
+
+    private Fingerprint() {}
+
+    /**
+     * @return Hash of everything a decision depends on: the pending decision, the turn, and the GameState.
+     * The GameState part starts from its Zobrist hash (see GameState.getZobristHash()), which buckets cash, so exact cash and bids are mixed in on top.
+     */
+    static long of(Game game, GameState gameState) {
+        long hash = mix(game.getDecisionPlayer(), game.getDecisionCode());
+        hash = mix(hash, game.getLegalActionMask());
+        hash = mix(hash, game.getTurnCount());
+        hash = mix(hash, gameState.getZobristHash());
+        for (int i = 0; i < gameState.numPlayers; i++)
+            hash = mix(hash, ((long) gameState.cash[i] << 32) | (gameState.auctionBids[i] & 0xFFFFFFFFL));
+        return hash;
+    }
+
+    /**
+     * @return `hash` with `value` mixed in.
+     */
+    static long mix(long hash, long value) {
+        hash = (hash + value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+}
@@ -0,0 +1,187 @@
+package search;
+
+import gameobjects.ActionState;
+import gameobjects.Game;
+import gameobjects.GameAction;
+import gameobjects.GameObject;
+import gameobjects.GameRandom;
+import gameobjects.GameState;
+import neural.ActionSpace;
+import playerobjects.Judge;
+import playerobjects.OutPipe;
+import playerobjects.RandomJudge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Judge implementation that decides by Monte Carlo Tree Search over the ActionSpace (every GameAction with its target square).
+ * <br>Searches a copy of the Game it's bound to (see Judge.bind()), whose dice and card decks are reseeded so the search can't
+ * ... see the real rolls coming. Dice rolls and card draws are chance nodes: each action's children are keyed by the outcome it met.
+ * <br>Root-parallel: every worker thread searches its own copy with its own tree, and the root visit counts are summed in worker order.
+ * With an iteration budget only, decisions are therefore reproducible for a fixed number of threads, on any machine
+ * ... (the default constructor runs one worker per processor, so pass `threads` explicitly to reproduce across machines).
+ * A time budget trades reproducibility for a fixed latency.
+ * <br>Trees are kept between decisions and re-rooted at the new position when the last search already reached it.
+ * <br>Unbound, or for another Player's decision, it falls back to a RandomJudge.
+ */
+public class MctsJudge implements Judge {
+
+    public static final int DEFAULT_ITERATIONS = 1000;
+    public static final double DEFAULT_EXPLORATION = 0.3;  // Rewards are net worth shares, so they're close together
+    public static final int DEFAULT_ROLLOUT_TURNS = 8;  // Player turns played past the tree before evaluating
+    public static final int DEFAULT_MAX_NODES = 200_000;  // Per worker
+
+    private final int playerIndex;
+    private final GameRandom random;
+    private final int iterationBudget;
+    private final long timeBudgetNanos;
+    private final ForkJoinPool pool;
+    private final MctsWorker[] workers;
+    private final RandomJudge fallback;
+
+    private Game game = null;
+
+    private final boolean[] legal = new boolean[ActionSpace.ACTION_COUNT];
+    private final int[] visitTotals = new int[ActionSpace.ACTION_COUNT];
+    private final double[] valueTotals = new double[ActionSpace.ACTION_COUNT];
+    private long iterationCount = 0;
+    private long searchNanos = 0;
+
+    /**
+     * @param playerIndex Index / ID of the Player this Judge decides for.
+     * @param random Stream the search draws its randomness from.
+     * @param threads Number of root-parallel workers.
+     * @param iterationBudget Iterations per decision, over all workers. 0 for no limit.
+     * @param timeBudgetNanos Search time per decision. 0 for no limit.
+     * @param pool Pool the workers run on.
+     */
+    public MctsJudge(int playerIndex, GameRandom random, int threads, int iterationBudget, long timeBudgetNanos, ForkJoinPool pool) {
+        if (iterationBudget <= 0 && timeBudgetNanos <= 0)
+            throw new IllegalArgumentException("MctsJudge needs an iteration or time budget");
+        this.playerIndex = playerIndex;
+        this.random = random;
+        this.iterationBudget = iterationBudget;
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.pool = pool;
+        this.workers = new MctsWorker[threads];
+        for (int i = 0; i < threads; i++)
+            workers[i] = new MctsWorker(DEFAULT_EXPLORATION, DEFAULT_ROLLOUT_TURNS, DEFAULT_MAX_NODES, random.split(i));
+        this.fallback = new RandomJudge(playerIndex, random.split(threads));
+    }
+
+    public MctsJudge(int playerIndex, GameRandom random, int threads, int iterationBudget, long timeBudgetNanos) {
+        this(playerIndex, random, threads, iterationBudget, timeBudgetNanos, ForkJoinPool.commonPool());
+    }
+
+    public MctsJudge(int playerIndex, GameRandom random) {
+        this(playerIndex, random, Runtime.getRuntime().availableProcessors(), DEFAULT_ITERATIONS, 0);
+    }
+
+    @Override
+    public void bind(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public ActionState decide(Set<GameAction> possibleActions, OutPipe outPipe, GameState gameState, boolean canEndTurn) {
+
+        if (game == null || game.getDecisionPlayer() != playerIndex)
+            return fallback.decide(possibleActions, outPipe, gameState, canEndTurn);
+
+        // Nothing to choose from - skip the search, and copying the Game for it
+        if (ActionSpace.legalMask(game, game.peekGameState(), legal, 0) == 1) {
+            int action = 0;
+            while (!legal[action]) action++;
+            return decision(action, gameState);
+        }
+
+        long start = System.nanoTime();
+        long deadline = (timeBudgetNanos > 0) ? start + timeBudgetNanos : Long.MAX_VALUE;
+        int iterations = (iterationBudget > 0) ? (iterationBudget + workers.length - 1) / workers.length : Integer.MAX_VALUE;
+
+        for (MctsWorker worker : workers)
+            worker.prepare(game, random.nextLong());
+
+        MctsNode root = workers[0].root;
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(workers.length);
+        for (MctsWorker worker : workers) {
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    worker.search(iterations, deadline);
+                }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        // Sum the roots in worker order, then take the most visited action (ties to the better value, then the lower index)
+        for (int action : root.actions) {
+            visitTotals[action] = 0;
+            valueTotals[action] = 0;
+        }
+        for (MctsWorker worker : workers) {
+            MctsNode workerRoot = worker.root;
+            for (int edge = 0; edge < workerRoot.actions.length; edge++) {
+                visitTotals[workerRoot.actions[edge]] += workerRoot.visits[edge];
+                valueTotals[workerRoot.actions[edge]] += workerRoot.valueSums[edge];
+            }
+            iterationCount += worker.iterations;
+            worker.iterations = 0;
+        }
+        int best = -1;
+        for (int action = 0; action < ActionSpace.ACTION_COUNT; action++) {
+            if (!contains(root.actions, action)) continue;
+            if (best == -1 || visitTotals[action] > visitTotals[best]
+                    || (visitTotals[action] == visitTotals[best] && valueTotals[action] > valueTotals[best]))
+                best = action;
+        }
+
+        searchNanos += System.nanoTime() - start;
+        return decision(best, gameState);
+
+    }
+
+    private ActionState decision(int action, GameState gameState) {
+        GameObject wrapper = new GameObject();
+        return new ActionState(ActionSpace.decode(action, gameState, playerIndex, wrapper), wrapper);
+    }
+
+    private static boolean contains(int[] actions, int action) {
+        for (int a : actions)
+            if (a == action) return true;
+        return false;
+    }
+
+    /**
+     * @return Number of search iterations (playouts) run so far, over all decisions and workers.
+     */
+    public long getIterationCount() {
+        return iterationCount;
+    }
+
+    /**
+     * @return Wall-clock time spent searching so far.
+     */
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    /**
+     * @return Playouts per second over all searches so far.
+     */
+    public double getPlayoutsPerSecond() {
+        return (searchNanos > 0) ? iterationCount * 1e9 / searchNanos : 0;
+    }
+
+}
@@ -0,0 +1,68 @@
+package search;
+
+/**
+ * Decision node of an MCTS tree: one position where a Player has to decide, with statistics per legal action (edge).
+ * <br>Chance (dice rolls, card draws) sits on the edges: an action leads to one child per chance outcome seen so far,
+ * ... keyed by `outcome` and chained through `sibling`, so each edge is a chance node whose branches are sampled by playing the Game.
+ */
+final class MctsNode {
+
+    final int player;  // Index / ID of the deciding Player, -1 for a finished Game
+    final long fingerprint;  // Identifies the position, for finding it again when the tree is reused
+    final long outcome;  // Chance outcome on the parent's edge that led here
+
+    final int[] actions;  // Legal ActionSpace indexes, in the order they're first tried
+    final int[] visits;
+    final double[] valueSums;  // Sum of `player`'s rewards through each action
+    final MctsNode[] children;  // First child of each action, the rest chained through `sibling`
+    MctsNode sibling = null;
+
+    int totalVisits = 0;
+    int untried;  // Actions not tried yet: the last `untried` of `actions`
+
+    MctsNode(int player, long fingerprint, long outcome, int[] actions) {
+        this.player = player;
+        this.fingerprint = fingerprint;
+        this.outcome = outcome;
+        this.actions = actions;
+        this.visits = new int[actions.length];
+        this.valueSums = new double[actions.length];
+        this.children = new MctsNode[actions.length];
+        this.untried = actions.length;
+    }
+
+    /**
+     * @return Child reached through `edge` with a given chance outcome, null if it hasn't been seen yet.
+     */
+    MctsNode child(int edge, long outcome) {
+        for (MctsNode child = children[edge]; child != null; child = child.sibling)
+            if (child.outcome == outcome) return child;
+        return null;
+    }
+
+    void addChild(int edge, MctsNode child) {
+        child.sibling = children[edge];
+        children[edge] = child;
+    }
+
+    /**
+     * Pick the edge to descend: untried actions first, then by UCB1.
+     * @param exploration UCB1 exploration constant.
+     */
+    int select(double exploration) {
+        if (untried > 0)
+            return actions.length - untried--;
+        double logVisits = Math.log(totalVisits);
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int edge = 0; edge < actions.length; edge++) {
+            double score = valueSums[edge] / visits[edge] + exploration * Math.sqrt(logVisits / visits[edge]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = edge;
+            }
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,240 @@
+package search;
+
+import gameobjects.ActionState;
+import gameobjects.CardStack;
+import gameobjects.Dice;
+import gameobjects.Game;
+import gameobjects.GameAction;
+import gameobjects.GameObject;
+import gameobjects.GameRandom;
+import gameobjects.GameState;
+import neural.ActionSpace;
+import playerobjects.RandomJudge;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * One root-parallel MCTS search: its own copy of the Game and its own tree, so workers never share anything while they run.
+ * <br>Every iteration rolls the copy back to the root (see Game.mark()), resamples its dice and card decks, walks the tree with UCB1,
+ * ... adds one node, plays a short rollout with RandomJudges and backs up the StateValue of where it ended.
+ * <br>The tree is kept from one decision to the next: prepare() re-roots it at the new position if the old tree reached it.
+ */
+final class MctsWorker {
+
+    private final double exploration;
+    private final int rolloutTurns;
+    private final int maxNodes;
+    private final GameRandom random;  // Shuffles new nodes' actions and picks the positions chance is resampled from
+
+    private Game game = null;
+    private int rootMark;
+    private RandomJudge[] rolloutJudges = null;
+    private float[] rewards = null;
+
+    MctsNode root = null;
+    private int nodeCount = 0;
+    long iterations = 0;
+
+    private final boolean[] legal = new boolean[ActionSpace.ACTION_COUNT];
+    private final GameObject wrapper = new GameObject();
+    private MctsNode[] pathNodes = new MctsNode[64];
+    private int[] pathEdges = new int[64];
+
+    MctsWorker(double exploration, int rolloutTurns, int maxNodes, GameRandom random) {
+        this.exploration = exploration;
+        this.rolloutTurns = rolloutTurns;
+        this.maxNodes = maxNodes;
+        this.random = random;
+    }
+
+    /**
+     * Get ready to search a Game's pending decision: copy the Game, and find its position in the tree of the last search.
+     * @param source Game to search. Only copied, never stepped.
+     * @param seed Seed of the copy's dice and card decks.
+     */
+    void prepare(Game source, long seed) {
+
+        game = source.copy(seed);
+        rootMark = game.mark();
+
+        int numPlayers = game.peekGameState().numPlayers;
+        if (rolloutJudges == null) {
+            rolloutJudges = new RandomJudge[numPlayers];
+            for (int i = 0; i < numPlayers; i++)
+                rolloutJudges[i] = new RandomJudge(i, random.split(i));
+            rewards = new float[numPlayers];
+        }
+
+        MctsNode reused = find(root, Fingerprint.of(game, game.peekGameState()));
+        if (reused != null) {
+            root = reused;
+            nodeCount = count(reused);
+        } else {
+            root = expand(0);
+            nodeCount = 1;
+        }
+
+    }
+
+    /**
+     * Run iterations until `iterations` are done or `deadline` (System.nanoTime()) has passed.
+     */
+    void search(int iterations, long deadline) {
+        for (int i = 0; i < iterations; i++) {
+            if ((i & 15) == 0 && System.nanoTime() >= deadline) break;
+            iterate();
+        }
+    }
+
+    private void iterate() {
+
+        game.rollbackTo(rootMark);
+        game.seekChance(random.nextLong() >>> 1);
+
+        // Selection & expansion
+        MctsNode node = root;
+        int depth = 0;
+        while (node.actions.length > 0 && node.player == game.getDecisionPlayer()) {
+            int edge = node.select(exploration);
+            if (depth == pathNodes.length) {
+                pathNodes = Arrays.copyOf(pathNodes, depth * 2);
+                pathEdges = Arrays.copyOf(pathEdges, depth * 2);
+            }
+            pathNodes[depth] = node;
+            pathEdges[depth] = edge;
+            depth++;
+            long outcome = play(node.actions[edge]);
+            MctsNode child = node.child(edge, outcome);
+            if (child == null) {
+                if (nodeCount < maxNodes) {
+                    node.addChild(edge, expand(outcome));
+                    nodeCount++;
+                }
+                break;
+            }
+            node = child;
+        }
+
+        // Simulation
+        rollout();
+        StateValue.evaluate(game, game.peekGameState(), rewards);
+
+        // Backpropagation, each node scoring for its own Player
+        for (int i = 0; i < depth; i++) {
+            MctsNode pathNode = pathNodes[i];
+            int edge = pathEdges[i];
+            pathNode.visits[edge]++;
+            pathNode.valueSums[edge] += rewards[pathNode.player];
+            pathNode.totalVisits++;
+        }
+        iterations++;
+
+    }
+
+    /**
+     * Step the Game with an ActionSpace index.
+     * @return Key of the chance outcome of the step: the dice it rolled and the cards it drew, 0 if none.
+     */
+    private long play(int action) {
+
+        GameState gameState = game.peekGameState();
+        Dice dice = game.getDice();
+        long rolls = dice.getRollCount();
+        int chance = drawState(gameState.chance);
+        int communityChest = drawState(gameState.communityChest);
+
+        GameAction gameAction = ActionSpace.decode(action, gameState, game.getDecisionPlayer(), wrapper);
+        game.step(gameAction, wrapper);
+
+        long outcome = 0;
+        if (dice.getRollCount() != rolls)
+            outcome = 1 | (dice.r1 << 1) | (dice.r2 << 4);
+        if (drawState(gameState.chance) != chance)
+            outcome |= (long) (gameState.chance.getLastDrawn().ordinal() + 1) << 8;
+        if (drawState(gameState.communityChest) != communityChest)
+            outcome |= (long) (gameState.communityChest.getLastDrawn().ordinal() + 1) << 16;
+        return outcome;
+
+    }
+
+    private static int drawState(CardStack stack) {
+        return (stack.getNumStackLoops() << 8) | stack.getNumRemaining();
+    }
+
+    /**
+     * Play RandomJudges for `rolloutTurns` Player turns, or until the Game ends.
+     */
+    private void rollout() {
+        long horizon = game.getTurnCount() + rolloutTurns;
+        while (game.getDecisionPlayer() != -1 && game.getTurnCount() < horizon) {
+            int player = game.getDecisionPlayer();
+            Set<GameAction> legalActions = game.getLegalActions();
+            ActionState decision = rolloutJudges[player].decide(legalActions, null, game.peekGameState(), legalActions.contains(GameAction.END_TURN));
+            if ((game.getLegalActionMask() & decision.selectedAction.mask()) != 0)
+                game.step(decision.selectedAction, decision.selectedContext);
+            else
+                play(randomLegalAction());
+        }
+    }
+
+    private int randomLegalAction() {
+        int count = ActionSpace.legalMask(game, game.peekGameState(), legal, 0);
+        int pick = random.nextInt(count);
+        for (int action = 0; action < ActionSpace.ACTION_COUNT; action++)
+            if (legal[action] && pick-- == 0) return action;
+        return ActionSpace.END_TURN;
+    }
+
+    /**
+     * @return New node for the Game's current position, its legal actions in random order.
+     */
+    private MctsNode expand(long outcome) {
+        GameState gameState = game.peekGameState();
+        int count = ActionSpace.legalMask(game, gameState, legal, 0);
+        int[] actions = new int[count];
+        int n = 0;
+        for (int action = 0; action < ActionSpace.ACTION_COUNT; action++)
+            if (legal[action]) actions[n++] = action;
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = actions[i];
+            actions[i] = actions[j];
+            actions[j] = swap;
+        }
+        return new MctsNode(game.getDecisionPlayer(), Fingerprint.of(game, gameState), outcome, actions);
+    }
+
+    /**
+     * @return Shallowest node of the tree under `from` with the given fingerprint, or null.
+     */
+    private static MctsNode find(MctsNode from, long fingerprint) {
+        if (from == null) return null;
+        ArrayDeque<MctsNode> queue = new ArrayDeque<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            MctsNode node = queue.poll();
+            if (node.fingerprint == fingerprint) return node;
+            for (MctsNode first : node.children)
+                for (MctsNode child = first; child != null; child = child.sibling)
+                    queue.add(child);
+        }
+        return null;
+    }
+
+    private static int count(MctsNode from) {
+        int count = 0;
+        ArrayDeque<MctsNode> queue = new ArrayDeque<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            MctsNode node = queue.poll();
+            count++;
+            for (MctsNode first : node.children)
+                for (MctsNode child = first; child != null; child = child.sibling)
+                    queue.add(child);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,63 @@
+package search;
+
+import gameobjects.Board;
+import gameobjects.Game;
+import gameobjects.GameState;
+import gameobjects.Property;
+
+/**
+ * Static evaluation of a position for the search agents: how good it is for each Player, in [0, 1].
+ * <br>A finished Game is worth 1 to its winner and 0 to everybody else.
+ * Otherwise each Player's value is their share of the net worth left on the board: cash, Properties at their market price
+ * ... (less the mortgage if mortgaged) and houses at their cost. Bankrupt Players get 0.
+ * <br>Properties count at full price so that buying one is neutral and what it earns shows up in the search, rather than
+ * ... every purchase looking like a loss of half its price.
+ */
+public final class StateValue {
+
+    private StateValue() {}
+
+    /**
+     * Write each Player's value into `out[0, numPlayers)`.
+     * @param game Game of the position, read for whether it's over.
+     * @param gameState State of the position, e.g. game.peekGameState().
+     */
+    public static void evaluate(Game game, GameState gameState, float[] out) {
+
+        int numPlayers = gameState.numPlayers;
+
+        if (game.getDecisionPlayer() == -1) {
+            int winner = game.getWinner();
+            for (int i = 0; i < numPlayers; i++)
+                out[i] = (i == winner) ? 1f : 0f;
+            return;
+        }
+
+        float total = 0f;
+        for (int i = 0; i < numPlayers; i++) {
+            out[i] = netWorth(gameState, i);
+            total += out[i];
+        }
+        for (int i = 0; i < numPlayers; i++)
+            out[i] = (total > 0f) ? out[i] / total : 0f;
+
+    }
+
+    /**
+     * @return Cash plus the value of everything a Player owns, 0 once bankrupt.
+     */
+    public static int netWorth(GameState gameState, int playerIndex) {
+        if (gameState.playerBankruptcy[playerIndex]) return 0;
+        int worth = Math.max(gameState.cash[playerIndex], 0);
+        for (long owned = gameState.ownershipMasks[playerIndex]; owned != 0; owned &= owned - 1) {
+            int square = Long.numberOfTrailingZeros(owned);
+            Property property = Board.SQUARES.get(square);
+            worth += property.getMarketPrice();
+            if (gameState.mortgages[square])
+                worth -= (int) (property.getMarketPrice() * property.getMortgageDivisor());
+            worth += gameState.houses[square] * property.getBaseHouseCost();
+        }
+        return worth;
+    }
+
+}
@@ -0,0 +1,409 @@
+package search;
+
+import analysis.ValuationService;
+import gameobjects.ActionState;
+import gameobjects.Board;
+import gameobjects.COLOR_SET;
+import gameobjects.Game;
+import gameobjects.GameAction;
+import gameobjects.GameObject;
+import gameobjects.GameRandom;
+import gameobjects.GameState;
+import gameobjects.Property;
+import gameobjects.Trade;
+import neural.ActionSpace;
+import playerobjects.RandomJudge;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds the best Trades a Player can offer, against every opponent, at a decision where TRADE_OFFER is legal.
+ * <br>Candidates swap up to `maxProperties` Properties each way, plus cash in steps of `cashStep` either way. They're pruned
+ * ... with the ownership data: only Properties in color sets without houses change hands, and the Player must complete a color set
+ * ... or block one (take the last square an opponent lacks). They're enumerated over ownership bitmasks into reused arrays,
+ * ... without allocating: only the subsets of at most `maxProperties` Properties, fewest first, and each opponent gets an even share
+ * ... of MAX_CANDIDATES.
+ * <br>Every candidate gets a static score from ValuationService: the change in net worth plus the change in rent over
+ * ... `rolloutTurns` turns. Those the opponent would lose by are dropped, and the best `beamWidth` are scored by rollouts: the Trade
+ * ... is offered and accepted on a copy of the Game, then RandomJudges play `rolloutTurns` turns and the StateValue is averaged.
+ * Every candidate and the no-trade baseline see the same dice, cards and rollout decisions (common random numbers),
+ * ... so their differences aren't drowned in noise. Candidates are scored in parallel on a fork-join pool, each on its own Game copy.
+ * <br>One search at a time: search() is synchronized.
+ */
+public final class TradeSearch {
+
+    public static final int DEFAULT_MAX_PROPERTIES = 2;  // Per side
+    public static final int DEFAULT_CASH_STEP = 50;
+    public static final int DEFAULT_CASH_STEPS = 4;  // Cash from -4 to +4 steps
+    public static final int DEFAULT_BEAM_WIDTH = 32;
+    public static final int DEFAULT_ROLLOUTS = 16;
+    public static final int DEFAULT_ROLLOUT_TURNS = 20;
+    public static final int MAX_CANDIDATES = 1 << 16;
+
+    private static final int NUM_SQUARES = Board.SQUARES.size();
+
+    /**
+     * A Trade, with how much it's worth to the Player who offers it and to the one who accepts it: the change in their StateValue
+     * ... from the rollouts, against not trading.
+     */
+    public record Result(Trade trade, float value, float catcherValue) {}
+
+    private final int maxProperties;
+    private final int cashStep;
+    private final int cashSteps;
+    private final int beamWidth;
+    private final int rollouts;
+    private final int rolloutTurns;
+    private final ForkJoinPool pool;
+    private final GameRandom random;
+    private final ValuationService valuationService = new ValuationService();
+
+    // Candidates of the current search
+    private final int[] catchers = new int[MAX_CANDIDATES];
+    private final long[] gives = new long[MAX_CANDIDATES];  // Properties the Player gives, as an ownership mask
+    private final long[] takes = new long[MAX_CANDIDATES];
+    private final int[] cashes = new int[MAX_CANDIDATES];  // Cash the Player pays, negative if the catcher pays
+    private final float[] scores = new float[MAX_CANDIDATES];
+    private long[] masks = new long[0];  // Scratch ownership masks, one per Player
+    private double[] delta = new double[0];  // Scratch income deltas, one per Player
+    private final long[] giveSets = new long[MAX_CANDIDATES];  // Subsets the Player can give, fewest Properties first
+    private final long[] takeSets = new long[MAX_CANDIDATES];
+    private final int[] beam;
+
+    /**
+     * @param maxProperties Most Properties each side gives.
+     * @param cashStep Granularity of the cash in a Trade.
+     * @param cashSteps Most steps of cash either side pays.
+     * @param beamWidth Number of candidates scored by rollouts.
+     * @param rollouts Rollouts per candidate.
+     * @param rolloutTurns Player turns per rollout.
+     * @param pool Pool the candidates are scored on.
+     * @param random Stream the rollouts' chance and decisions are seeded from.
+     */
+    public TradeSearch(int maxProperties, int cashStep, int cashSteps, int beamWidth, int rollouts, int rolloutTurns, ForkJoinPool pool, GameRandom random) {
+        this.maxProperties = maxProperties;
+        this.cashStep = cashStep;
+        this.cashSteps = cashSteps;
+        this.beamWidth = beamWidth;
+        this.rollouts = rollouts;
+        this.rolloutTurns = rolloutTurns;
+        this.pool = pool;
+        this.random = random;
+        this.beam = new int[beamWidth];
+    }
+
+    public TradeSearch(GameRandom random) {
+        this(DEFAULT_MAX_PROPERTIES, DEFAULT_CASH_STEP, DEFAULT_CASH_STEPS, DEFAULT_BEAM_WIDTH, DEFAULT_ROLLOUTS, DEFAULT_ROLLOUT_TURNS,
+                ForkJoinPool.commonPool(), random);
+    }
+
+    /**
+     * @return Up to `k` best Trades for a Player, best first, only those worth more than not trading.
+     * Empty if it isn't the Player's decision, or TRADE_OFFER isn't legal.
+     */
+    public synchronized List<Result> search(Game game, int playerIndex, int k) {
+
+        List<Result> results = new ArrayList<>(k);
+        if (game.getDecisionPlayer() != playerIndex || (game.getLegalActionMask() & GameAction.TRADE_OFFER.mask()) == 0)
+            return results;
+
+        long seed = random.nextLong();
+        Game root = game.copy(seed);
+        GameState gameState = root.peekGameState();
+        int count = generate(gameState, playerIndex);
+        int width = rank(gameState, playerIndex, count);
+        if (width == 0) return results;
+
+        // The baseline, then the beam
+        float[][] values = pool.invoke(new RecursiveTask<float[][]>() {
+            @Override
+            protected float[][] compute() {
+                List<RecursiveTask<float[]>> tasks = new ArrayList<>(width + 1);
+                tasks.add(new RolloutTask(root, seed, playerIndex, -1));
+                for (int i = 0; i < width; i++)
+                    tasks.add(new RolloutTask(root, seed, playerIndex, beam[i]));
+                invokeAll(tasks);
+                float[][] values = new float[tasks.size()][];
+                for (int i = 0; i < values.length; i++)
+                    values[i] = tasks.get(i).join();
+                return values;
+            }
+        });
+
+        for (int i = 0; i < width; i++) {
+            int candidate = beam[i];
+            int catcher = catchers[candidate];
+            float value = values[i + 1][playerIndex] - values[0][playerIndex];
+            if (value > 0)
+                results.add(new Result(trade(playerIndex, candidate), value, values[i + 1][catcher] - values[0][catcher]));
+        }
+        results.sort((a, b) -> Float.compare(b.value(), a.value()));
+        return (results.size() > k) ? new ArrayList<>(results.subList(0, k)) : results;
+
+    }
+
+    // Generation ///////////////////////////////////
+
+    /**
+     * Enumerate the candidates of a Player against every opponent into the candidate arrays.
+     * @return Number of candidates, at most MAX_CANDIDATES.
+     */
+    private int generate(GameState gameState, int playerIndex) {
+
+        // Color sets with houses can't be traded
+        long built = 0;
+        for (int square = 0; square < NUM_SQUARES; square++)
+            if (gameState.houses[square] > 0) built |= colorSetMask(square);
+
+        // Squares that would block an opponent: the only one of its color set they don't own
+        long blocking = 0;
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            int owner = gameState.ownership[square];
+            if (owner == -1 || owner == playerIndex) continue;
+            long rest = colorSetMask(square) & ~(1L << square);
+            for (int opponent = 0; opponent < gameState.numPlayers; opponent++)
+                if (opponent != playerIndex && !gameState.playerBankruptcy[opponent] && (gameState.ownershipMasks[opponent] & rest) == rest)
+                    blocking |= 1L << square;
+        }
+
+        long owned = gameState.ownershipMasks[playerIndex];
+        int giveCount = subsets(owned & ~built, maxProperties, giveSets);
+        int opponents = 0;
+        for (int catcher = 0; catcher < gameState.numPlayers; catcher++)
+            if (catcher != playerIndex && !gameState.playerBankruptcy[catcher]) opponents++;
+
+        int count = 0;
+        for (int catcher = 0; catcher < gameState.numPlayers; catcher++) {
+            if (catcher == playerIndex || gameState.playerBankruptcy[catcher]) continue;
+            // An even share of what's left, so what one opponent doesn't use goes to the next
+            int limit = count + (MAX_CANDIDATES - count) / opponents--;
+            int takeCount = subsets(gameState.ownershipMasks[catcher] & ~built, maxProperties, takeSets);
+            count = generate(gameState, playerIndex, catcher, owned, blocking, giveCount, takeCount, count, limit);
+        }
+        return count;
+
+    }
+
+    /**
+     * Enumerate the candidates against one catcher, from giveSets and takeSets, into the candidate arrays from `count` on.
+     * @return Number of candidates so far, at most `limit`.
+     */
+    private int generate(GameState gameState, int playerIndex, int catcher, long owned, long blocking,
+                         int giveCount, int takeCount, int count, int limit) {
+        for (int t = 1; t < takeCount; t++) {  // takeSets[0] takes nothing
+            long take = takeSets[t];
+            boolean blocks = (take & blocking) != 0;
+            for (int g = 0; g < giveCount; g++) {
+                long give = giveSets[g];
+                if (!blocks && !completes(owned, (owned & ~give) | take)) continue;
+                for (int step = -cashSteps; step <= cashSteps; step++) {
+                    int cash = step * cashStep;
+                    if (cash > gameState.cash[playerIndex] || -cash > gameState.cash[catcher]) continue;
+                    if (count == limit) return count;
+                    catchers[count] = catcher;
+                    gives[count] = give;
+                    takes[count] = take;
+                    cashes[count] = cash;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Enumerate the subsets of `set` with at most `max` elements into `out`, fewest elements first, the empty set at [0].
+     * <br>Each subset is extended only with elements above its highest one, so each is reached once.
+     * @return Number of subsets, at most out.length.
+     */
+    private static int subsets(long set, int max, long[] out) {
+        int count = 0;
+        out[count++] = 0;
+        for (int i = 0; i < count; i++) {
+            long subset = out[i];
+            if (Long.bitCount(subset) == max) continue;
+            long above = (subset == 0) ? set : set & -(Long.highestOneBit(subset) << 1);
+            for (; above != 0 && count < out.length; above &= above - 1)
+                out[count++] = subset | Long.lowestOneBit(above);
+        }
+        return count;
+    }
+
+    /**
+     * @return Whether owning `after` instead of `before` completes a color set.
+     */
+    private static boolean completes(long before, long after) {
+        for (int set = 0; set < COLOR_SET.FUNCTION.ordinal(); set++) {
+            long mask = GameState.COLOR_SET_MASKS[set];
+            if ((after & mask) == mask && (before & mask) != mask) return true;
+        }
+        return false;
+    }
+
+    private static long colorSetMask(int square) {
+        return GameState.COLOR_SET_MASKS[Board.SQUARES.get(square).getColor().ordinal()];
+    }
+
+    // Static ranking ///////////////////////////////
+
+    /**
+     * Score every candidate statically, and keep the best `beamWidth` the catcher wouldn't lose by in `beam`.
+     * @return Number of candidates kept.
+     */
+    private int rank(GameState gameState, int playerIndex, int count) {
+        int opponents = -1;
+        for (int i = 0; i < gameState.numPlayers; i++)
+            if (!gameState.playerBankruptcy[i]) opponents++;
+        if (masks.length != gameState.numPlayers) {
+            masks = new long[gameState.numPlayers];
+            delta = new double[gameState.numPlayers];
+        }
+        int width = 0;
+        for (int candidate = 0; candidate < count; candidate++) {
+            int catcher = catchers[candidate];
+            System.arraycopy(gameState.ownershipMasks, 0, masks, 0, gameState.numPlayers);
+            masks[playerIndex] = (masks[playerIndex] & ~gives[candidate]) | takes[candidate];
+            masks[catcher] = (masks[catcher] & ~takes[candidate]) | gives[candidate];
+            valuationService.incomeDelta(gameState, masks, delta);
+            double worth = worth(gameState, takes[candidate]) - worth(gameState, gives[candidate]) - cashes[candidate];
+            // Rent collected on each opponent turn, less rent paid to the other side
+            double value = worth + rolloutTurns * (delta[playerIndex] * opponents - delta[catcher]);
+            double catcherValue = -worth + rolloutTurns * (delta[catcher] * opponents - delta[playerIndex]);
+            if (catcherValue < 0) continue;
+            scores[candidate] = (float) value;
+
+            // Insert into the beam, kept sorted best first
+            if (width == beamWidth && scores[beam[width - 1]] >= scores[candidate]) continue;
+            int i = (width < beamWidth) ? width++ : width - 1;
+            while (i > 0 && scores[beam[i - 1]] < scores[candidate]) {
+                beam[i] = beam[i - 1];
+                i--;
+            }
+            beam[i] = candidate;
+        }
+        return width;
+    }
+
+    /**
+     * @return Net worth of the Properties in a mask, as in StateValue.netWorth().
+     */
+    private static int worth(GameState gameState, long properties) {
+        int worth = 0;
+        for (; properties != 0; properties &= properties - 1) {
+            int square = Long.numberOfTrailingZeros(properties);
+            Property property = Board.SQUARES.get(square);
+            worth += property.getMarketPrice();
+            if (gameState.mortgages[square])
+                worth -= (int) (property.getMarketPrice() * property.getMortgageDivisor());
+        }
+        return worth;
+    }
+
+    private Trade trade(int playerIndex, int candidate) {
+        int cash = cashes[candidate];
+        return new Trade(playerIndex, catchers[candidate],
+                Math.max(cash, 0), squares(gives[candidate]), 0,
+                Math.max(-cash, 0), squares(takes[candidate]), 0);
+    }
+
+    private static int[] squares(long mask) {
+        int[] squares = new int[Long.bitCount(mask)];
+        for (int i = 0; mask != 0; mask &= mask - 1)
+            squares[i++] = Long.numberOfTrailingZeros(mask);
+        return squares;
+    }
+
+    // Rollouts /////////////////////////////////////
+
+    /**
+     * Average StateValue of every Player over the rollouts of one candidate (-1 for not trading), on its own copy of the Game.
+     */
+    private class RolloutTask extends RecursiveTask<float[]> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Game source;
+        private final long seed;
+        private final int playerIndex;
+        private final int candidate;
+
+        RolloutTask(Game source, long seed, int playerIndex, int candidate) {
+            this.source = source;
+            this.seed = seed;
+            this.playerIndex = playerIndex;
+            this.candidate = candidate;
+        }
+
+        @Override
+        protected float[] compute() {
+
+            Game game = source.copy(seed);
+            int numPlayers = game.peekGameState().numPlayers;
+            GameRandom[] randoms = new GameRandom[numPlayers];
+            RandomJudge[] judges = new RandomJudge[numPlayers];
+            for (int i = 0; i < numPlayers; i++) {
+                randoms[i] = random.split(1 + i);
+                judges[i] = new RandomJudge(i, randoms[i]);
+            }
+            float[] values = new float[numPlayers];
+            float[] sums = new float[numPlayers];
+            boolean[] legal = new boolean[ActionSpace.ACTION_COUNT];
+
+            int mark = game.mark();
+            for (int rollout = 0; rollout < rollouts; rollout++) {
+                game.rollbackTo(mark);
+                if (candidate != -1) offer(game, catchers[candidate]);
+                // Rollout `r` sees the same chance and decisions for every candidate
+                long position = Fingerprint.mix(seed, rollout);
+                game.seekChance(position >>> 1);
+                for (GameRandom judgeRandom : randoms)
+                    judgeRandom.seek(position);
+                long horizon = game.getTurnCount() + rolloutTurns;
+                while (game.getDecisionPlayer() != -1 && game.getTurnCount() < horizon) {
+                    int player = game.getDecisionPlayer();
+                    Set<GameAction> legalActions = game.getLegalActions();
+                    ActionState decision = judges[player].decide(legalActions, null, game.peekGameState(), legalActions.contains(GameAction.END_TURN));
+                    if ((game.getLegalActionMask() & decision.selectedAction.mask()) != 0) {
+                        game.step(decision.selectedAction, decision.selectedContext);
+                    } else {
+                        GameState gameState = game.peekGameState();
+                        ActionSpace.legalMask(game, gameState, legal, 0);
+                        int first = 0;
+                        while (!legal[first]) first++;
+                        GameObject wrapper = new GameObject();
+                        game.step(ActionSpace.decode(first, gameState, player, wrapper), wrapper);
+                    }
+                }
+                StateValue.evaluate(game, game.peekGameState(), values);
+                for (int i = 0; i < numPlayers; i++)
+                    sums[i] += values[i];
+            }
+            for (int i = 0; i < numPlayers; i++)
+                sums[i] /= rollouts;
+            return sums;
+
+        }
+
+        /**
+         * Offer the candidate's Trade and accept it on behalf of the catcher.
+         */
+        private void offer(Game game, int catcher) {
+            GameObject wrapper = new GameObject();
+            wrapper.objTrade = trade(playerIndex, candidate);
+            game.step(GameAction.TRADE_OFFER, wrapper);
+            if (game.getDecisionPlayer() == catcher && (game.getLegalActionMask() & GameAction.TRADE_RESPOND.mask()) != 0) {
+                GameObject response = new GameObject();
+                response.objBool = true;
+                game.step(GameAction.TRADE_RESPOND, response);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package search;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free cache of position values, shared by every thread of a search.
+ * <br>Each slot packs the upper 32 bits of its key with a float value into one long, so a read never sees half of a write.
+ * The lower key bits pick the slot; on a clash the newest entry wins.
+ */
+public final class TranspositionTable {
+
+    private final AtomicLongArray entries;
+    private final int mask;
+
+    /**
+     * @param bits log2 of the number of slots.
+     */
+    public TranspositionTable(int bits) {
+        this.entries = new AtomicLongArray(1 << bits);
+        this.mask = (1 << bits) - 1;
+    }
+
+    /**
+     * @return Value stored under `key`, NaN if there is none.
+     */
+    public float get(long key) {
+        long entry = entries.get((int) key & mask);
+        if (entry != 0 && (entry >>> 32) == (key >>> 32))
+            return Float.intBitsToFloat((int) entry);
+        return Float.NaN;
+    }
+
+    public void put(long key, float value) {
+        entries.set((int) key & mask, (key & 0xFFFFFFFF00000000L) | (Float.floatToRawIntBits(value) & 0xFFFFFFFFL));
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++)
+            entries.set(i, 0);
+    }
+
+}
@@ -0,0 +1,124 @@
+package simulation;
+
+import gameobjects.Game;
+import main.Monopoly;
+import playerobjects.RandomJudge;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs independent Games in parallel on a ForkJoinPool.
+ * <br>Each Game is built, played, and discarded entirely on one worker thread, so no engine state is ever shared
+ * ... between threads. Game `i` is seeded exactly as in Simulator, so results do not depend on the thread count.
+ * <br>The JudgeFactory is called from worker threads and must therefore be thread-safe.
+ */
+public class GamePool {
+
+    public static final int GAMES_PER_TASK = 16;  // Below this many games, a task plays its games instead of forking
+
+    private final Simulator simulator;
+
+    public GamePool(Simulator simulator) {
+        this.simulator = simulator;
+    }
+
+    /**
+     * Play games [0, numGames) of the run on `numThreads` worker threads.
+     * @return Throughput figures for the whole run.
+     */
+    public SimulationResult run(int numGames, int numThreads) {
+
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            long start = System.nanoTime();
+            long[] counts = pool.invoke(new GameRangeTask(0, numGames));
+            long elapsed = System.nanoTime() - start;
+            return new SimulationResult(numGames, counts[0], counts[1], elapsed, numThreads);
+        } finally {
+            pool.shutdown();
+        }
+
+    }
+
+    /**
+     * Measure throughput as the thread count doubles, from 1 up to `maxThreads` (inclusive).
+     * @return One result per thread count, in increasing order.
+     */
+    public List<SimulationResult> scaling(int numGames, int maxThreads) {
+        List<SimulationResult> results = new ArrayList<>();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            results.add(run(numGames, threads));
+            if (threads < maxThreads && threads * 2 > maxThreads)
+                threads = maxThreads / 2;  // Make sure maxThreads itself gets measured
+        }
+        return results;
+    }
+
+    /**
+     * Plays a contiguous range of games, splitting it in half until it is small enough.
+     * Returns {turns, decisions} summed over the range.
+     */
+    private class GameRangeTask extends RecursiveTask<long[]> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        GameRangeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+
+            if (to - from > GAMES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                GameRangeTask left = new GameRangeTask(from, mid);
+                left.fork();
+                long[] right = new GameRangeTask(mid, to).compute();
+                long[] leftCounts = left.join();
+                return new long[]{leftCounts[0] + right[0], leftCounts[1] + right[1]};
+            }
+
+            long turns = 0;
+            long decisions = 0;
+            for (int i = from; i < to; i++) {
+                Game game = simulator.createGame(i);
+                game.gameLoop();
+                turns += game.getTurnCount();
+                decisions += game.getDecisionCount();
+            }
+            return new long[]{turns, decisions};
+
+        }
+
+    }
+
+    /**
+     * Entry point for a parallel throughput-scaling run with RandomJudges in every seat.
+     * @param args Optional number of games, then an optional maximum thread count, then an optional master seed.
+     */
+    public static void main(String[] args) {
+
+        int numGames = (args.length > 0) ? Integer.parseInt(args[0]) : Simulator.DEFAULT_NUM_GAMES;
+        int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long masterSeed = (args.length > 2) ? Long.parseLong(args[2]) : System.nanoTime();
+
+        GamePool gamePool = new GamePool(new Simulator(Monopoly.MAX_PLAYERS, RandomJudge::new, masterSeed));
+        System.out.println("Master seed: " + masterSeed);
+
+        List<SimulationResult> results = gamePool.scaling(numGames, maxThreads);
+        double baseline = results.get(0).gamesPerSecond();
+        for (SimulationResult result : results)
+            System.out.printf("%.2fx speedup: %s%n%n", result.gamesPerSecond() / baseline, result);
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package simulation;
+
+import gameobjects.GameRandom;
+import playerobjects.Judge;
+
+/**
+ * Produces a fresh Judge for one seat of a simulated Game.
+ */
+@FunctionalInterface
+public interface JudgeFactory {
+
+    /**
+     * @param playerIndex Seat (player index) the Judge will decide for.
+     * @param random The seat's own sub-stream of the Game's seed. Judges should draw all their randomness from it,
+     *               so that a Game replays exactly from its seed.
+     */
+    Judge create(int playerIndex, GameRandom random);
+
+}
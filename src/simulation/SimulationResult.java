@@ -0,0 +1,51 @@
+package simulation;
+
+/**
+ * Throughput figures for a batch of simulated games.
+ */
+public class SimulationResult {
+
+    public final long games;
+    public final long turns;
+    public final long decisions;
+    public final long elapsedNanos;
+    public final int threads;
+
+    public SimulationResult(long games, long turns, long decisions, long elapsedNanos, int threads) {
+        this.games = games;
+        this.turns = turns;
+        this.decisions = decisions;
+        this.elapsedNanos = elapsedNanos;
+        this.threads = threads;
+    }
+
+    public SimulationResult(long games, long turns, long decisions, long elapsedNanos) {
+        this(games, turns, decisions, elapsedNanos, 1);
+    }
+
+    public double gamesPerSecond() {
+        return perSecond(games);
+    }
+
+    public double turnsPerSecond() {
+        return perSecond(turns);
+    }
+
+    public double decisionsPerSecond() {
+        return perSecond(decisions);
+    }
+
+    private double perSecond(long count) {
+        if (elapsedNanos <= 0) return 0;
+        return count / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games, %d turns, %d decisions in %.3fs on %d thread(s)%n" +
+                        "%.1f games/sec | %.1f turns/sec | %.1f decisions/sec",
+                games, turns, decisions, elapsedNanos / 1e9, threads,
+                gamesPerSecond(), turnsPerSecond(), decisionsPerSecond());
+    }
+
+}
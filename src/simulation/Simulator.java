@@ -0,0 +1,95 @@
+package simulation;
+
+import gameobjects.Game;
+import gameobjects.GameRandom;
+import main.Monopoly;
+import playerobjects.Judge;
+import playerobjects.NullOutPipe;
+import playerobjects.OutPipe;
+import playerobjects.RandomJudge;
+
+/**
+ * Headless runner that plays Games back-to-back without any graphical interface.
+ * <br>Each seat's Judge is supplied by a factory, so any mix of agents can be simulated.
+ * No JavaFX classes are referenced (or loaded) from here.
+ * <br>Runs are reproducible: game `i` of a run is seeded with `GameRandom.gameSeed(masterSeed, i)`,
+ * ... so any single game can be replayed on its own via createGame(i).
+ */
+public class Simulator {
+
+    public static final int DEFAULT_NUM_GAMES = 1000;
+
+    private final int numPlayers;
+    private final String[] names;
+    private final JudgeFactory judgeFactory;
+    private final long masterSeed;
+
+    /**
+     * @param numPlayers Number of players per Game.
+     * @param judgeFactory Produces a fresh Judge for a given seat. Called once per seat per Game.
+     * @param masterSeed Seed of the whole run.
+     */
+    public Simulator(int numPlayers, JudgeFactory judgeFactory, long masterSeed) {
+        this.numPlayers = numPlayers;
+        this.judgeFactory = judgeFactory;
+        this.masterSeed = masterSeed;
+        this.names = new String[numPlayers];
+        for (int i = 0; i < numPlayers; i++)
+            names[i] = "Player " + (i + 1);
+    }
+
+    /**
+     * Builds game number `gameIndex` of the run: a silent Game with a fresh Judge per seat.
+     */
+    public Game createGame(long gameIndex) {
+        long seed = GameRandom.gameSeed(masterSeed, gameIndex);
+        GameRandom random = new GameRandom(seed);
+        Judge[] judges = new Judge[numPlayers];
+        OutPipe[] outPipes = new OutPipe[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            judges[i] = judgeFactory.create(i, random.split(GameRandom.SEAT_STREAM_OFFSET + i));
+            outPipes[i] = new NullOutPipe();
+        }
+        Game game = new Game(numPlayers, names, judges, outPipes, null, seed);
+        game.setVerbose(false);
+        return game;
+    }
+
+    /**
+     * Play `numGames` Games to completion, one after another.
+     * @return Throughput figures for the whole run.
+     */
+    public SimulationResult run(int numGames) {
+
+        long turns = 0;
+        long decisions = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < numGames; i++) {
+            Game game = createGame(i);
+            game.gameLoop();
+            turns += game.getTurnCount();
+            decisions += game.getDecisionCount();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new SimulationResult(numGames, turns, decisions, elapsed);
+
+    }
+
+    /**
+     * Entry point for headless simulation with RandomJudges in every seat.
+     * @param args Optional number of games to play, then an optional master seed.
+     */
+    public static void main(String[] args) {
+
+        int numGames = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_NUM_GAMES;
+        long masterSeed = (args.length > 1) ? Long.parseLong(args[1]) : System.nanoTime();
+
+        Simulator simulator = new Simulator(Monopoly.MAX_PLAYERS, RandomJudge::new, masterSeed);
+        System.out.println("Master seed: " + masterSeed);
+        System.out.println(simulator.run(numGames));
+
+    }
+
+}